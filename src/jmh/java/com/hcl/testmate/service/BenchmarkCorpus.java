@@ -0,0 +1,235 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hcl.testmate.model.TestCase;
+
+/**
+ * Synthetic but realistic inputs for the benchmarks: AI responses, JIRA descriptions,
+ * story documents and test case lists, including large and pathological variants.
+ * Generation is deterministic so results are comparable between runs.
+ */
+public final class BenchmarkCorpus {
+
+    private static final String[] SCREENS = {
+        "Beneficiary Details", "Payment Instruction", "Account Summary", "Reporting Dashboard",
+        "Approval Queue", "Document Upload", "Login", "Profile Settings"
+    };
+
+    private BenchmarkCorpus() {}
+
+    /**
+     * Shapes of AI responses seen in practice
+     */
+    public enum AiResponseShape {
+        // Bare JSON array, as the prompt asks for
+        CLEAN,
+        // Array inside a ```json fence surrounded by prose
+        FENCED,
+        // 150 test cases inside a fence, close to the max_tokens limit
+        LARGE,
+        // Fenced array cut off mid-object because the completion hit max_tokens
+        TRUNCATED,
+        // Long prose answer without any array
+        NO_ARRAY,
+        // Prose full of [bracketed] notes and stray "[{" before the real array
+        BRACKET_NOISE
+    }
+
+    /**
+     * Shapes of JIRA descriptions seen in practice
+     */
+    public enum DescriptionShape {
+        // User story, numbered acceptance criteria and BR-prefixed business rules
+        TYPICAL,
+        // Epic-sized story with 60 acceptance criteria and 40 business rules
+        LARGE,
+        // Acceptance criteria written as unnumbered Given/When/Then paragraphs
+        GIVEN_WHEN_THEN,
+        // 30 KB of unstructured text without any section headings
+        UNSTRUCTURED,
+        // Repeated "As a ... I want" fragments without "so that" and no headings
+        PATHOLOGICAL
+    }
+
+    static String aiResponse(AiResponseShape shape) {
+        switch (shape) {
+            case CLEAN:
+                return testCaseArray(8);
+            case FENCED:
+                return "Here are the test cases for the story:\n\n```json\n" + testCaseArray(8)
+                        + "\n```\n\nLet me know if you need additional negative scenarios.";
+            case LARGE:
+                return "Below are the generated test cases.\n\n```json\n" + testCaseArray(150) + "\n```\n";
+            case TRUNCATED: {
+                String array = testCaseArray(40);
+                return "```json\n" + array.substring(0, array.length() * 3 / 4);
+            }
+            case NO_ARRAY:
+                return prose(50_000);
+            case BRACKET_NOISE: {
+                StringBuilder response = new StringBuilder();
+                for (int i = 0; i < 400; i++) {
+                    response.append("Step ").append(i).append(" [see note ").append(i)
+                            .append("] refers to {field} values like [{x}] and [optional]. ");
+                }
+                response.append("\n[{ unbalanced example\n\n```json\n").append(testCaseArray(8)).append("\n```\n");
+                return response.toString();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    static String jiraDescription(DescriptionShape shape) {
+        switch (shape) {
+            case TYPICAL:
+                return structuredDescription(6, 4);
+            case LARGE:
+                return structuredDescription(60, 40);
+            case GIVEN_WHEN_THEN: {
+                StringBuilder description = new StringBuilder(userStory(0)).append("\n\nAcceptance Criteria:\n");
+                for (int i = 0; i < 12; i++) {
+                    String screen = SCREENS[i % SCREENS.length];
+                    description.append("Given the user is on the ").append(screen).append(" screen\n")
+                            .append("When they submit the form with scenario ").append(i).append(" data\n")
+                            .append("Then the ").append(screen).append(" record is saved and a confirmation is shown\n\n");
+                }
+                return description.toString();
+            }
+            case UNSTRUCTURED:
+                return prose(30_000);
+            case PATHOLOGICAL: {
+                StringBuilder description = new StringBuilder();
+                for (int i = 0; i < 300; i++) {
+                    description.append("As a ").append(SCREENS[i % SCREENS.length].toLowerCase())
+                            .append(" operator I want to review item ").append(i).append(" before approval ");
+                }
+                return description.toString();
+            }
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    /**
+     * Word-style HTML export (.doc saved as web page) of a story document of roughly the given size
+     */
+    static String htmlDocument(int approximateChars) {
+        StringBuilder html = new StringBuilder(approximateChars + 4096);
+        html.append("<html xmlns:o=\"urn:schemas-microsoft-com:office:office\">\n<head>\n")
+                .append("<meta http-equiv=Content-Type content=\"text/html; charset=utf-8\">\n")
+                .append("<style>\n<!--\n p.MsoNormal {margin:0cm; font-size:11.0pt; font-family:\"Calibri\",sans-serif;}\n-->\n</style>\n")
+                .append("<script type=\"text/javascript\">var layout = { mode: 'print' };</script>\n")
+                .append("</head>\n<body lang=EN-ZA>\n<div class=WordSection1>\n");
+        int i = 0;
+        while (html.length() < approximateChars) {
+            html.append("<!-- [if !supportLists] -->\n")
+                    .append("<p class=MsoNormal><b><span style='font-size:12.0pt'>")
+                    .append(SCREENS[i % SCREENS.length]).append("&nbsp;Requirement ").append(i)
+                    .append("</span></b></p>\n<p class=MsoNormal>The user selects &quot;Save&quot; &amp; the system ")
+                    .append("validates that amount &lt; limit &gt; 0 for record ").append(i)
+                    .append(" and shows the user&#39;s confirmation message.</p>\n");
+            i++;
+        }
+        return html.append("</div>\n</body>\n</html>\n").toString();
+    }
+
+    static List<TestCase> testCases(int count) {
+        List<TestCase> testCases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String screen = SCREENS[i % SCREENS.length];
+            testCases.add(TestCase.builder()
+                    .testCaseId(String.format("TC%03d", i + 1))
+                    .testScenario("Verify " + screen + " \"save\", with valid data - scenario " + i)
+                    .toValidate("To validate that the " + screen + " screen saves the record, shows a confirmation\nand updates the audit trail")
+                    .preconditions("1. User is logged in to SSC\n2. User has the maker role\n3. Test data set " + i + " exists")
+                    .testSteps("1. Navigate to " + screen + "\n2. Enter the mandatory fields, including \"Reference\"\n"
+                            + "3. Click Save\n4. Open the audit trail\n5. Verify the new entry")
+                    .expectedResult("Record is saved, a confirmation is shown and the audit trail lists the change")
+                    .priority(i % 3 == 0 ? "High" : "Medium")
+                    .testType(i % 4 == 0 ? "Negative" : "Positive")
+                    .build());
+        }
+        return testCases;
+    }
+
+    /**
+     * Test cases where every other scenario repeats an earlier one with different casing/whitespace
+     */
+    static List<TestCase> testCasesWithDuplicates(int count) {
+        List<TestCase> testCases = testCases(count);
+        for (int i = 1; i < testCases.size(); i += 2) {
+            String earlier = testCases.get(i - 1).getTestScenario();
+            testCases.get(i).setTestScenario("  " + earlier.toUpperCase() + " ");
+        }
+        return testCases;
+    }
+
+    /**
+     * Story text for workflow detection; the value stream is mentioned at the end (or not at all)
+     */
+    static String storyText(int approximateChars, String valueStream) {
+        StringBuilder story = new StringBuilder(userStory(1)).append("\n\n").append(prose(approximateChars));
+        if (valueStream != null) {
+            story.append("\nApplies to ").append(valueStream).append(" only.");
+        }
+        return story.toString();
+    }
+
+    private static String structuredDescription(int criteria, int rules) {
+        StringBuilder description = new StringBuilder("User Story:\n").append(userStory(0)).append("\n\nAcceptance Criteria:\n");
+        for (int i = 1; i <= criteria; i++) {
+            description.append(i).append(". The ").append(SCREENS[i % SCREENS.length])
+                    .append(" screen validates field ").append(i).append(" and shows an inline error when it is empty\n");
+        }
+        description.append("\nBusiness Rules:\n");
+        for (int i = 1; i <= rules; i++) {
+            description.append(String.format("BR%03d: ", i)).append("Amounts above limit ").append(i * 1000)
+                    .append(" require a second approver from a different department\n");
+        }
+        return description.append("\nAssumptions:\n- Reference data is loaded nightly\n").toString();
+    }
+
+    private static String userStory(int variant) {
+        return "As a " + (variant == 0 ? "payments maker" : "reporting analyst") + " I want to capture "
+                + SCREENS[variant] + " so that the approver can authorise the instruction the same day.";
+    }
+
+    private static String testCaseArray(int count) {
+        StringBuilder json = new StringBuilder("[\n");
+        List<TestCase> testCases = testCases(count);
+        for (int i = 0; i < testCases.size(); i++) {
+            TestCase testCase = testCases.get(i);
+            json.append("  {\n")
+                    .append("    \"testCaseId\": \"").append(testCase.getTestCaseId()).append("\",\n")
+                    .append("    \"testScenario\": \"").append(escape(testCase.getTestScenario())).append("\",\n")
+                    .append("    \"toValidate\": \"").append(escape(testCase.getToValidate())).append("\",\n")
+                    .append("    \"preconditions\": \"").append(escape(testCase.getPreconditions())).append("\",\n")
+                    .append("    \"testSteps\": \"").append(escape(testCase.getTestSteps())).append("\",\n")
+                    .append("    \"expectedResult\": \"").append(escape(testCase.getExpectedResult())).append("\",\n")
+                    .append("    \"priority\": \"").append(testCase.getPriority()).append("\",\n")
+                    .append("    \"testType\": \"").append(testCase.getTestType()).append("\"\n")
+                    .append(i < testCases.size() - 1 ? "  },\n" : "  }\n");
+        }
+        return json.append("]").toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String prose(int approximateChars) {
+        StringBuilder text = new StringBuilder(approximateChars + 200);
+        int i = 0;
+        while (text.length() < approximateChars) {
+            text.append("The ").append(SCREENS[i % SCREENS.length].toLowerCase())
+                    .append(" process captures the instruction, checks the daily limit and routes it to an approver. ");
+            if (++i % 6 == 0) {
+                text.append("\n");
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.hcl.testmate.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hcl.testmate.model.TestCase;
+
+/**
+ * Octane CSV export for single stories up to large batch exports
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvGenerationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int testCaseCount;
+
+    private CsvGeneratorService csvGeneratorService;
+    private List<TestCase> testCases;
+
+    @Setup
+    public void setUp() {
+        csvGeneratorService = new CsvGeneratorService();
+        testCases = BenchmarkCorpus.testCases(testCaseCount);
+    }
+
+    @Benchmark
+    public String generateCsv() {
+        return csvGeneratorService.generateCsv(testCases);
+    }
+}
@@ -0,0 +1,109 @@
+package com.hcl.testmate.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+
+import com.hcl.testmate.service.BenchmarkCorpus.DescriptionShape;
+
+/**
+ * Section extraction from uploaded story documents and text extraction from .docx and HTML-based .doc files
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoryText {
+        @Param({"TYPICAL", "LARGE", "UNSTRUCTURED"})
+        public DescriptionShape shape;
+
+        private String text;
+
+        @Setup
+        public void setUp() {
+            text = BenchmarkCorpus.jiraDescription(shape);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HtmlDocument {
+        // Size of the HTML export in characters
+        @Param({"20000", "500000"})
+        public int htmlSize;
+
+        private byte[] content;
+
+        @Setup
+        public void setUp() {
+            content = BenchmarkCorpus.htmlDocument(htmlSize).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DocxDocument {
+        // Number of story descriptions in the document, each followed by a small table
+        @Param({"10", "500"})
+        public int stories;
+
+        private byte[] content;
+
+        @Setup
+        public void setUp() throws IOException {
+            String story = BenchmarkCorpus.jiraDescription(DescriptionShape.TYPICAL);
+            try (XWPFDocument document = new XWPFDocument();
+                 ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                for (int i = 0; i < stories; i++) {
+                    for (String line : story.split("\n")) {
+                        document.createParagraph().createRun().setText(line);
+                    }
+                    XWPFTable table = document.createTable(3, 3);
+                    for (int row = 0; row < 3; row++) {
+                        for (int cell = 0; cell < 3; cell++) {
+                            table.getRow(row).getCell(cell).setText("Field " + row + "." + cell);
+                        }
+                    }
+                }
+                document.write(out);
+                content = out.toByteArray();
+            }
+        }
+    }
+
+    private final DocumentParserService documentParserService = new DocumentParserService();
+
+    @Benchmark
+    public DocumentParserService.DocumentSections extractSections(StoryText story) {
+        return documentParserService.extractSections(story.text);
+    }
+
+    @Benchmark
+    public String extractFromHtmlDoc(HtmlDocument document) throws Exception {
+        return documentParserService.extractFromHtmlDoc(new ByteArrayInputStream(document.content));
+    }
+
+    @Benchmark
+    public String extractFromDocx(DocxDocument document) {
+        return documentParserService.extractTextFromDocument("story.docx", document.content);
+    }
+}
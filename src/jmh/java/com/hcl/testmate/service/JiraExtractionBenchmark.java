@@ -0,0 +1,58 @@
+package com.hcl.testmate.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hcl.testmate.service.BenchmarkCorpus.DescriptionShape;
+
+/**
+ * Section extraction from JIRA issue descriptions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JiraExtractionBenchmark {
+
+    @Param
+    public DescriptionShape shape;
+
+    private JiraService jiraService;
+    private String description;
+
+    @Setup
+    public void setUp() {
+        // The extraction methods do not touch the client factory
+        jiraService = new JiraService(null, null, null);
+        description = BenchmarkCorpus.jiraDescription(shape);
+    }
+
+    @Benchmark
+    public String extractUserStory() {
+        return jiraService.extractUserStory(description);
+    }
+
+    @Benchmark
+    public List<String> extractAcceptanceCriteria() {
+        return jiraService.extractAcceptanceCriteria(description);
+    }
+
+    @Benchmark
+    public List<String> extractBusinessRules() {
+        return jiraService.extractBusinessRules(description);
+    }
+}
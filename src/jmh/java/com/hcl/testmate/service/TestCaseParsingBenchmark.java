@@ -0,0 +1,57 @@
+package com.hcl.testmate.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcl.testmate.model.TestCase;
+import com.hcl.testmate.service.BenchmarkCorpus.AiResponseShape;
+
+/**
+ * Parsing of AI responses into test cases, and de-duplication of the result
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestCaseParsingBenchmark {
+
+    @Param
+    public AiResponseShape shape;
+
+    private TestCaseGeneratorService generatorService;
+    private String response;
+    private List<TestCase> withDuplicates;
+
+    @Setup
+    public void setUp() {
+        // Only the ObjectMapper is used by the parsing paths
+        generatorService = new TestCaseGeneratorService(null, null, null, null, new ObjectMapper(), null, null, false);
+        response = BenchmarkCorpus.aiResponse(shape);
+        withDuplicates = BenchmarkCorpus.testCasesWithDuplicates(shape == AiResponseShape.LARGE ? 300 : 16);
+    }
+
+    @Benchmark
+    public List<TestCase> parseTestCasesFromResponse() {
+        return generatorService.parseTestCasesFromResponse(response);
+    }
+
+    @Benchmark
+    public List<TestCase> removeDuplicates() {
+        return generatorService.removeDuplicates(withDuplicates);
+    }
+}
@@ -0,0 +1,50 @@
+package com.hcl.testmate.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Workflow type detection from story text, which runs for every generation request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowDetectionBenchmark {
+
+    // Approximate story length in characters
+    @Param({"500", "20000"})
+    public int storySize;
+
+    // Value stream mentioned at the end of the story; NONE falls through all checks
+    @Param({"VS2", "VS6", "NONE"})
+    public String valueStream;
+
+    private WorkflowService workflowService;
+    private String story;
+
+    @Setup
+    public void setUp() {
+        // Detection does not need the workflow documents, so they are not loaded
+        workflowService = new WorkflowService();
+        story = BenchmarkCorpus.storyText(storySize, "NONE".equals(valueStream) ? null : valueStream);
+    }
+
+    @Benchmark
+    public String determineWorkflowTypeFromStory() {
+        return workflowService.determineWorkflowTypeFromStory(story);
+    }
+}
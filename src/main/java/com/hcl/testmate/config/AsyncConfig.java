@@ -0,0 +1,121 @@
+package com.hcl.testmate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work that runs outside the servlet request thread
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${testmate.streaming.pool-size:8}")
+    private int streamingPoolSize;
+
+    @Value("${testmate.batch.pool-size:8}")
+    private int batchPoolSize;
+
+    @Value("${testmate.jobs.pool-size:4}")
+    private int documentJobPoolSize;
+
+    @Value("${testmate.upload.pool-size:6}")
+    private int uploadPoolSize;
+
+    @Value("${testmate.export.pool-size:4}")
+    private int exportPoolSize;
+
+    @Value("${testmate.sync.pool-size:2}")
+    private int syncPoolSize;
+
+    @Value("${testmate.sync.queue-capacity:100}")
+    private int syncQueueCapacity;
+
+    /**
+     * Executor that drives streaming (SSE) test case generation
+     */
+    @Bean(name = "streamingExecutor")
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamingPoolSize);
+        executor.setMaxPoolSize(streamingPoolSize);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("tc-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor that fetches and generates the stories of JIRA batch requests
+     */
+    @Bean(name = "batchExecutor")
+    public ThreadPoolTaskExecutor batchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchPoolSize);
+        executor.setMaxPoolSize(batchPoolSize);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("jira-batch-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor that processes the documents of background upload jobs
+     */
+    @Bean(name = "documentJobExecutor")
+    public ThreadPoolTaskExecutor documentJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(documentJobPoolSize);
+        executor.setMaxPoolSize(documentJobPoolSize);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("doc-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor that processes the documents of synchronous multi-document uploads in parallel
+     */
+    @Bean(name = "uploadExecutor")
+    public ThreadPoolTaskExecutor uploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadPoolSize);
+        executor.setMaxPoolSize(uploadPoolSize);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("doc-upload-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor that writes streamed downloads (StreamingResponseBody) to the client
+     */
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportPoolSize);
+        executor.setMaxPoolSize(exportPoolSize);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor that regenerates test cases for JIRA stories changed since the last project sync.
+     * The queue is bounded; stories that do not fit are retried on the next sync.
+     */
+    @Bean(name = "syncExecutor")
+    public ThreadPoolTaskExecutor syncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(syncPoolSize);
+        executor.setMaxPoolSize(syncPoolSize);
+        executor.setQueueCapacity(syncQueueCapacity);
+        executor.setThreadNamePrefix("jira-sync-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -16,6 +16,11 @@ public class HclCafeAiConfig {
     private String model;
     private Integer maxTokens;
     private Double temperature;
+    // Client-side limits per deployment
+    private Integer maxConcurrentRequests = 4;
+    private Integer maxQueuedRequests = 50;
+    private Integer queueTimeoutSeconds = 120;
+    private Integer requestTimeoutSeconds = 60;
 
     public HclCafeAiConfig() {}
 
@@ -33,6 +38,14 @@ public class HclCafeAiConfig {
     public void setMaxTokens(Integer maxTokens) { this.maxTokens = maxTokens; }
     public Double getTemperature() { return temperature; }
     public void setTemperature(Double temperature) { this.temperature = temperature; }
+    public Integer getMaxConcurrentRequests() { return maxConcurrentRequests; }
+    public void setMaxConcurrentRequests(Integer maxConcurrentRequests) { this.maxConcurrentRequests = maxConcurrentRequests; }
+    public Integer getMaxQueuedRequests() { return maxQueuedRequests; }
+    public void setMaxQueuedRequests(Integer maxQueuedRequests) { this.maxQueuedRequests = maxQueuedRequests; }
+    public Integer getQueueTimeoutSeconds() { return queueTimeoutSeconds; }
+    public void setQueueTimeoutSeconds(Integer queueTimeoutSeconds) { this.queueTimeoutSeconds = queueTimeoutSeconds; }
+    public Integer getRequestTimeoutSeconds() { return requestTimeoutSeconds; }
+    public void setRequestTimeoutSeconds(Integer requestTimeoutSeconds) { this.requestTimeoutSeconds = requestTimeoutSeconds; }
 
     /**
      * Get the complete API endpoint URL
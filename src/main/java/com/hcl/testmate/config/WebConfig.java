@@ -1,6 +1,10 @@
 package com.hcl.testmate.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -11,6 +15,22 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AsyncTaskExecutor exportExecutor;
+
+    @Value("${testmate.export.timeout-ms:300000}")
+    private long exportTimeoutMs;
+
+    public WebConfig(@Qualifier("exportExecutor") AsyncTaskExecutor exportExecutor) {
+        this.exportExecutor = exportExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streamed downloads are written on a bounded pool instead of a new thread per request
+        configurer.setTaskExecutor(exportExecutor);
+        configurer.setDefaultTimeout(exportTimeoutMs);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -1,5 +1,8 @@
 package com.hcl.testmate.controller;
 
+import java.util.List;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +12,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.hcl.testmate.model.DashboardMetrics;
 import com.hcl.testmate.service.AnalyticsService;
+import com.hcl.testmate.service.DocumentGenerationService;
+import com.hcl.testmate.service.HclCafeAiService;
 
 /**
  * REST controller for analytics and dashboard endpoints
@@ -19,9 +24,14 @@ public class AnalyticsController {
     private static final Logger log = LoggerFactory.getLogger(AnalyticsController.class);
     
     private final AnalyticsService analyticsService;
+    private final HclCafeAiService aiService;
+    private final DocumentGenerationService documentGenerationService;
     
-    public AnalyticsController(AnalyticsService analyticsService) {
+    public AnalyticsController(AnalyticsService analyticsService, HclCafeAiService aiService,
+                               DocumentGenerationService documentGenerationService) {
         this.analyticsService = analyticsService;
+        this.aiService = aiService;
+        this.documentGenerationService = documentGenerationService;
     }
     
     /**
@@ -47,6 +57,38 @@ public class AnalyticsController {
         }
     }
     
+    /**
+     * Get AI client permit usage and queue depth per deployment
+     */
+    @GetMapping("/ai-client")
+    public ResponseEntity<List<Map<String, Object>>> getAiClientStatistics() {
+        return ResponseEntity.ok(aiService.getClientStatistics());
+    }
+    
+    /**
+     * Get persistent AI response cache statistics
+     */
+    @GetMapping("/ai-cache")
+    public ResponseEntity<Map<String, Object>> getAiCacheStatistics() {
+        return ResponseEntity.ok(aiService.getCacheStatistics());
+    }
+    
+    /**
+     * Get statistics of the store of processed uploaded documents (reuse of identical uploads)
+     */
+    @GetMapping("/document-store")
+    public ResponseEntity<Map<String, Object>> getDocumentStoreStatistics() {
+        return ResponseEntity.ok(documentGenerationService.getDocumentStoreStatistics());
+    }
+    
+    /**
+     * Get AI token usage per operation, workflow type and user, and token budget consumption
+     */
+    @GetMapping("/tokens")
+    public ResponseEntity<Map<String, Object>> getTokenUsageStatistics() {
+        return ResponseEntity.ok(aiService.getTokenStatistics());
+    }
+    
     /**
      * Get health check for analytics service
      */
@@ -1,27 +1,51 @@
 package com.hcl.testmate.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.hcl.testmate.exception.TokenBudgetExceededException;
+import com.hcl.testmate.model.JiraBatchResult;
 import com.hcl.testmate.model.JiraCredentials;
 import com.hcl.testmate.model.JiraFetchRequest;
 import com.hcl.testmate.model.JiraStoriesRequest;
 import com.hcl.testmate.model.JiraStory;
 import com.hcl.testmate.model.JiraStoryRequest;
 import com.hcl.testmate.model.TestCaseResponse;
+import com.hcl.testmate.service.JiraBatchGenerationService;
 import com.hcl.testmate.service.JiraService;
+import com.hcl.testmate.service.JiraSyncService;
+import com.hcl.testmate.service.JiraWebhookService;
+import com.hcl.testmate.service.JiraStoryConverter;
+import com.hcl.testmate.service.TestCaseExportService;
+import com.hcl.testmate.service.TestCaseExportService.ExportFormat;
 import com.hcl.testmate.service.TestCaseGeneratorService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/api/jira")
 
@@ -29,10 +53,34 @@ public class JiraController {
     private static final Logger log = LoggerFactory.getLogger(JiraController.class);
     private final JiraService jiraService;
     private final TestCaseGeneratorService testCaseGeneratorService;
+    private final JiraStoryConverter storyConverter;
+    private final JiraBatchGenerationService batchGenerationService;
+    private final TestCaseExportService exportService;
+    private final TaskExecutor streamingExecutor;
+    private final JiraSyncService syncService;
+    private final JiraWebhookService webhookService;
+
+    @Value("${testmate.streaming.timeout-ms:180000}")
+    private long streamingTimeoutMs;
+
+    @Value("${testmate.export.timeout-ms:300000}")
+    private long exportTimeoutMs;
 
-    public JiraController(JiraService jiraService, TestCaseGeneratorService testCaseGeneratorService) {
+    @Value("${testmate.export.batch.timeout-per-story-ms:60000}")
+    private long exportTimeoutPerStoryMs;
+
+    public JiraController(JiraService jiraService, TestCaseGeneratorService testCaseGeneratorService,
+                          JiraStoryConverter storyConverter, JiraBatchGenerationService batchGenerationService,
+                          TestCaseExportService exportService, @Qualifier("streamingExecutor") TaskExecutor streamingExecutor,
+                          JiraSyncService syncService, JiraWebhookService webhookService) {
         this.jiraService = jiraService;
         this.testCaseGeneratorService = testCaseGeneratorService;
+        this.storyConverter = storyConverter;
+        this.batchGenerationService = batchGenerationService;
+        this.exportService = exportService;
+        this.streamingExecutor = streamingExecutor;
+        this.syncService = syncService;
+        this.webhookService = webhookService;
     }
 
     /**
@@ -114,6 +162,50 @@ public class JiraController {
         }
     }
 
+    /**
+     * Fetch stories from JIRA projects as a server-sent event stream.
+     * Emits a "story" event for each story as soon as its search page has arrived (in JQL order),
+     * followed by a "complete" event carrying the number of stories (or an "error" event).
+     */
+    @PostMapping(value = "/stories/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter fetchStoriesStream(@RequestBody JiraStoriesRequest request) {
+        log.info("Streaming stories from {} projects for user: {}",
+            request.getProjectKeys().size(), request.getCredentials().getUsername());
+        
+        SseEmitter emitter = new SseEmitter(streamingTimeoutMs);
+        streamingExecutor.execute(() -> {
+            try {
+                int count = jiraService.streamStoriesByProjects(
+                    request.getCredentials().getJiraUrl(),
+                    request.getCredentials().getUsername(),
+                    request.getCredentials().getApiToken(),
+                    request.getProjectKeys(),
+                    story -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("story").data(story, MediaType.APPLICATION_JSON));
+                        } catch (IOException e) {
+                            // Client went away - stop fetching for it
+                            throw new IllegalStateException("Client disconnected", e);
+                        }
+                    });
+                
+                emitter.send(SseEmitter.event().name("complete").data(Map.of("count", count), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("Streaming JIRA stories aborted: {}", e.getMessage());
+                try {
+                    emitter.send(SseEmitter.event().name("error")
+                        .data(new ErrorResponse("Failed to fetch JIRA stories: " + e.getMessage()), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (Exception sendFailure) {
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+        
+        return emitter;
+    }
+
     /**
      * Fetch JIRA story and generate test cases using user-provided credentials
      */
@@ -134,7 +226,7 @@ public class JiraController {
             
             // Step 2: Convert to request format
             log.debug("Step 2: Converting to test case request format...");
-            JiraStoryRequest storyRequest = convertToRequest(jiraStory);
+            JiraStoryRequest storyRequest = storyConverter.toRequest(jiraStory, request.getCredentials().getUsername());
             log.debug("Conversion complete. User story length: {}, AC length: {}, BR length: {}", 
                 storyRequest.getUserStory() != null ? storyRequest.getUserStory().length() : 0,
                 storyRequest.getAcceptanceCriteria() != null ? storyRequest.getAcceptanceCriteria().length() : 0,
@@ -146,25 +238,16 @@ public class JiraController {
             log.info("Test case generation completed. Generated {} test cases", 
                 response.getTestCases() != null ? response.getTestCases().size() : 0);
             
-            // Step 4: Add JIRA metadata
-            log.debug("Step 4: Adding JIRA metadata to response...");
-            response.setJiraIssueKey(request.getIssueKey());
-            response.setJiraProject(jiraStory.getProject());
-            response.setJiraSummary(jiraStory.getSummary());
-            
-            // Step 5: Add extracted content for coverage analysis
-            log.debug("Step 5: Adding extracted content for coverage analysis...");
-            TestCaseResponse.ExtractedContent extractedContent = 
-                    TestCaseResponse.ExtractedContent.builder()
-                            .userStory(storyRequest.getUserStory())
-                            .acceptanceCriteria(storyRequest.getAcceptanceCriteria())
-                            .businessRules(storyRequest.getBusinessRules())
-                            .build();
-            response.setExtractedContent(extractedContent);
+            // Step 4: Add JIRA metadata and extracted content for coverage analysis
+            log.debug("Step 4: Adding JIRA metadata and extracted content to response...");
+            storyConverter.applyStoryDetails(response, request.getIssueKey(), jiraStory, storyRequest);
             
             log.info("Successfully completed test case generation for {}", request.getIssueKey());
             return ResponseEntity.ok(response);
             
+        } catch (TokenBudgetExceededException e) {
+            // Answered with 429 by the GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             log.error("Error in test case generation process for issue {}: {}", request.getIssueKey(), e.getMessage(), e);
             
@@ -187,55 +270,19 @@ public class JiraController {
     }
 
     /**
-     * Batch process multiple JIRA stories using user-provided credentials
+     * Batch process multiple JIRA stories using user-provided credentials.
+     * Stories are fetched and generated concurrently, results keep the order of the request.
      */
     @PostMapping("/generate/batch")
     public ResponseEntity<?> generateFromJiraBatch(@RequestBody JiraBatchGenerateRequest request) {
         try {
-            log.info("Batch generating test cases from {} JIRA stories for user: {}", 
-                request.getStories().size(), request.getCredentials().getUsername());
-            
-            List<BatchResult> results = new ArrayList<>();
-            
+            List<String> issueKeys = new ArrayList<>();
             for (JiraStoryInfo storyInfo : request.getStories()) {
-                try {
-                    String issueKey = storyInfo.getKey();
-                    log.info("Fetching JIRA story: {} for user: {}", issueKey, request.getCredentials().getUsername());
-                    JiraStory jiraStory = jiraService.fetchStory(
-                        request.getCredentials().getJiraUrl(),
-                        request.getCredentials().getUsername(),
-                        request.getCredentials().getApiToken(),
-                        issueKey
-                    );
-                    
-                    // Convert to request format
-                    JiraStoryRequest storyRequest = convertToRequest(jiraStory);
-                    
-                    // Generate test cases
-                    TestCaseResponse response = testCaseGeneratorService.generateTestCases(storyRequest);
-                    
-                    // Add JIRA metadata
-                    response.setJiraIssueKey(issueKey);
-                    response.setJiraProject(jiraStory.getProject());
-                    response.setJiraSummary(jiraStory.getSummary());
-                    
-                    // Add extracted content for coverage analysis
-                    TestCaseResponse.ExtractedContent extractedContent = 
-                            TestCaseResponse.ExtractedContent.builder()
-                                    .userStory(storyRequest.getUserStory())
-                                    .acceptanceCriteria(storyRequest.getAcceptanceCriteria())
-                                    .businessRules(storyRequest.getBusinessRules())
-                                    .build();
-                    response.setExtractedContent(extractedContent);
-                    
-                    results.add(new BatchResult(issueKey, true, null, response));
-                    
-                } catch (Exception e) {
-                    log.error("Error processing JIRA story: {}", storyInfo.getKey(), e);
-                    results.add(new BatchResult(storyInfo.getKey(), false, e.getMessage(), null));
-                }
+                issueKeys.add(storyInfo.getKey());
             }
             
+            List<JiraBatchResult> results = batchGenerationService.generate(request.getCredentials(), issueKeys);
+            
             return ResponseEntity.ok(new BatchResponse(results));
             
         } catch (Exception e) {
@@ -245,6 +292,56 @@ public class JiraController {
         }
     }
 
+    /**
+     * Batch process multiple JIRA stories and download all test cases in one file while the batch runs:
+     * format=zip (default) for one CSV per story, format=csv or format=xlsx for a single file with a story key column.
+     * Each story is written as soon as it and the stories before it are done.
+     * The body is written on the export executor with a timeout that grows with the number of stories,
+     * rather than the default async timeout that suits single-story downloads.
+     */
+    @PostMapping("/generate/batch/export")
+    public WebAsyncTask<Void> exportJiraBatch(@RequestBody JiraBatchGenerateRequest request,
+                                              @RequestParam(defaultValue = "zip") String format,
+                                              HttpServletResponse response) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejecting batch export: {}", e.getMessage());
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        if (request.getCredentials() == null || request.getStories() == null) {
+            log.warn("Rejecting batch export without credentials or stories");
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+
+        List<String> issueKeys = new ArrayList<>();
+        for (JiraStoryInfo storyInfo : request.getStories()) {
+            issueKeys.add(storyInfo.getKey());
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDispositionFormData("attachment", exportFormat.fileName("jira-test-cases"));
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+
+        long timeoutMs = exportTimeoutMs + issueKeys.size() * exportTimeoutPerStoryMs;
+        WebAsyncTask<Void> task = new WebAsyncTask<>(timeoutMs, () -> {
+            // The response was marked handled when it was injected, so returning nothing leaves the body as written
+            OutputStream out = response.getOutputStream();
+            exportService.exportBatch(request.getCredentials(), issueKeys, exportFormat, out);
+            out.flush();
+            return null;
+        });
+        task.onTimeout(() -> {
+            log.warn("Batch export of {} stories timed out after {} ms", issueKeys.size(), timeoutMs);
+            return null;
+        });
+        return task;
+    }
+
     /**
      * Validate JIRA connection using user-provided credentials
      */
@@ -281,74 +378,89 @@ public class JiraController {
     }
 
     /**
-     * Convert JiraStory to JiraStoryRequest format
+     * Register JIRA projects for incremental sync: stories updated since the last sync whose user story,
+     * acceptance criteria or business rules changed get their test cases regenerated in the background
      */
-    private JiraStoryRequest convertToRequest(JiraStory jiraStory) {
-        JiraStoryRequest request = new JiraStoryRequest();
-        
-        // Combine issue key and summary for user story
-        String userStory = String.format("[%s] %s\n\n%s", 
-            jiraStory.getIssueKey(),
-            jiraStory.getSummary(),
-            jiraStory.getUserStory() != null ? jiraStory.getUserStory() : "");
-        
-        request.setUserStory(userStory.trim());
-        
-        // Join acceptance criteria
-        if (jiraStory.getAcceptanceCriteria() != null && !jiraStory.getAcceptanceCriteria().isEmpty()) {
-            String joinedAC = String.join("\n", jiraStory.getAcceptanceCriteria());
-            log.debug("Converting AC from JIRA: {} items, joined length: {}", 
-                jiraStory.getAcceptanceCriteria().size(), joinedAC.length());
-            request.setAcceptanceCriteria(joinedAC);
-        } else {
-            log.warn("No acceptance criteria found in JIRA story: {}", jiraStory.getIssueKey());
+    @PostMapping("/sync")
+    public ResponseEntity<?> registerSync(@RequestBody JiraStoriesRequest request) {
+        if (request.getCredentials() == null || request.getProjectKeys() == null || request.getProjectKeys().isEmpty()) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Credentials and project keys are required"));
         }
-        
-        // Join and format business rules with proper numbering
-        if (jiraStory.getBusinessRules() != null && !jiraStory.getBusinessRules().isEmpty()) {
-            String formattedBusinessRules = formatBusinessRulesWithNumbers(jiraStory.getBusinessRules());
-            request.setBusinessRules(formattedBusinessRules);
+        try {
+            log.info("Registering {} project(s) for sync for user: {}",
+                request.getProjectKeys().size(), request.getCredentials().getUsername());
+            return ResponseEntity.ok(syncService.register(request.getCredentials(), request.getProjectKeys()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
-        
-        return request;
     }
 
     /**
-     * Format business rules from JIRA with proper BR numbering
-     * This ensures consistent formatting while preserving the original content
+     * Get the sync state of every registered project (high-water mark, changes, regenerations)
      */
-    private String formatBusinessRulesWithNumbers(List<String> businessRules) {
-        StringBuilder formattedRules = new StringBuilder();
-        int ruleNumber = 1;
-        
-        for (String rule : businessRules) {
-            if (rule == null || rule.trim().isEmpty()) {
-                continue;
-            }
-            
-            String cleanRule = rule.trim();
-            
-            // Skip obvious table headers, formatting artifacts, and very short content
-            if (cleanRule.startsWith("|") || cleanRule.toLowerCase().contains("business rule no") 
-                || cleanRule.toLowerCase().contains("description") || cleanRule.equals("---")
-                || cleanRule.matches("^[\\s\\|\\-\\*]+$")
-                || cleanRule.length() < 10) {
-                continue;
-            }
-            
-            // Check if rule already has BR numbering
-            if (!cleanRule.matches(".*\\bBR\\d{3}\\b.*")) {
-                // Add BR numbering if it doesn't exist
-                formattedRules.append("BR").append(String.format("%03d", ruleNumber))
-                             .append(" ").append(cleanRule).append("\n");
-                ruleNumber++;
-            } else {
-                // Rule already has BR numbering, keep as is
-                formattedRules.append(cleanRule).append("\n");
-            }
+    @GetMapping("/sync")
+    public ResponseEntity<List<Map<String, Object>>> getSyncStatus() {
+        return ResponseEntity.ok(syncService.getStatus());
+    }
+
+    /**
+     * Stop syncing a project
+     */
+    @DeleteMapping("/sync/{projectKey}")
+    public ResponseEntity<Void> unregisterSync(@PathVariable String projectKey) {
+        return syncService.unregister(projectKey) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Receive JIRA "issue created" / "issue updated" webhooks. Events are coalesced per issue; once an issue
+     * is quiet its cached test cases are dropped and, if enabled, regenerated in the background.
+     * Recorded payloads can be replayed here with an X-Hub-Signature made with jira.webhook.secret, or unsigned
+     * when no secret is set and jira.webhook.allow-unsigned=true (local testing only).
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<?> receiveWebhook(@RequestBody String payload,
+                                            @RequestHeader(value = "X-Hub-Signature", required = false) String signature) {
+        try {
+            return ResponseEntity.accepted().body(webhookService.accept(payload, signature));
+        } catch (SecurityException e) {
+            log.warn("Rejecting JIRA webhook: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejecting JIRA webhook: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
-        
-        return formattedRules.toString().trim();
+    }
+
+    /**
+     * Get counters of received, ignored, coalesced and handled JIRA webhooks
+     */
+    @GetMapping("/diagnostics/webhook")
+    public ResponseEntity<Map<String, Object>> getWebhookStatistics() {
+        return ResponseEntity.ok(webhookService.getStatistics());
+    }
+
+    /**
+     * Get statistics of the parsed JIRA issue cache (revalidated, changed and missed fetches)
+     */
+    @GetMapping("/diagnostics/issue-cache")
+    public ResponseEntity<Map<String, Object>> getIssueCacheStatistics() {
+        return ResponseEntity.ok(jiraService.getIssueCacheStatistics());
+    }
+
+    /**
+     * Get the REST API variant that works on each known JIRA server, with success and failure counts
+     */
+    @GetMapping("/diagnostics/endpoints")
+    public ResponseEntity<Map<String, Object>> getEndpointDiagnostics() {
+        return ResponseEntity.ok(jiraService.getEndpointDiagnostics());
+    }
+
+    /**
+     * Get request counts, latency and HTTP/2 usage of the pooled HTTP client of each JIRA host
+     */
+    @GetMapping("/diagnostics/http-clients")
+    public ResponseEntity<Map<String, Object>> getHttpClientStatistics() {
+        return ResponseEntity.ok(jiraService.getHttpClientStatistics());
     }
 
     // Request/Response classes
@@ -405,34 +517,11 @@ public class JiraController {
     }
 
 
-    public static class BatchResult {
-        private String issueKey;
-        private boolean success;
-        private String error;
-        private TestCaseResponse response;
-        public BatchResult() {}
-        public BatchResult(String issueKey, boolean success, String error, TestCaseResponse response) {
-            this.issueKey = issueKey;
-            this.success = success;
-            this.error = error;
-            this.response = response;
-        }
-        public String getIssueKey() { return issueKey; }
-        public void setIssueKey(String issueKey) { this.issueKey = issueKey; }
-        public boolean isSuccess() { return success; }
-        public void setSuccess(boolean success) { this.success = success; }
-        public String getError() { return error; }
-        public void setError(String error) { this.error = error; }
-        public TestCaseResponse getResponse() { return response; }
-        public void setResponse(TestCaseResponse response) { this.response = response; }
-    }
-
-
     public static class BatchResponse {
-        private List<BatchResult> results;
+        private List<JiraBatchResult> results;
         public BatchResponse() {}
-        public BatchResponse(List<BatchResult> results) { this.results = results; }
-        public List<BatchResult> getResults() { return results; }
-        public void setResults(List<BatchResult> results) { this.results = results; }
+        public BatchResponse(List<JiraBatchResult> results) { this.results = results; }
+        public List<JiraBatchResult> getResults() { return results; }
+        public void setResults(List<JiraBatchResult> results) { this.results = results; }
     }
 }
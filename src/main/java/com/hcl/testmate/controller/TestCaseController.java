@@ -1,26 +1,47 @@
 package com.hcl.testmate.controller;
 
+import com.hcl.testmate.exception.TokenBudgetExceededException;
+import com.hcl.testmate.model.DocumentJobStatus;
 import com.hcl.testmate.model.JiraStoryRequest;
 import com.hcl.testmate.model.MultiDocumentResponse;
 import com.hcl.testmate.model.ReviewRequest;
+import com.hcl.testmate.model.TestCase;
 import com.hcl.testmate.model.TestCaseResponse;
-import com.hcl.testmate.service.DocumentParserService;
+import com.hcl.testmate.model.UploadedDocument;
+import com.hcl.testmate.service.CsvGeneratorService;
+import com.hcl.testmate.service.DocumentGenerationService;
+import com.hcl.testmate.service.DocumentJobService;
 import com.hcl.testmate.service.EmailService;
+import com.hcl.testmate.service.TestCaseExportService;
+import com.hcl.testmate.service.TestCaseExportService.ExportFormat;
 import com.hcl.testmate.service.TestCaseGeneratorService;
+import com.hcl.testmate.service.XlsxGeneratorService;
 import jakarta.mail.MessagingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * REST Controller for test case generation
@@ -31,14 +52,35 @@ import java.util.List;
 @Validated
 public class TestCaseController {
     private static final Logger log = LoggerFactory.getLogger(TestCaseController.class);
+    private static final MediaType CSV_MEDIA_TYPE = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final long UPLOAD_RESPONSE_GRACE_MS = 10_000;
     private final TestCaseGeneratorService testCaseGeneratorService;
-    private final DocumentParserService documentParserService;
+    private final CsvGeneratorService csvGeneratorService;
+    private final XlsxGeneratorService xlsxGeneratorService;
     private final EmailService emailService;
+    private final AsyncTaskExecutor streamingExecutor;
+    private final DocumentGenerationService documentGenerationService;
+    private final DocumentJobService documentJobService;
+    private final TestCaseExportService exportService;
+    
+    @Value("${testmate.streaming.timeout-ms:180000}")
+    private long streamingTimeoutMs;
+    
+    @Value("${testmate.upload.document-timeout-ms:150000}")
+    private long uploadDocumentTimeoutMs;
 
-    public TestCaseController(TestCaseGeneratorService testCaseGeneratorService, DocumentParserService documentParserService, EmailService emailService) {
+    public TestCaseController(TestCaseGeneratorService testCaseGeneratorService, CsvGeneratorService csvGeneratorService,
+                              XlsxGeneratorService xlsxGeneratorService, EmailService emailService, @Qualifier("streamingExecutor") AsyncTaskExecutor streamingExecutor,
+                              DocumentGenerationService documentGenerationService, DocumentJobService documentJobService,
+                              TestCaseExportService exportService) {
         this.testCaseGeneratorService = testCaseGeneratorService;
-        this.documentParserService = documentParserService;
+        this.csvGeneratorService = csvGeneratorService;
+        this.xlsxGeneratorService = xlsxGeneratorService;
         this.emailService = emailService;
+        this.streamingExecutor = streamingExecutor;
+        this.documentGenerationService = documentGenerationService;
+        this.documentJobService = documentJobService;
+        this.exportService = exportService;
     }
     
     /**
@@ -59,168 +101,354 @@ public class TestCaseController {
         }
     }
     
+    /**
+     * Generate test cases from JIRA story as a server-sent event stream.
+     * Emits a "testCase" event as soon as each test case has been generated,
+     * followed by a "complete" event carrying the full TestCaseResponse (or an "error" event).
+     * Generation is cancelled when the stream times out or fails; a full executor is reported as a "busy" error event.
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateTestCasesStream(@Valid @RequestBody JiraStoryRequest request) {
+        log.info("Received request to stream test case generation");
+        
+        SseEmitter emitter = new SseEmitter(streamingTimeoutMs);
+        // Set when the client went away or the stream timed out: generation stops and no more events are sent
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            Future<?> task = streamingExecutor.submit(() -> streamTestCases(request, emitter, cancelled));
+            Runnable cancel = () -> {
+                if (cancelled.compareAndSet(false, true)) {
+                    log.info("Test case stream ended early, cancelling its generation");
+                    task.cancel(true);
+                }
+            };
+            emitter.onTimeout(cancel);
+            emitter.onError(e -> cancel.run());
+        } catch (RejectedExecutionException e) {
+            log.warn("Streaming executor is saturated, rejecting test case stream");
+            sendErrorEvent(emitter, "Server is busy, please try again", e);
+        }
+        
+        return emitter;
+    }
+    
+    private void streamTestCases(JiraStoryRequest request, SseEmitter emitter, AtomicBoolean cancelled) {
+        try {
+            TestCaseResponse response = testCaseGeneratorService.generateTestCasesStreaming(request, false, testCase -> {
+                if (cancelled.get()) {
+                    throw new IllegalStateException("Test case stream was cancelled");
+                }
+                try {
+                    emitter.send(SseEmitter.event().name("testCase").data(testCase, MediaType.APPLICATION_JSON));
+                } catch (IOException e) {
+                    // Client went away - stop generating for it
+                    throw new IllegalStateException("Client disconnected", e);
+                }
+            });
+            if (cancelled.get()) {
+                return;
+            }
+            
+            if (response.isSuccess()) {
+                emitter.send(SseEmitter.event().name("complete").data(response, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } else {
+                sendErrorEvent(emitter, response.getMessage(), null);
+            }
+        } catch (TokenBudgetExceededException e) {
+            // The event stream has already started, so report the rejection as an event rather than a 429
+            log.warn("Streaming test case generation rejected: {}", e.getMessage());
+            sendErrorEvent(emitter, e.getMessage(), e);
+        } catch (Exception e) {
+            if (!cancelled.get()) {
+                log.warn("Streaming test case generation aborted: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+    
+    private static void sendErrorEvent(SseEmitter emitter, String message, Exception cause) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(new MessageResponse(message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(cause != null ? cause : e);
+        }
+    }
+    
     /**
      * Generate test cases from uploaded Word document(s)
-     * Each document is processed separately and returns individual test cases
+     * Documents are processed in parallel, each with its own timeout; results keep the upload order.
+     * Work still running when the client disconnects is cancelled.
      */
     @PostMapping("/generate/upload")
-    public ResponseEntity<MultiDocumentResponse> generateTestCasesFromDocument(
+    public DeferredResult<ResponseEntity<MultiDocumentResponse>> generateTestCasesFromDocument(
             @RequestParam("files") List<MultipartFile> files) {
         
         log.info("Received request to generate test cases from {} document(s)", files.size());
         
-        // Validate that files were uploaded
-        if (files.isEmpty()) {
-            MultiDocumentResponse errorResponse = MultiDocumentResponse.builder()
+        // Documents time out on their own, this only guards against the response never being produced
+        DeferredResult<ResponseEntity<MultiDocumentResponse>> deferred =
+                new DeferredResult<>(uploadDocumentTimeoutMs + UPLOAD_RESPONSE_GRACE_MS);
+        
+        MultiDocumentResponse uploadError = validateUpload(files);
+        if (uploadError != null) {
+            deferred.setResult(ResponseEntity.badRequest().body(uploadError));
+            return deferred;
+        }
+        
+        try {
+            List<UploadedDocument> documents = new ArrayList<>();
+            for (MultipartFile file : files) {
+                documents.add(new UploadedDocument(file.getOriginalFilename(), file.getBytes()));
+            }
+            
+            DocumentGenerationService.DocumentBatch batch = documentGenerationService.processDocuments(documents);
+            deferred.onError(e -> {
+                log.info("Upload request ended early ({}), cancelling its documents", e.getMessage());
+                batch.cancel();
+            });
+            deferred.onTimeout(batch::cancel);
+            batch.response().whenComplete((response, e) -> {
+                if (e != null) {
+                    log.error("Error processing documents", e);
+                    deferred.setResult(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(uploadFailure(e)));
+                } else {
+                    deferred.setResult(ResponseEntity.ok(response));
+                }
+            });
+            
+        } catch (Exception e) {
+            log.error("Error processing documents", e);
+            deferred.setResult(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(uploadFailure(e)));
+        }
+        return deferred;
+    }
+    
+    private static MultiDocumentResponse uploadFailure(Throwable e) {
+        return MultiDocumentResponse.builder()
                 .success(false)
-                .message("No files uploaded. Please select at least one file.")
+                .message("Error processing documents: " + e.getMessage())
                 .totalDocuments(0)
                 .totalTestCases(0)
                 .build();
-            return ResponseEntity.badRequest().body(errorResponse);
-        }
+    }
+    
+    /**
+     * Submit uploaded Word document(s) as a background job.
+     * Returns 202 with the job id at once; poll GET /jobs/{jobId} or subscribe to GET /jobs/{jobId}/events.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitDocumentJob(@RequestParam("files") List<MultipartFile> files) {
+        log.info("Received request to submit a document job with {} document(s)", files.size());
         
-        // Validate maximum file count
-        if (files.size() > 10) {
-            MultiDocumentResponse errorResponse = MultiDocumentResponse.builder()
-                    .success(false)
-                    .message("Maximum 10 files allowed. You uploaded " + files.size() + " files.")
-                    .totalDocuments(0)
-                    .totalTestCases(0)
-                    .build();
-            return ResponseEntity.badRequest().body(errorResponse);
+        MultiDocumentResponse uploadError = validateUpload(files);
+        if (uploadError != null) {
+            return ResponseEntity.badRequest().body(uploadError);
         }
         
         try {
-            List<MultiDocumentResponse.DocumentTestCaseResult> documentResults = new ArrayList<>();
-            int totalTestCases = 0;
-            int successCount = 0;
-            
-            // Process each file separately
+            // Multipart temp files are removed when this request ends, so copy the content first
+            List<UploadedDocument> documents = new ArrayList<>();
             for (MultipartFile file : files) {
-                String fileName = file.getOriginalFilename();
-                log.info("Processing document: {}", fileName);
-                
+                documents.add(new UploadedDocument(file.getOriginalFilename(), file.getBytes()));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(documentJobService.submit(documents));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new MessageResponse(e.getMessage()));
+        } catch (IOException e) {
+            log.error("Error reading uploaded documents", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error reading uploaded documents: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get the progress of a document job (includes the MultiDocumentResponse once COMPLETED)
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getDocumentJob(@PathVariable String jobId) {
+        Optional<DocumentJobStatus> status = documentJobService.getStatus(jobId);
+        if (status.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Job not found or expired: " + jobId));
+        }
+        return ResponseEntity.ok(status.get());
+    }
+    
+    /**
+     * Get the final result of a completed document job
+     */
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<?> getDocumentJobResult(@PathVariable String jobId) {
+        Optional<DocumentJobStatus> status = documentJobService.getStatus(jobId);
+        if (status.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("Job not found or expired: " + jobId));
+        }
+        if (!status.get().isCompleted()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(status.get());
+        }
+        return ResponseEntity.ok(status.get().getResult());
+    }
+    
+    /**
+     * Download the test cases of a completed document job in one file:
+     * format=zip (default) for one CSV per document, format=csv or format=xlsx for a single file with a story key column
+     */
+    @GetMapping("/jobs/{jobId}/export")
+    public ResponseEntity<StreamingResponseBody> exportDocumentJob(@PathVariable String jobId,
+                                                                   @RequestParam(defaultValue = "zip") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejecting job export: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<DocumentJobStatus> status = documentJobService.getStatus(jobId);
+        if (status.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!status.get().isCompleted() || status.get().getResult() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        
+        MultiDocumentResponse result = status.get().getResult();
+        StreamingResponseBody body = out -> exportService.exportDocuments(result, exportFormat, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDispositionFormData("attachment", exportFormat.fileName("test-cases-" + jobId));
+        
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * Subscribe to a document job as a server-sent event stream.
+     * Emits a "status" event with the current state, a "progress" event per document state change
+     * and a final "complete" event carrying the job with its MultiDocumentResponse.
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeDocumentJob(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(streamingTimeoutMs);
+        DocumentJobService.DocumentJobListener listener = new DocumentJobService.DocumentJobListener() {
+            @Override
+            public void onProgress(DocumentJobStatus.DocumentProgress progress) {
                 try {
-                    // Validate file
-                    if (!documentParserService.isValidWordDocument(file)) {
-                        MultiDocumentResponse.DocumentTestCaseResult result = 
-                                MultiDocumentResponse.DocumentTestCaseResult.builder()
-                                        .fileName(fileName)
-                                        .success(false)
-                                        .errorMessage("Invalid file format. Please upload .doc or .docx files only.")
-                                        .build();
-                        documentResults.add(result);
-                        continue;
-                    }
-                    
-                    // Extract text from document
-                    String documentText = documentParserService.extractTextFromDocument(file);
-                    
-                    // Extract structured sections (User Story, AC, BR)
-                    DocumentParserService.DocumentSections sections = 
-                            documentParserService.extractSections(documentText);
-                    
-                        // Create request for this specific document using extracted sections
-                        JiraStoryRequest request = JiraStoryRequest.builder()
-                            .userStory(sections.getUserStory())
-                            .acceptanceCriteria(sections.getAcceptanceCriteria())
-                            .businessRules(sections.getBusinessRules())
-                            .assumptions("")
-                            .constraints("")
-                            .additionalNotes("")
-                            .build();
-                    
-                    // Generate test cases for this document - bypass cache to ensure fresh generation
-                    TestCaseResponse response = testCaseGeneratorService.generateTestCases(request, true);
-                    
-                    // Add extracted sections to response
-                    if (response.isSuccess()) {
-                        TestCaseResponse.ExtractedContent extractedContent = 
-                                TestCaseResponse.ExtractedContent.builder()
-                                        .userStory(sections.getUserStory())
-                                        .acceptanceCriteria(sections.getAcceptanceCriteria())
-                                        .businessRules(sections.getBusinessRules())
-                                        .build();
-                        response.setExtractedContent(extractedContent);
-                        response.setMessage("Successfully generated test cases from " + fileName);
-                        
-                        totalTestCases += response.getTotalTestCases();
-                        successCount++;
-                    }
-                    
-                    // Create result for this document
-                    MultiDocumentResponse.DocumentTestCaseResult result = 
-                            MultiDocumentResponse.DocumentTestCaseResult.builder()
-                                    .fileName(fileName)
-                                    .testCaseResponse(response)
-                                    .success(response.isSuccess())
-                                    .errorMessage(response.isSuccess() ? null : response.getMessage())
-                                    .build();
-                    
-                    documentResults.add(result);
-                    log.info("Successfully processed document: {} with {} test cases", 
-                            fileName, response.getTotalTestCases());
-                    
-                } catch (Exception e) {
-                    log.error("Error processing document: {}", fileName, e);
-                    MultiDocumentResponse.DocumentTestCaseResult result = 
-                            MultiDocumentResponse.DocumentTestCaseResult.builder()
-                                    .fileName(fileName)
-                                    .success(false)
-                                    .errorMessage("Error processing document: " + e.getMessage())
-                                    .build();
-                    documentResults.add(result);
+                    emitter.send(SseEmitter.event().name("progress").data(progress, MediaType.APPLICATION_JSON));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Client disconnected", e);
                 }
             }
             
-            // Build final response
-            MultiDocumentResponse finalResponse = MultiDocumentResponse.builder()
-                    .documentResults(documentResults)
-                    .totalDocuments(files.size())
-                    .totalTestCases(totalTestCases)
-                    .success(successCount > 0)
-                    .message(String.format("Processed %d of %d document(s) successfully. Generated %d test cases total.", 
-                            successCount, files.size(), totalTestCases))
-                    .build();
-            
-            return ResponseEntity.ok(finalResponse);
-            
-        } catch (Exception e) {
-            log.error("Error processing documents", e);
-            MultiDocumentResponse errorResponse = MultiDocumentResponse.builder()
+            @Override
+            public void onComplete(DocumentJobStatus status) {
+                try {
+                    emitter.send(SseEmitter.event().name("complete").data(status, MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Client disconnected", e);
+                }
+            }
+        };
+        
+        Optional<DocumentJobStatus> status = documentJobService.subscribe(jobId, listener);
+        if (status.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        emitter.onCompletion(() -> documentJobService.unsubscribe(jobId, listener));
+        emitter.onTimeout(() -> documentJobService.unsubscribe(jobId, listener));
+        
+        try {
+            if (status.get().isCompleted()) {
+                documentJobService.unsubscribe(jobId, listener);
+                emitter.send(SseEmitter.event().name("complete").data(status.get(), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } else {
+                emitter.send(SseEmitter.event().name("status").data(status.get(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException e) {
+            documentJobService.unsubscribe(jobId, listener);
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * Check the uploaded file list, returning an error response or null when it is acceptable
+     */
+    private MultiDocumentResponse validateUpload(List<MultipartFile> files) {
+        // Validate that files were uploaded
+        if (files.isEmpty()) {
+            return MultiDocumentResponse.builder()
+                .success(false)
+                .message("No files uploaded. Please select at least one file.")
+                .totalDocuments(0)
+                .totalTestCases(0)
+                .build();
+        }
+        
+        // Validate maximum file count
+        if (files.size() > 10) {
+            return MultiDocumentResponse.builder()
                     .success(false)
-                    .message("Error processing documents: " + e.getMessage())
+                    .message("Maximum 10 files allowed. You uploaded " + files.size() + " files.")
                     .totalDocuments(0)
                     .totalTestCases(0)
                     .build();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
+        return null;
     }
     
     /**
      * Download test cases as CSV file
      */
     @PostMapping("/generate/csv")
-    public ResponseEntity<byte[]> generateTestCasesAsCsv(
+    public ResponseEntity<StreamingResponseBody> generateTestCasesAsCsv(
             @Valid @RequestBody JiraStoryRequest request) {
         
         log.info("Received request to generate test cases as CSV");
         
-        TestCaseResponse response = testCaseGeneratorService.generateTestCases(request);
+        TestCaseResponse response = testCaseGeneratorService.generateTestCasesWithoutCsv(request);
         
         if (!response.isSuccess()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
         
-        byte[] csvBytes = response.getCsvContent().getBytes();
+        // Written straight to the response as UTF-8; no Content-Length, so it is sent chunked
+        List<TestCase> testCases = response.getTestCases();
+        StreamingResponseBody body = out -> csvGeneratorService.writeCsv(testCases, out);
         
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentType(CSV_MEDIA_TYPE);
         headers.setContentDispositionFormData("attachment", "test-cases.csv");
-        headers.setContentLength(csvBytes.length);
         
-        return new ResponseEntity<>(csvBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * Download test cases as an Excel file, with multi-line steps and results in wrapped cells
+     */
+    @PostMapping("/generate/xlsx")
+    public ResponseEntity<StreamingResponseBody> generateTestCasesAsXlsx(
+            @Valid @RequestBody JiraStoryRequest request) {
+        
+        log.info("Received request to generate test cases as XLSX");
+        
+        TestCaseResponse response = testCaseGeneratorService.generateTestCasesWithoutCsv(request);
+        
+        if (!response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        
+        List<TestCase> testCases = response.getTestCases();
+        StreamingResponseBody body = out -> xlsxGeneratorService.writeXlsx(testCases, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(XlsxGeneratorService.XLSX_MEDIA_TYPE);
+        headers.setContentDispositionFormData("attachment", "test-cases.xlsx");
+        
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
     
     /**
@@ -246,6 +474,9 @@ public class TestCaseController {
             
             return ResponseEntity.ok(chatResponse);
             
+        } catch (TokenBudgetExceededException e) {
+            // Answered with 429 by the GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             log.error("Error handling chat request", e);
             ChatResponse errorResponse = new ChatResponse();
@@ -42,6 +42,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * Handle AI requests rejected by a token budget
+     */
+    @ExceptionHandler(TokenBudgetExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleTokenBudgetExceeded(TokenBudgetExceededException ex) {
+        log.warn("AI request rejected: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+    }
+    
     /**
      * Handle generic exceptions
      */
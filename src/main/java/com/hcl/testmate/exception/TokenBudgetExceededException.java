@@ -0,0 +1,13 @@
+package com.hcl.testmate.exception;
+
+/**
+ * Thrown before an AI request is sent when it would exceed a configured token budget
+ */
+public class TokenBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TokenBudgetExceededException(String message) {
+        super(message);
+    }
+}
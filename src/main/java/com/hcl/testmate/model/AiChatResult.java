@@ -0,0 +1,35 @@
+package com.hcl.testmate.model;
+
+import com.hcl.testmate.model.HclCafeAiModels.Usage;
+
+/**
+ * Completion text of an AI chat request together with its token usage
+ */
+public class AiChatResult {
+    private final String content;
+    private final Usage usage;
+    private final boolean fromCache;
+    private final boolean usageEstimated;
+
+    public AiChatResult(String content, Usage usage, boolean fromCache, boolean usageEstimated) {
+        this.content = content;
+        this.usage = usage;
+        this.fromCache = fromCache;
+        this.usageEstimated = usageEstimated;
+    }
+
+    public static AiChatResult cached(String content) {
+        return new AiChatResult(content, new Usage(0, 0, 0), true, false);
+    }
+
+    public String getContent() { return content; }
+    /**
+     * Token usage as reported by the API (zero for cache hits)
+     */
+    public Usage getUsage() { return usage; }
+    public boolean isFromCache() { return fromCache; }
+    /**
+     * True when the API did not report usage (e.g. streaming) and it was estimated from text length
+     */
+    public boolean isUsageEstimated() { return usageEstimated; }
+}
@@ -0,0 +1,78 @@
+package com.hcl.testmate.model;
+
+/**
+ * Per-call options for requests sent to the HCL Cafe AI API
+ */
+public class AiRequestOptions {
+
+    /**
+     * What the AI call is used for - drives cache TTLs and token usage accounting
+     */
+    public enum Operation {
+        VALIDATION,
+        GENERATION,
+        CHAT,
+        LOCATORS,
+        GENERAL
+    }
+
+    private Operation operation = Operation.GENERAL;
+    private boolean freshOutput;
+    private String workflowType;
+    private String userId;
+
+    public AiRequestOptions() {}
+
+    public AiRequestOptions(Operation operation, boolean freshOutput) {
+        this(operation, freshOutput, null, null);
+    }
+
+    public AiRequestOptions(Operation operation, boolean freshOutput, String workflowType, String userId) {
+        this.operation = operation != null ? operation : Operation.GENERAL;
+        this.freshOutput = freshOutput;
+        this.workflowType = workflowType;
+        this.userId = userId;
+    }
+
+    public static AiRequestOptions defaults() {
+        return new AiRequestOptions();
+    }
+
+    public static AiRequestOptions forOperation(Operation operation) {
+        return new AiRequestOptions(operation, false);
+    }
+
+    public Operation getOperation() { return operation; }
+    public void setOperation(Operation operation) { this.operation = operation; }
+    /**
+     * When true and the configured temperature is above 0, cached responses are not served
+     * so the caller gets a newly sampled completion (the result is still cached)
+     */
+    public boolean isFreshOutput() { return freshOutput; }
+    public void setFreshOutput(boolean freshOutput) { this.freshOutput = freshOutput; }
+    /**
+     * Workflow (VS2, VS4, ...) the request was made for, if any - used for token usage accounting
+     */
+    public String getWorkflowType() { return workflowType; }
+    public void setWorkflowType(String workflowType) { this.workflowType = workflowType; }
+    /**
+     * User the request is made on behalf of, if known - used for token usage accounting and budgets
+     */
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public static Builder builder() { return new Builder(); }
+
+    public static class Builder {
+        private Operation operation = Operation.GENERAL;
+        private boolean freshOutput;
+        private String workflowType;
+        private String userId;
+
+        public Builder operation(Operation operation) { this.operation = operation; return this; }
+        public Builder freshOutput(boolean freshOutput) { this.freshOutput = freshOutput; return this; }
+        public Builder workflowType(String workflowType) { this.workflowType = workflowType; return this; }
+        public Builder userId(String userId) { this.userId = userId; return this; }
+        public AiRequestOptions build() { return new AiRequestOptions(operation, freshOutput, workflowType, userId); }
+    }
+}
@@ -0,0 +1,87 @@
+package com.hcl.testmate.model;
+
+import java.util.List;
+
+/**
+ * Snapshot of a background multi-document generation job
+ */
+public class DocumentJobStatus {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    private String jobId;
+    private String status;
+    private int totalDocuments;
+    private int completedDocuments;
+    private int failedDocuments;
+    private long createdAt;
+    private Long completedAt;
+    private List<DocumentProgress> documents;
+    private MultiDocumentResponse result;
+
+    public DocumentJobStatus() {}
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getTotalDocuments() { return totalDocuments; }
+    public void setTotalDocuments(int totalDocuments) { this.totalDocuments = totalDocuments; }
+    public int getCompletedDocuments() { return completedDocuments; }
+    public void setCompletedDocuments(int completedDocuments) { this.completedDocuments = completedDocuments; }
+    public int getFailedDocuments() { return failedDocuments; }
+    public void setFailedDocuments(int failedDocuments) { this.failedDocuments = failedDocuments; }
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    public Long getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Long completedAt) { this.completedAt = completedAt; }
+    public List<DocumentProgress> getDocuments() { return documents; }
+    public void setDocuments(List<DocumentProgress> documents) { this.documents = documents; }
+    /**
+     * Final response, only present once the job is COMPLETED
+     */
+    public MultiDocumentResponse getResult() { return result; }
+    public void setResult(MultiDocumentResponse result) { this.result = result; }
+
+    public boolean isCompleted() { return STATUS_COMPLETED.equals(status); }
+
+    /**
+     * Progress of a single document within a job
+     */
+    public static class DocumentProgress {
+
+        public static final String PENDING = "PENDING";
+        public static final String PROCESSING = "PROCESSING";
+        public static final String COMPLETED = "COMPLETED";
+        public static final String FAILED = "FAILED";
+
+        private int index;
+        private String fileName;
+        private String status;
+        private int totalTestCases;
+        private String errorMessage;
+
+        public DocumentProgress() {}
+
+        public DocumentProgress(int index, String fileName, String status, int totalTestCases, String errorMessage) {
+            this.index = index;
+            this.fileName = fileName;
+            this.status = status;
+            this.totalTestCases = totalTestCases;
+            this.errorMessage = errorMessage;
+        }
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+        public String getFileName() { return fileName; }
+        public void setFileName(String fileName) { this.fileName = fileName; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public int getTotalTestCases() { return totalTestCases; }
+        public void setTotalTestCases(int totalTestCases) { this.totalTestCases = totalTestCases; }
+        public String getErrorMessage() { return errorMessage; }
+        public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    }
+}
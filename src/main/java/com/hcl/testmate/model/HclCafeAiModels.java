@@ -1,5 +1,6 @@
 package com.hcl.testmate.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -14,6 +15,8 @@ public class HclCafeAiModels {
         private List<Message> messages;
         private Integer maxTokens;
         private Double temperature;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Boolean stream;
 
         public ChatRequest() {}
         public ChatRequest(String model, List<Message> messages, Integer maxTokens, Double temperature) {
@@ -22,6 +25,10 @@ public class HclCafeAiModels {
             this.maxTokens = maxTokens;
             this.temperature = temperature;
         }
+        public ChatRequest(String model, List<Message> messages, Integer maxTokens, Double temperature, Boolean stream) {
+            this(model, messages, maxTokens, temperature);
+            this.stream = stream;
+        }
         public String getModel() { return model; }
         public void setModel(String model) { this.model = model; }
         public List<Message> getMessages() { return messages; }
@@ -30,17 +37,21 @@ public class HclCafeAiModels {
         public void setMaxTokens(Integer maxTokens) { this.maxTokens = maxTokens; }
         public Double getTemperature() { return temperature; }
         public void setTemperature(Double temperature) { this.temperature = temperature; }
+        public Boolean getStream() { return stream; }
+        public void setStream(Boolean stream) { this.stream = stream; }
         public static Builder builder() { return new Builder(); }
         public static class Builder {
             private String model;
             private List<Message> messages;
             private Integer maxTokens;
             private Double temperature;
+            private Boolean stream;
             public Builder model(String model) { this.model = model; return this; }
             public Builder messages(List<Message> messages) { this.messages = messages; return this; }
             public Builder maxTokens(Integer maxTokens) { this.maxTokens = maxTokens; return this; }
             public Builder temperature(Double temperature) { this.temperature = temperature; return this; }
-            public ChatRequest build() { return new ChatRequest(model, messages, maxTokens, temperature); }
+            public Builder stream(Boolean stream) { this.stream = stream; return this; }
+            public ChatRequest build() { return new ChatRequest(model, messages, maxTokens, temperature, stream); }
         }
     }
     
@@ -139,4 +150,46 @@ public class HclCafeAiModels {
         public Integer getTotalTokens() { return totalTokens; }
         public void setTotalTokens(Integer totalTokens) { this.totalTokens = totalTokens; }
     }
+    
+    /**
+     * A single server-sent event chunk returned when stream=true
+     */
+    public static class ChatChunk {
+        private String id;
+        private String object;
+        private Long created;
+        private String model;
+        private List<ChunkChoice> choices;
+        // Only sent (on the final chunk) by API versions that report streaming usage
+        private Usage usage;
+
+        public ChatChunk() {}
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getObject() { return object; }
+        public void setObject(String object) { this.object = object; }
+        public Long getCreated() { return created; }
+        public void setCreated(Long created) { this.created = created; }
+        public String getModel() { return model; }
+        public void setModel(String model) { this.model = model; }
+        public List<ChunkChoice> getChoices() { return choices; }
+        public void setChoices(List<ChunkChoice> choices) { this.choices = choices; }
+        public Usage getUsage() { return usage; }
+        public void setUsage(Usage usage) { this.usage = usage; }
+    }
+    
+    public static class ChunkChoice {
+        private Integer index;
+        private Message delta;
+        @JsonProperty("finish_reason")
+        private String finishReason;
+
+        public ChunkChoice() {}
+        public Integer getIndex() { return index; }
+        public void setIndex(Integer index) { this.index = index; }
+        public Message getDelta() { return delta; }
+        public void setDelta(Message delta) { this.delta = delta; }
+        public String getFinishReason() { return finishReason; }
+        public void setFinishReason(String finishReason) { this.finishReason = finishReason; }
+    }
 }
@@ -0,0 +1,37 @@
+package com.hcl.testmate.model;
+
+/**
+ * Outcome of generating test cases for one story of a JIRA batch
+ */
+public class JiraBatchResult {
+    private String issueKey;
+    private boolean success;
+    private String error;
+    private TestCaseResponse response;
+
+    public JiraBatchResult() {}
+
+    public JiraBatchResult(String issueKey, boolean success, String error, TestCaseResponse response) {
+        this.issueKey = issueKey;
+        this.success = success;
+        this.error = error;
+        this.response = response;
+    }
+
+    public static JiraBatchResult success(String issueKey, TestCaseResponse response) {
+        return new JiraBatchResult(issueKey, true, null, response);
+    }
+
+    public static JiraBatchResult failure(String issueKey, String error) {
+        return new JiraBatchResult(issueKey, false, error, null);
+    }
+
+    public String getIssueKey() { return issueKey; }
+    public void setIssueKey(String issueKey) { this.issueKey = issueKey; }
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public TestCaseResponse getResponse() { return response; }
+    public void setResponse(TestCaseResponse response) { this.response = response; }
+}
@@ -14,6 +14,8 @@ public class JiraStory {
     private String assignee;
     private String reporter;
     private String createdDate;
+    // The issue's "updated" timestamp as returned by JIRA
+    private String updatedDate;
     private String project;
     // Additional metadata
     private String issueType;
@@ -67,6 +69,8 @@ public class JiraStory {
     public void setReporter(String reporter) { this.reporter = reporter; }
     public String getCreatedDate() { return createdDate; }
     public void setCreatedDate(String createdDate) { this.createdDate = createdDate; }
+    public String getUpdatedDate() { return updatedDate; }
+    public void setUpdatedDate(String updatedDate) { this.updatedDate = updatedDate; }
     public String getProject() { return project; }
     public void setProject(String project) { this.project = project; }
     public String getIssueType() { return issueType; }
@@ -96,6 +100,7 @@ public class JiraStory {
         private String assignee;
         private String reporter;
         private String createdDate;
+        private String updatedDate;
         private String project;
         private String issueType;
         private String storyPoints;
@@ -114,6 +119,7 @@ public class JiraStory {
         public Builder assignee(String assignee) { this.assignee = assignee; return this; }
         public Builder reporter(String reporter) { this.reporter = reporter; return this; }
         public Builder createdDate(String createdDate) { this.createdDate = createdDate; return this; }
+        public Builder updatedDate(String updatedDate) { this.updatedDate = updatedDate; return this; }
         public Builder project(String project) { this.project = project; return this; }
         public Builder issueType(String issueType) { this.issueType = issueType; return this; }
         public Builder storyPoints(String storyPoints) { this.storyPoints = storyPoints; return this; }
@@ -121,7 +127,9 @@ public class JiraStory {
         public Builder labels(List<String> labels) { this.labels = labels; return this; }
         public Builder components(List<String> components) { this.components = components; return this; }
         public JiraStory build() {
-            return new JiraStory(issueKey, summary, description, userStory, acceptanceCriteria, businessRules, priority, status, assignee, reporter, createdDate, project, issueType, storyPoints, sprint, labels, components);
+            JiraStory story = new JiraStory(issueKey, summary, description, userStory, acceptanceCriteria, businessRules, priority, status, assignee, reporter, createdDate, project, issueType, storyPoints, sprint, labels, components);
+            story.setUpdatedDate(updatedDate);
+            return story;
         }
     }
 }
@@ -15,6 +15,8 @@ public class JiraStoryRequest {
     private String assumptions;
     private String constraints;
     private String additionalNotes;
+    // Who the generation is for (the JIRA username); null for manual entries. Used for per-user token accounting
+    private String requestedBy;
 
     public JiraStoryRequest() {}
 
@@ -75,6 +77,14 @@ public class JiraStoryRequest {
         this.additionalNotes = additionalNotes;
     }
 
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+
+    public void setRequestedBy(String requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -86,6 +96,7 @@ public class JiraStoryRequest {
         private String assumptions;
         private String constraints;
         private String additionalNotes;
+        private String requestedBy;
 
         public Builder userStory(String userStory) {
             this.userStory = userStory;
@@ -117,8 +128,15 @@ public class JiraStoryRequest {
             return this;
         }
 
+        public Builder requestedBy(String requestedBy) {
+            this.requestedBy = requestedBy;
+            return this;
+        }
+
         public JiraStoryRequest build() {
-            return new JiraStoryRequest(userStory, acceptanceCriteria, businessRules, assumptions, constraints, additionalNotes);
+            JiraStoryRequest request = new JiraStoryRequest(userStory, acceptanceCriteria, businessRules, assumptions, constraints, additionalNotes);
+            request.setRequestedBy(requestedBy);
+            return request;
         }
     }
 }
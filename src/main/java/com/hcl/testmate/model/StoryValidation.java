@@ -0,0 +1,43 @@
+package com.hcl.testmate.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of validating a story before test case generation.
+ * The heuristic part is always present; the optional AI review is attached once it finishes.
+ */
+public class StoryValidation {
+
+    public static final String STATUS_VALID = "VALID";
+    public static final String STATUS_INCOMPLETE = "INCOMPLETE";
+
+    public static final String AI_DISABLED = "DISABLED";
+    public static final String AI_PENDING = "PENDING";
+    public static final String AI_VALID = "VALID";
+    public static final String AI_NEEDS_CLARIFICATION = "NEEDS_CLARIFICATION";
+    public static final String AI_FAILED = "FAILED";
+
+    private String status;
+    private List<String> issues = new ArrayList<>();
+    // Updated from the AI validation callback thread
+    private volatile String aiStatus = AI_DISABLED;
+    private volatile String aiFeedback;
+
+    public StoryValidation() {}
+
+    public StoryValidation(String status, List<String> issues) {
+        this.status = status;
+        this.issues = issues != null ? issues : new ArrayList<>();
+    }
+
+    public boolean isValid() { return STATUS_VALID.equals(status); }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public List<String> getIssues() { return issues; }
+    public void setIssues(List<String> issues) { this.issues = issues; }
+    public String getAiStatus() { return aiStatus; }
+    public void setAiStatus(String aiStatus) { this.aiStatus = aiStatus; }
+    public String getAiFeedback() { return aiFeedback; }
+    public void setAiFeedback(String aiFeedback) { this.aiFeedback = aiFeedback; }
+}
@@ -15,6 +15,9 @@ public class TestCaseResponse {
     private String jiraIssueKey;
     private String jiraProject;
     private String jiraSummary;
+    private StoryValidation validation;
+    // True when the AI service failed and the test cases were built from templates
+    private boolean fallback;
 
     public TestCaseResponse() {}
 
@@ -38,6 +41,8 @@ public class TestCaseResponse {
         private String jiraIssueKey;
         private String jiraProject;
         private String jiraSummary;
+        private StoryValidation validation;
+        private boolean fallback;
 
         public Builder testCases(List<TestCase> testCases) { this.testCases = testCases; return this; }
         public Builder csvContent(String csvContent) { this.csvContent = csvContent; return this; }
@@ -48,12 +53,16 @@ public class TestCaseResponse {
         public Builder jiraIssueKey(String jiraIssueKey) { this.jiraIssueKey = jiraIssueKey; return this; }
         public Builder jiraProject(String jiraProject) { this.jiraProject = jiraProject; return this; }
         public Builder jiraSummary(String jiraSummary) { this.jiraSummary = jiraSummary; return this; }
+        public Builder validation(StoryValidation validation) { this.validation = validation; return this; }
+        public Builder fallback(boolean fallback) { this.fallback = fallback; return this; }
         public TestCaseResponse build() {
             TestCaseResponse resp = new TestCaseResponse(testCases, csvContent, totalTestCases, message, success);
             resp.setExtractedContent(extractedContent);
             resp.setJiraIssueKey(jiraIssueKey);
             resp.setJiraProject(jiraProject);
             resp.setJiraSummary(jiraSummary);
+            resp.setValidation(validation);
+            resp.setFallback(fallback);
             return resp;
         }
     }
@@ -67,6 +76,8 @@ public class TestCaseResponse {
     public String getJiraIssueKey() { return jiraIssueKey; }
     public String getJiraProject() { return jiraProject; }
     public String getJiraSummary() { return jiraSummary; }
+    public StoryValidation getValidation() { return validation; }
+    public boolean isFallback() { return fallback; }
 
     public void setTestCases(List<TestCase> testCases) { this.testCases = testCases; }
     public void setCsvContent(String csvContent) { this.csvContent = csvContent; }
@@ -77,6 +88,8 @@ public class TestCaseResponse {
     public void setJiraIssueKey(String jiraIssueKey) { this.jiraIssueKey = jiraIssueKey; }
     public void setJiraProject(String jiraProject) { this.jiraProject = jiraProject; }
     public void setJiraSummary(String jiraSummary) { this.jiraSummary = jiraSummary; }
+    public void setValidation(StoryValidation validation) { this.validation = validation; }
+    public void setFallback(boolean fallback) { this.fallback = fallback; }
 
     public static class ExtractedContent {
         private String userStory;
@@ -0,0 +1,45 @@
+package com.hcl.testmate.model;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An uploaded document copied into memory so it can be processed after the upload request has finished
+ */
+public class UploadedDocument {
+    private final String fileName;
+    private final byte[] content;
+    private volatile String contentKey;
+
+    public UploadedDocument(String fileName, byte[] content) {
+        this.fileName = fileName;
+        this.content = content != null ? content : new byte[0];
+    }
+
+    public String getFileName() { return fileName; }
+    public byte[] getContent() { return content; }
+    public long getSize() { return content.length; }
+
+    /**
+     * Identity of the document content: file extension (it decides how the bytes are parsed)
+     * plus SHA-256 of the bytes. Documents with equal keys yield the same text whatever their name.
+     */
+    public String getContentKey() {
+        String key = contentKey;
+        if (key == null) {
+            String name = fileName != null ? fileName.toLowerCase() : "";
+            int dot = name.lastIndexOf('.');
+            StringBuilder builder = new StringBuilder(dot >= 0 ? name.substring(dot + 1) : "").append(':');
+            try {
+                for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+                    builder.append(String.format("%02x", b));
+                }
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            key = builder.toString();
+            contentKey = key;
+        }
+        return key;
+    }
+}
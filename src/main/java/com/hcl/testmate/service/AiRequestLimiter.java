@@ -0,0 +1,109 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking permit pool that caps the number of in-flight AI requests for one deployment.
+ * Callers that cannot get a permit wait in a bounded FIFO queue without holding a thread;
+ * when the queue is full the request is rejected immediately.
+ */
+public class AiRequestLimiter {
+
+    private final String deploymentName;
+    private final int maxPermits;
+    private final int maxQueued;
+    private final long queueTimeoutSeconds;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    private int inFlight = 0;
+    private int peakQueueDepth = 0;
+    private long totalGranted = 0;
+    private long totalRejected = 0;
+
+    public AiRequestLimiter(String deploymentName, int maxPermits, int maxQueued, long queueTimeoutSeconds) {
+        this.deploymentName = deploymentName;
+        this.maxPermits = Math.max(1, maxPermits);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeoutSeconds = queueTimeoutSeconds;
+    }
+
+    /**
+     * Request a permit. The returned future completes once the caller may send its request,
+     * and must be followed by exactly one {@link #release()} after the request finishes.
+     */
+    public CompletableFuture<Void> acquire() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (inFlight < maxPermits) {
+                inFlight++;
+                totalGranted++;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiters.removeIf(CompletableFuture::isDone);
+            if (waiters.size() >= maxQueued) {
+                totalRejected++;
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "AI request queue for deployment '" + deploymentName + "' is full (" + maxQueued + " waiting)"));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+            peakQueueDepth = Math.max(peakQueueDepth, waiters.size());
+        }
+        // A waiter that times out stays in the queue and is skipped on release
+        return queueTimeoutSeconds > 0 ? waiter.orTimeout(queueTimeoutSeconds, TimeUnit.SECONDS) : waiter;
+    }
+
+    /**
+     * Return a permit, handing it directly to the next live waiter if there is one
+     */
+    public void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiters.pollFirst();
+            while (next != null && next.isDone()) {
+                next = waiters.pollFirst();
+            }
+            if (next == null) {
+                inFlight = Math.max(0, inFlight - 1);
+                return;
+            }
+            totalGranted++;
+        }
+        // Complete outside the lock - the waiter's continuation may run on this thread
+        if (!next.complete(null)) {
+            // Waiter timed out or was cancelled in between, pass the permit on
+            release();
+        }
+    }
+
+    public synchronized int getQueueDepth() {
+        return (int) waiters.stream().filter(waiter -> !waiter.isDone()).count();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Snapshot of permit usage and queue depth for diagnostics
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("deployment", deploymentName);
+        stats.put("maxPermits", maxPermits);
+        stats.put("inFlight", inFlight);
+        stats.put("availablePermits", Math.max(0, maxPermits - inFlight));
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("maxQueued", maxQueued);
+        stats.put("peakQueueDepth", peakQueueDepth);
+        stats.put("totalGranted", totalGranted);
+        stats.put("totalRejected", totalRejected);
+        return stats;
+    }
+}
@@ -0,0 +1,549 @@
+package com.hcl.testmate.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hcl.testmate.model.AiRequestOptions.Operation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Content-addressed, persistent cache for AI completions.
+ *
+ * Entries are keyed by a SHA-256 of model, deployment, system message, user message,
+ * temperature and max tokens. Completions are appended to a segment file and located
+ * through a fixed-size open-addressing hash table kept in a memory-mapped index file,
+ * so lookups survive restarts without loading the cache into heap.
+ * When the segment nears its size limit it is compacted on a background thread, keeping the newest
+ * live entries; only the final swap to the compacted segment happens under the cache's lock.
+ */
+@Component
+public class AiResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AiResponseCache.class);
+
+    private static final String SEGMENT_FILE = "responses.seg";
+    private static final String INDEX_FILE = "responses.idx";
+
+    private static final int RECORD_MAGIC = 0x54434331;
+    private static final int INDEX_MAGIC = 0x54434958;
+    private static final int KEY_BYTES = 32;
+    // magic + key + createdAt + expiresAt + payload length
+    private static final int RECORD_HEADER_BYTES = 4 + KEY_BYTES + 8 + 8 + 4;
+    // magic + slot count + segment length
+    private static final int INDEX_HEADER_BYTES = 4 + 4 + 8;
+    // key + offset + payload length + createdAt + expiresAt + state
+    private static final int SLOT_BYTES = 64;
+    private static final int SLOT_EMPTY = 0;
+    private static final int SLOT_USED = 1;
+
+    @Value("${hcl.cafe.ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hcl.cafe.ai.cache.directory:data/ai-cache}")
+    private String directory;
+
+    @Value("${hcl.cafe.ai.cache.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${hcl.cafe.ai.cache.index-slots:65536}")
+    private int indexSlots;
+
+    @Value("${hcl.cafe.ai.cache.ttl-minutes.validation:1440}")
+    private long validationTtlMinutes;
+
+    @Value("${hcl.cafe.ai.cache.ttl-minutes.generation:10080}")
+    private long generationTtlMinutes;
+
+    @Value("${hcl.cafe.ai.cache.ttl-minutes.chat:60}")
+    private long chatTtlMinutes;
+
+    @Value("${hcl.cafe.ai.cache.ttl-minutes.locators:10080}")
+    private long locatorsTtlMinutes;
+
+    @Value("${hcl.cafe.ai.cache.ttl-minutes.general:1440}")
+    private long generalTtlMinutes;
+
+    private final Map<Operation, Long> ttlMillis = new EnumMap<>(Operation.class);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    // Writes skipped because the cache was full while a compaction was running, or no index slot was free
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-cache-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel segment;
+    private RandomAccessFile indexFile;
+    private MappedByteBuffer index;
+    private int entryCount;
+    private boolean available;
+    private boolean compacting;
+
+    @PostConstruct
+    public void open() {
+        ttlMillis.put(Operation.VALIDATION, validationTtlMinutes * 60_000L);
+        ttlMillis.put(Operation.GENERATION, generationTtlMinutes * 60_000L);
+        ttlMillis.put(Operation.CHAT, chatTtlMinutes * 60_000L);
+        ttlMillis.put(Operation.LOCATORS, locatorsTtlMinutes * 60_000L);
+        ttlMillis.put(Operation.GENERAL, generalTtlMinutes * 60_000L);
+
+        if (!enabled) {
+            log.info("AI response cache is disabled");
+            return;
+        }
+
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            openFiles(dir);
+            available = true;
+            log.info("AI response cache opened at {} ({} entries, {} bytes)",
+                    dir.toAbsolutePath(), entryCount, segment.size());
+        } catch (Exception e) {
+            log.warn("AI response cache unavailable, continuing without it: {}", e.getMessage());
+            available = false;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        compactor.shutdownNow();
+        if (!available) {
+            return;
+        }
+        try {
+            index.force();
+            segment.force(true);
+            segment.close();
+            indexFile.close();
+        } catch (IOException e) {
+            log.warn("Failed to close AI response cache cleanly: {}", e.getMessage());
+        }
+        available = false;
+    }
+
+    /**
+     * Compute the content address for a chat completion request
+     */
+    public byte[] key(String model, String deployment, String systemMessage, String userMessage,
+                      Double temperature, Integer maxTokens) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{model, deployment, systemMessage, userMessage,
+                    String.valueOf(temperature), String.valueOf(maxTokens)}) {
+                byte[] bytes = part != null ? part.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                // Length prefix keeps ("ab","c") and ("a","bc") apart
+                digest.update(ByteBuffer.allocate(4).putInt(part != null ? bytes.length : -1).array());
+                digest.update(bytes);
+            }
+            return digest.digest();
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether completions for this operation are cached at all
+     */
+    public boolean isCacheable(Operation operation) {
+        return available && ttlMillis.getOrDefault(operation, 0L) > 0;
+    }
+
+    /**
+     * Look up a live entry
+     */
+    public synchronized Optional<String> get(byte[] key) {
+        if (!available) {
+            return Optional.empty();
+        }
+        try {
+            int slot = findSlot(key);
+            if (slot < 0 || readInt(slot, 60) != SLOT_USED) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            if (index.getLong(slotPosition(slot) + 52) < System.currentTimeMillis()) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+
+            long offset = index.getLong(slotPosition(slot) + 32);
+            int length = index.getInt(slotPosition(slot) + 40);
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            segment.read(header, offset);
+            header.flip();
+            int magic = header.getInt();
+            byte[] recordKey = new byte[KEY_BYTES];
+            header.get(recordKey);
+            if (magic != RECORD_MAGIC || !Arrays.equals(recordKey, key)) {
+                log.warn("AI response cache index points at a mismatched record, ignoring entry");
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            segment.read(payload, offset + RECORD_HEADER_BYTES);
+            hits.incrementAndGet();
+            return Optional.of(new String(payload.array(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("AI response cache read failed: {}", e.getMessage());
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Append a completion and point the index at it
+     */
+    public synchronized void put(byte[] key, String content, Operation operation) {
+        long ttl = ttlMillis.getOrDefault(operation, 0L);
+        if (!available || ttl <= 0 || content == null) {
+            return;
+        }
+        try {
+            byte[] payload = content.getBytes(StandardCharsets.UTF_8);
+            long recordBytes = RECORD_HEADER_BYTES + (long) payload.length;
+            long maxBytes = maxSizeMb * 1024 * 1024;
+            if (recordBytes > maxBytes / 4) {
+                log.debug("Not caching AI response of {} bytes (too large for cache)", payload.length);
+                return;
+            }
+            // Compaction starts at 90% of the limits, writes continue until the hard limits are reached
+            long newSize = segment.size() + recordBytes;
+            if (newSize > maxBytes * 9 / 10 || entryCount + 1 > indexSlots * 7 / 10) {
+                startCompaction(maxBytes * 3 / 4, indexSlots / 2);
+            }
+            if (newSize > maxBytes || entryCount + 1 > indexSlots * 9 / 10 || findSlot(key) < 0) {
+                droppedWrites.incrementAndGet();
+                log.debug("Not caching AI response, cache is full until compaction completes");
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            long expiresAt = now + ttl;
+            long offset = segment.size();
+            ByteBuffer record = ByteBuffer.allocate((int) recordBytes);
+            record.putInt(RECORD_MAGIC).put(key).putLong(now).putLong(expiresAt).putInt(payload.length).put(payload);
+            record.flip();
+            while (record.hasRemaining()) {
+                segment.write(record, offset + record.position());
+            }
+
+            writeSlot(key, offset, payload.length, now, expiresAt);
+            index.putLong(8, segment.size());
+            writes.incrementAndGet();
+        } catch (IOException e) {
+            log.warn("AI response cache write failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cache hit/miss counters and storage usage
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", available);
+        stats.put("entries", entryCount);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("compactions", compactions.get());
+        stats.put("compacting", compacting);
+        stats.put("droppedWrites", droppedWrites.get());
+        try {
+            stats.put("segmentBytes", available ? segment.size() : 0L);
+        } catch (IOException e) {
+            stats.put("segmentBytes", -1L);
+        }
+        stats.put("maxBytes", maxSizeMb * 1024 * 1024);
+        return stats;
+    }
+
+    private void openFiles(Path dir) throws IOException {
+        segment = FileChannel.open(dir.resolve(SEGMENT_FILE),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        File indexPath = dir.resolve(INDEX_FILE).toFile();
+        long indexBytes = INDEX_HEADER_BYTES + (long) indexSlots * SLOT_BYTES;
+        boolean reuse = indexPath.exists() && indexPath.length() == indexBytes;
+        indexFile = new RandomAccessFile(indexPath, "rw");
+        indexFile.setLength(indexBytes);
+        index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, indexBytes);
+
+        // Only trust the index if it was written for exactly this segment
+        if (reuse && index.getInt(0) == INDEX_MAGIC && index.getInt(4) == indexSlots
+                && index.getLong(8) == segment.size()) {
+            entryCount = countEntries();
+        } else {
+            log.info("Rebuilding AI response cache index from segment");
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        clearIndex();
+        long position = indexRecords(0);
+        if (position < segment.size()) {
+            log.warn("Truncating AI response cache segment at {} bytes (incomplete tail record)", position);
+            segment.truncate(position);
+        }
+        index.putLong(8, segment.size());
+    }
+
+    /**
+     * Point the index at the records of the segment from the given position on
+     *
+     * @return position after the last complete record
+     */
+    private long indexRecords(long position) throws IOException {
+        long size = segment.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (position + RECORD_HEADER_BYTES <= size) {
+            header.clear();
+            segment.read(header, position);
+            header.flip();
+            if (header.getInt() != RECORD_MAGIC) {
+                break;
+            }
+            byte[] key = new byte[KEY_BYTES];
+            header.get(key);
+            long createdAt = header.getLong();
+            long expiresAt = header.getLong();
+            int length = header.getInt();
+            if (length < 0 || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            // Later records for the same key win
+            writeSlot(key, position, length, createdAt, expiresAt);
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * Queue a compaction unless one is already running; called with the lock held
+     */
+    private void startCompaction(long byteBudget, int entryBudget) {
+        if (compacting) {
+            return;
+        }
+        compacting = true;
+        try {
+            compactor.execute(() -> compact(byteBudget, entryBudget));
+        } catch (RejectedExecutionException e) {
+            compacting = false;
+        }
+    }
+
+    /**
+     * Rewrite the segment keeping only the newest live entries within the given budgets.
+     * Live entries are copied to a new segment without holding the lock, so lookups and writes carry on
+     * against the old segment meanwhile; records appended during the copy are carried over at the swap.
+     */
+    private void compact(long byteBudget, int entryBudget) {
+        Path dir = Paths.get(directory);
+        Path compacted = dir.resolve(SEGMENT_FILE + ".tmp");
+        try {
+            FileChannel source;
+            long copiedUpTo;
+            List<long[]> live = new ArrayList<>();
+            List<byte[]> liveKeys = new ArrayList<>();
+            synchronized (this) {
+                if (!available) {
+                    return;
+                }
+                source = segment;
+                copiedUpTo = segment.size();
+                long now = System.currentTimeMillis();
+                for (int slot = 0; slot < indexSlots; slot++) {
+                    if (readInt(slot, 60) == SLOT_USED && index.getLong(slotPosition(slot) + 52) > now) {
+                        int position = slotPosition(slot);
+                        byte[] key = new byte[KEY_BYTES];
+                        index.get(position, key);
+                        live.add(new long[]{index.getLong(position + 32), index.getInt(position + 40),
+                                index.getLong(position + 44), index.getLong(position + 52), liveKeys.size()});
+                        liveKeys.add(key);
+                    }
+                }
+            }
+            live.sort(Comparator.comparingLong((long[] entry) -> entry[2]).reversed());
+
+            List<long[]> kept = new ArrayList<>();
+            long written = 0;
+            try (FileChannel out = FileChannel.open(compacted,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                for (long[] entry : live) {
+                    long recordBytes = RECORD_HEADER_BYTES + entry[1];
+                    if (written + recordBytes > byteBudget || kept.size() >= entryBudget) {
+                        break;
+                    }
+                    ByteBuffer record = ByteBuffer.allocate((int) recordBytes);
+                    source.read(record, entry[0]);
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        out.write(record, written + record.position());
+                    }
+                    kept.add(new long[]{written, entry[1], entry[2], entry[3], entry[4]});
+                    written += recordBytes;
+                }
+
+                synchronized (this) {
+                    if (!available) {
+                        return;
+                    }
+                    // Carry over what was appended while copying, then swap segments
+                    long tailBytes = segment.size() - copiedUpTo;
+                    for (long copied = 0; copied < tailBytes; ) {
+                        copied += segment.transferTo(copiedUpTo + copied, tailBytes - copied, out.position(written + copied));
+                    }
+                    out.force(true);
+                    swapSegment(compacted, kept, liveKeys, written);
+                    log.info("Compacted AI response cache: kept {} of {} live entries ({} bytes, {} bytes written during compaction)",
+                            kept.size(), live.size(), written, tailBytes);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("AI response cache compaction failed: {}", e.getMessage());
+            synchronized (this) {
+                if (available && !segment.isOpen()) {
+                    log.warn("AI response cache segment could not be reopened, continuing without the cache");
+                    available = false;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException e) {
+                log.debug("Could not delete {}: {}", compacted, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replace the segment with the compacted one and rebuild the index; called with the lock held
+     */
+    private void swapSegment(Path compacted, List<long[]> kept, List<byte[]> keys, long carriedOverFrom) throws IOException {
+        Path dir = Paths.get(directory);
+        segment.close();
+        Files.move(compacted, dir.resolve(SEGMENT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segment = FileChannel.open(dir.resolve(SEGMENT_FILE),
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        clearIndex();
+        for (long[] entry : kept) {
+            writeSlot(keys.get((int) entry[4]), entry[0], (int) entry[1], entry[2], entry[3]);
+        }
+        // Records written during the copy are newer than every kept entry
+        indexRecords(carriedOverFrom);
+        index.putLong(8, segment.size());
+        compactions.incrementAndGet();
+    }
+
+    private void clearIndex() {
+        for (int position = 0; position < index.capacity(); position += 8) {
+            index.putLong(position, 0L);
+        }
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, indexSlots);
+        entryCount = 0;
+    }
+
+    private int countEntries() {
+        int count = 0;
+        for (int slot = 0; slot < indexSlots; slot++) {
+            if (readInt(slot, 60) == SLOT_USED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void writeSlot(byte[] key, long offset, int length, long createdAt, long expiresAt) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            // Index is full: the record stays in the segment but cannot be found until the next compaction
+            droppedWrites.incrementAndGet();
+            log.warn("AI response cache index is full, entry not indexed");
+            return;
+        }
+        int position = slotPosition(slot);
+        if (readInt(slot, 60) != SLOT_USED) {
+            entryCount++;
+        }
+        index.put(position, key);
+        index.putLong(position + 32, offset);
+        index.putInt(position + 40, length);
+        index.putLong(position + 44, createdAt);
+        index.putLong(position + 52, expiresAt);
+        index.putInt(position + 60, SLOT_USED);
+    }
+
+    /**
+     * Linear probing: returns the slot holding the key, or the first empty slot on its probe path
+     */
+    private int findSlot(byte[] key) {
+        int start = Math.floorMod(ByteBuffer.wrap(key).getInt(), indexSlots);
+        byte[] candidate = new byte[KEY_BYTES];
+        for (int i = 0; i < indexSlots; i++) {
+            int slot = (start + i) % indexSlots;
+            if (readInt(slot, 60) == SLOT_EMPTY) {
+                return slot;
+            }
+            index.get(slotPosition(slot), candidate);
+            if (Arrays.equals(candidate, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int readInt(int slot, int fieldOffset) {
+        return index.getInt(slotPosition(slot) + fieldOffset);
+    }
+
+    private int slotPosition(int slot) {
+        return INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
@@ -7,7 +7,14 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.springframework.stereotype.Service;
 
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -37,41 +44,28 @@ public class CsvGeneratorService {
         "Priority"
     };
     
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader(CSV_HEADERS)
+            .setQuoteMode(org.apache.commons.csv.QuoteMode.ALL)
+            .setRecordSeparator("\n")
+            .build();
+    
+    static final String STORY_KEY_HEADER = "Story Key";
+    
+    // Merged exports are written story by story, so the header is printed separately
+    private static final CSVFormat MERGED_RECORD_FORMAT = CSVFormat.DEFAULT.builder()
+            .setQuoteMode(org.apache.commons.csv.QuoteMode.ALL)
+            .setRecordSeparator("\n")
+            .build();
+    
     /**
      * Generate CSV content from list of test cases in Octane format
      */
     public String generateCsv(List<TestCase> testCases) {
-        try (StringWriter writer = new StringWriter();
-             CSVPrinter csvPrinter = new CSVPrinter(writer, 
-                     CSVFormat.DEFAULT.builder()
-                             .setHeader(CSV_HEADERS)
-                             .setQuoteMode(org.apache.commons.csv.QuoteMode.ALL)
-                             .setRecordSeparator("\n")
-                             .build())) {
-            
-            for (TestCase testCase : testCases) {
-                csvPrinter.printRecord(
-                    testCase.getTestCaseId(),          // ID
-                    "No",                                // Has attachments
-                    formatTestScenario(testCase.getTestScenario()),         // Name (wrap text)
-                    formatMultilineField(testCase.getToValidate()),         // To Validate
-                    "Manual Runner",                     // Testing tool type
-                    "",                                  // Planned (empty)
-                    "",                                  // Passed (empty)
-                    "",                                  // Failed (empty)
-                    "",                                  // Requires Attention (empty)
-                    testCase.getTestType(),             // Test type
-                    "",                                  // Application modules (empty)
-                    "",                                  // Backlog Coverage (empty)
-                    formatMultilineField(testCase.getPreconditions()),        // Preconditions
-                    formatTestSteps(testCase.getTestSteps()),            // Test Steps (each step in new row)
-                    formatMultilineField(testCase.getExpectedResult()),       // Expected Result
-                    testCase.getPriority()              // Priority
-                );
-            }
-            
-            csvPrinter.flush();
-            return writer.toString();
+        try {
+            StringBuilder csv = new StringBuilder();
+            writeCsv(testCases, csv);
+            return csv.toString();
             
         } catch (Exception e) {
             log.error("Error generating CSV", e);
@@ -79,6 +73,88 @@ public class CsvGeneratorService {
         }
     }
     
+    /**
+     * Write the CSV as UTF-8 to a stream (e.g. an HTTP response) without building it in memory.
+     * The stream is flushed but not closed.
+     */
+    public void writeCsv(List<TestCase> testCases, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsv(testCases, writer);
+        writer.flush();
+    }
+    
+    /**
+     * Write the CSV (header and one record per test case) to any character sink.
+     * The sink is not closed.
+     */
+    public void writeCsv(List<TestCase> testCases, Appendable out) throws IOException {
+        // Not closed on purpose - closing the printer would close the caller's sink
+        CSVPrinter csvPrinter = new CSVPrinter(out, CSV_FORMAT);
+        for (TestCase testCase : testCases) {
+            csvPrinter.printRecord(recordValues(testCase));
+        }
+        csvPrinter.flush();
+    }
+    
+    /**
+     * Write the header of a merged multi-story CSV: a story key column followed by the Octane columns.
+     * The sink is not closed.
+     */
+    public void writeMergedCsvHeader(Appendable out) throws IOException {
+        CSVPrinter csvPrinter = new CSVPrinter(out, MERGED_RECORD_FORMAT);
+        List<Object> header = new ArrayList<>(CSV_HEADERS.length + 1);
+        header.add(STORY_KEY_HEADER);
+        header.addAll(Arrays.asList(CSV_HEADERS));
+        csvPrinter.printRecord(header);
+        csvPrinter.flush();
+    }
+    
+    /**
+     * Append the records of one story to a merged multi-story CSV started with writeMergedCsvHeader.
+     * The sink is not closed.
+     */
+    public void writeMergedCsvRecords(String storyKey, List<TestCase> testCases, Appendable out) throws IOException {
+        CSVPrinter csvPrinter = new CSVPrinter(out, MERGED_RECORD_FORMAT);
+        for (TestCase testCase : testCases) {
+            List<Object> values = new ArrayList<>(CSV_HEADERS.length + 1);
+            values.add(storyKey);
+            values.addAll(recordValues(testCase));
+            csvPrinter.printRecord(values);
+        }
+        csvPrinter.flush();
+    }
+    
+    /**
+     * Octane column names, shared with the XLSX export
+     */
+    List<String> headers() {
+        return List.of(CSV_HEADERS);
+    }
+    
+    /**
+     * Values of one Octane record, in CSV_HEADERS order
+     */
+    List<Object> recordValues(TestCase testCase) {
+        return Arrays.asList(
+            testCase.getTestCaseId(),          // ID
+            "No",                                // Has attachments
+            formatTestScenario(testCase.getTestScenario()),         // Name (wrap text)
+            formatMultilineField(testCase.getToValidate()),         // To Validate
+            "Manual Runner",                     // Testing tool type
+            "",                                  // Planned (empty)
+            "",                                  // Passed (empty)
+            "",                                  // Failed (empty)
+            "",                                  // Requires Attention (empty)
+            testCase.getTestType(),             // Test type
+            "",                                  // Application modules (empty)
+            "",                                  // Backlog Coverage (empty)
+            formatMultilineField(testCase.getPreconditions()),        // Preconditions
+            formatTestSteps(testCase.getTestSteps()),            // Test Steps (each step in new row)
+            formatMultilineField(testCase.getExpectedResult()),       // Expected Result
+            testCase.getPriority()              // Priority
+        );
+    }
+    
     /**
      * Format test scenario for wrap text in Excel
      */
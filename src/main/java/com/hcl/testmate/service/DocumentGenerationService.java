@@ -0,0 +1,353 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.MultiDocumentResponse;
+import com.hcl.testmate.model.TestCaseResponse;
+import com.hcl.testmate.model.UploadedDocument;
+
+/**
+ * Generates test cases from uploaded Word documents.
+ * Shared by the synchronous upload endpoint, which processes its documents in parallel,
+ * and the background document jobs.
+ */
+@Service
+public class DocumentGenerationService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentGenerationService.class);
+
+    private final DocumentParserService documentParserService;
+    private final TestCaseGeneratorService testCaseGeneratorService;
+    private final AsyncTaskExecutor uploadExecutor;
+    private final UploadedDocumentStore documentStore;
+    // Documents being generated right now, by content key, so identical uploads wait instead of generating twice
+    private final Map<String, CompletableFuture<TestCaseResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${testmate.upload.document-timeout-ms:150000}")
+    private long documentTimeoutMs;
+
+    public DocumentGenerationService(DocumentParserService documentParserService,
+                                     TestCaseGeneratorService testCaseGeneratorService,
+                                     @Qualifier("uploadExecutor") AsyncTaskExecutor uploadExecutor,
+                                     UploadedDocumentStore documentStore) {
+        this.documentParserService = documentParserService;
+        this.testCaseGeneratorService = testCaseGeneratorService;
+        this.uploadExecutor = uploadExecutor;
+        this.documentStore = documentStore;
+    }
+
+    /**
+     * Process all documents concurrently on the upload executor.
+     * Each document has its own timeout, counted from submission; a document that times out or
+     * cannot be scheduled is reported as failed without affecting the others. A document identical to
+     * an earlier one in the same upload is not processed again but shares that document's result.
+     * Results keep the order of the documents.
+     */
+    public DocumentBatch processDocuments(List<UploadedDocument> documents) {
+        List<Future<?>> tasks = new ArrayList<>(documents.size());
+        List<CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult>> results = new ArrayList<>(documents.size());
+        Map<String, CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult>> resultsByContent = new HashMap<>();
+        
+        for (UploadedDocument document : documents) {
+            String fileName = document.getFileName();
+            boolean valid = documentParserService.isValidWordDocument(fileName, document.getSize());
+            CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult> original =
+                    valid ? resultsByContent.get(document.getContentKey()) : null;
+            if (original != null) {
+                log.info("Document {} duplicates an earlier document of the upload, sharing its result", fileName);
+                tasks.add(null);
+                results.add(original.thenApply(result -> forFile(result, fileName)));
+                continue;
+            }
+            
+            CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult> result = new CompletableFuture<>();
+            Future<?> task = null;
+            try {
+                task = uploadExecutor.submit(() -> result.complete(processDocument(document)));
+                Future<?> submitted = task;
+                CompletableFuture.delayedExecutor(documentTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                    // Stop generating for a document nobody is waiting for anymore
+                    if (result.complete(failure(fileName, "Processing timed out after "
+                            + TimeUnit.MILLISECONDS.toSeconds(documentTimeoutMs) + " seconds"))) {
+                        log.warn("Document timed out: {}", fileName);
+                        submitted.cancel(true);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Upload executor is saturated, failing document: {}", fileName);
+                result.complete(failure(fileName, "Server is busy, please upload this document again"));
+            }
+            tasks.add(task);
+            results.add(result);
+            if (valid) {
+                resultsByContent.put(document.getContentKey(), result);
+            }
+        }
+        
+        return new DocumentBatch(documents, tasks, results);
+    }
+
+    /**
+     * Parse one document and generate its test cases. Never throws - failures are reported in the result.
+     * A document whose content was processed within the store's retention window gets the stored test
+     * cases, and a document identical to one being processed right now waits for that one's result.
+     * Only test cases generated by the AI service are stored and shared.
+     */
+    public MultiDocumentResponse.DocumentTestCaseResult processDocument(UploadedDocument document) {
+        String fileName = document.getFileName();
+        log.info("Processing document: {}", fileName);
+        
+        try {
+            // Validate file
+            if (!documentParserService.isValidWordDocument(fileName, document.getSize())) {
+                return MultiDocumentResponse.DocumentTestCaseResult.builder()
+                        .fileName(fileName)
+                        .success(false)
+                        .errorMessage("Invalid file format. Please upload .doc or .docx files only.")
+                        .build();
+            }
+            
+            String contentKey = document.getContentKey();
+            while (true) {
+                Optional<TestCaseResponse> stored = documentStore.get(contentKey);
+                if (stored.isPresent()) {
+                    log.info("Document {} was processed before, reusing its test cases", fileName);
+                    return toResult(fileName, forFile(stored.get(), fileName));
+                }
+                
+                CompletableFuture<TestCaseResponse> generation = new CompletableFuture<>();
+                CompletableFuture<TestCaseResponse> running = inFlight.putIfAbsent(contentKey, generation);
+                if (running != null) {
+                    log.info("Document {} is identical to a document being processed, waiting for its test cases", fileName);
+                    TestCaseResponse shared;
+                    try {
+                        shared = running.get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+                    }
+                    if (shared != null) {
+                        return toResult(fileName, forFile(shared, fileName));
+                    }
+                    // The other document got no AI result (fallback or cancelled): generate this one itself
+                    continue;
+                }
+                
+                try {
+                    TestCaseResponse response = generate(fileName, document.getContent());
+                    // Template test cases from an AI failure and cancelled generations are neither stored nor shared
+                    boolean reusable = response.isSuccess() && !response.isFallback();
+                    if (reusable) {
+                        documentStore.put(contentKey, response);
+                    }
+                    generation.complete(reusable ? response : null);
+                    return toResult(fileName, response);
+                } catch (Exception e) {
+                    generation.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(contentKey, generation);
+                }
+            }
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure(fileName, "Processing was interrupted");
+        } catch (Exception e) {
+            log.error("Error processing document: {}", fileName, e);
+            return MultiDocumentResponse.DocumentTestCaseResult.builder()
+                    .fileName(fileName)
+                    .success(false)
+                    .errorMessage("Error processing document: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Extract the sections of a document and generate test cases from them
+     */
+    private TestCaseResponse generate(String fileName, byte[] content) {
+        // Extract text from document
+        String documentText = documentParserService.extractTextFromDocument(fileName, content);
+        
+        // Extract structured sections (User Story, AC, BR)
+        DocumentParserService.DocumentSections sections = 
+                documentParserService.extractSections(documentText);
+        
+        // Create request for this specific document using extracted sections
+        JiraStoryRequest request = JiraStoryRequest.builder()
+                .userStory(sections.getUserStory())
+                .acceptanceCriteria(sections.getAcceptanceCriteria())
+                .businessRules(sections.getBusinessRules())
+                .assumptions("")
+                .constraints("")
+                .additionalNotes("")
+                .build();
+        
+        // Generate test cases for this document - bypass cache to ensure fresh generation
+        TestCaseResponse response = testCaseGeneratorService.generateTestCases(request, true);
+        
+        // Add extracted sections to response
+        if (response.isSuccess()) {
+            TestCaseResponse.ExtractedContent extractedContent = 
+                    TestCaseResponse.ExtractedContent.builder()
+                            .userStory(sections.getUserStory())
+                            .acceptanceCriteria(sections.getAcceptanceCriteria())
+                            .businessRules(sections.getBusinessRules())
+                            .build();
+            response.setExtractedContent(extractedContent);
+            response.setMessage("Successfully generated test cases from " + fileName);
+        }
+        
+        log.info("Successfully processed document: {} with {} test cases", 
+                fileName, response.getTotalTestCases());
+        return response;
+    }
+
+    private static MultiDocumentResponse.DocumentTestCaseResult toResult(String fileName, TestCaseResponse response) {
+        return MultiDocumentResponse.DocumentTestCaseResult.builder()
+                .fileName(fileName)
+                .testCaseResponse(response)
+                .success(response.isSuccess())
+                .errorMessage(response.isSuccess() ? null : response.getMessage())
+                .build();
+    }
+
+    /**
+     * The result of an identical document, under another file name
+     */
+    private static MultiDocumentResponse.DocumentTestCaseResult forFile(
+            MultiDocumentResponse.DocumentTestCaseResult result, String fileName) {
+        return MultiDocumentResponse.DocumentTestCaseResult.builder()
+                .fileName(fileName)
+                .testCaseResponse(result.getTestCaseResponse() != null
+                        ? forFile(result.getTestCaseResponse(), fileName) : null)
+                .success(result.isSuccess())
+                .errorMessage(result.getErrorMessage())
+                .build();
+    }
+
+    /**
+     * Copy of a generated response naming another file; test cases and extracted sections are shared
+     */
+    private static TestCaseResponse forFile(TestCaseResponse response, String fileName) {
+        return TestCaseResponse.builder()
+                .testCases(response.getTestCases())
+                .csvContent(response.getCsvContent())
+                .totalTestCases(response.getTotalTestCases())
+                .message(response.isSuccess() ? "Successfully generated test cases from " + fileName : response.getMessage())
+                .success(response.isSuccess())
+                .extractedContent(response.getExtractedContent())
+                .jiraIssueKey(response.getJiraIssueKey())
+                .jiraProject(response.getJiraProject())
+                .jiraSummary(response.getJiraSummary())
+                .validation(response.getValidation())
+                .fallback(response.isFallback())
+                .build();
+    }
+
+    /**
+     * Statistics of the store of processed documents
+     */
+    public Map<String, Object> getDocumentStoreStatistics() {
+        Map<String, Object> stats = documentStore.getStatistics();
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private static MultiDocumentResponse.DocumentTestCaseResult failure(String fileName, String errorMessage) {
+        return MultiDocumentResponse.DocumentTestCaseResult.builder()
+                .fileName(fileName)
+                .success(false)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    /**
+     * Build the combined response for a set of processed documents
+     */
+    public MultiDocumentResponse buildResponse(List<MultiDocumentResponse.DocumentTestCaseResult> documentResults) {
+        int totalTestCases = 0;
+        int successCount = 0;
+        for (MultiDocumentResponse.DocumentTestCaseResult result : documentResults) {
+            if (result.isSuccess() && result.getTestCaseResponse() != null) {
+                totalTestCases += result.getTestCaseResponse().getTotalTestCases();
+                successCount++;
+            }
+        }
+        
+        return MultiDocumentResponse.builder()
+                .documentResults(documentResults)
+                .totalDocuments(documentResults.size())
+                .totalTestCases(totalTestCases)
+                .success(successCount > 0)
+                .message(String.format("Processed %d of %d document(s) successfully. Generated %d test cases total.", 
+                        successCount, documentResults.size(), totalTestCases))
+                .build();
+    }
+
+    /**
+     * Documents being processed for one upload request; tasks and results are indexed by document
+     */
+    public class DocumentBatch {
+        private final List<UploadedDocument> documents;
+        private final List<Future<?>> tasks;
+        private final List<CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult>> results;
+
+        DocumentBatch(List<UploadedDocument> documents, List<Future<?>> tasks,
+                      List<CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult>> results) {
+            this.documents = documents;
+            this.tasks = tasks;
+            this.results = results;
+        }
+
+        /**
+         * Completes with the combined response once every document has finished, failed or timed out
+         */
+        public CompletableFuture<MultiDocumentResponse> response() {
+            return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(ignored -> {
+                        List<MultiDocumentResponse.DocumentTestCaseResult> documentResults = new ArrayList<>(results.size());
+                        for (CompletableFuture<MultiDocumentResponse.DocumentTestCaseResult> result : results) {
+                            documentResults.add(result.join());
+                        }
+                        return buildResponse(documentResults);
+                    });
+        }
+
+        /**
+         * Abandon the documents that are still queued or running, e.g. when the client has disconnected
+         */
+        public void cancel() {
+            int cancelled = 0;
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).complete(failure(documents.get(i).getFileName(), "Processing was cancelled"))) {
+                    // Duplicates of another document of the upload have no task of their own
+                    if (tasks.get(i) != null) {
+                        tasks.get(i).cancel(true);
+                    }
+                    cancelled++;
+                }
+            }
+            if (cancelled > 0) {
+                log.info("Cancelled {} unfinished document(s) of an upload", cancelled);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.model.DocumentJobStatus;
+import com.hcl.testmate.model.DocumentJobStatus.DocumentProgress;
+import com.hcl.testmate.model.MultiDocumentResponse;
+import com.hcl.testmate.model.UploadedDocument;
+
+/**
+ * Runs multi-document test case generation as background jobs.
+ * Submitting returns a job id at once; documents are processed on a bounded executor and
+ * clients poll the job or subscribe for per-document progress. Completed jobs are kept
+ * for a retention period and then evicted.
+ */
+@Service
+public class DocumentJobService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentJobService.class);
+
+    /**
+     * Receives progress of a job. Called from worker threads; a listener that throws is unsubscribed.
+     */
+    public interface DocumentJobListener {
+        void onProgress(DocumentProgress progress);
+        void onComplete(DocumentJobStatus status);
+    }
+
+    private final DocumentGenerationService documentGenerationService;
+    private final Executor documentJobExecutor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${testmate.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${testmate.jobs.max-jobs:100}")
+    private int maxJobs;
+
+    public DocumentJobService(DocumentGenerationService documentGenerationService,
+                              @Qualifier("documentJobExecutor") Executor documentJobExecutor) {
+        this.documentGenerationService = documentGenerationService;
+        this.documentJobExecutor = documentJobExecutor;
+    }
+
+    /**
+     * Create a job for the documents and start processing them in the background
+     * @throws RejectedExecutionException if too many jobs are already held
+     */
+    public DocumentJobStatus submit(List<UploadedDocument> documents) {
+        if (jobs.size() >= maxJobs) {
+            evictExpiredJobs();
+            if (jobs.size() >= maxJobs) {
+                throw new RejectedExecutionException("Too many document jobs in progress (" + maxJobs + "), please retry later");
+            }
+        }
+        
+        Job job = new Job(UUID.randomUUID().toString(), documents);
+        jobs.put(job.id, job);
+        log.info("Submitted document job {} with {} document(s)", job.id, documents.size());
+        
+        for (int i = 0; i < documents.size(); i++) {
+            final int index = i;
+            try {
+                documentJobExecutor.execute(() -> processDocument(job, index));
+            } catch (RejectedExecutionException e) {
+                log.warn("Document job executor is saturated, failing document {} of job {}", index, job.id);
+                completeDocument(job, index, MultiDocumentResponse.DocumentTestCaseResult.builder()
+                        .fileName(documents.get(index).getFileName())
+                        .success(false)
+                        .errorMessage("Server is busy, please resubmit this document")
+                        .build());
+            }
+        }
+        return job.snapshot();
+    }
+
+    public Optional<DocumentJobStatus> getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? Optional.of(job.snapshot()) : Optional.empty();
+    }
+
+    /**
+     * Register a listener for a job's progress
+     * @return the job's current state, or empty if the job does not exist
+     */
+    public Optional<DocumentJobStatus> subscribe(String jobId, DocumentJobListener listener) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.listeners.add(listener);
+        return Optional.of(job.snapshot());
+    }
+
+    public void unsubscribe(String jobId, DocumentJobListener listener) {
+        Job job = jobs.get(jobId);
+        if (job != null) {
+            job.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Drop completed jobs that are older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${testmate.jobs.cleanup-interval-ms:60000}")
+    public void evictExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMinutes * 60_000L;
+        jobs.values().removeIf(job -> {
+            Long completedAt = job.getCompletedAt();
+            if (completedAt != null && completedAt < cutoff) {
+                log.debug("Evicting document job {}", job.id);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void processDocument(Job job, int index) {
+        UploadedDocument document = job.documents.get(index);
+        notifyProgress(job, job.markProcessing(index));
+        completeDocument(job, index, documentGenerationService.processDocument(document));
+    }
+
+    private void completeDocument(Job job, int index, MultiDocumentResponse.DocumentTestCaseResult result) {
+        DocumentProgress progress;
+        boolean lastDocument;
+        synchronized (job) {
+            progress = job.markDone(index, result);
+            lastDocument = job.remaining == 0;
+        }
+        notifyProgress(job, progress);
+        
+        if (lastDocument) {
+            MultiDocumentResponse response = documentGenerationService.buildResponse(job.resultsInOrder());
+            DocumentJobStatus status = job.complete(response);
+            log.info("Document job {} completed: {}", job.id, response.getMessage());
+            for (DocumentJobListener listener : job.listeners) {
+                try {
+                    listener.onComplete(status);
+                } catch (Exception e) {
+                    job.listeners.remove(listener);
+                }
+            }
+            job.listeners.clear();
+        }
+    }
+
+    private void notifyProgress(Job job, DocumentProgress progress) {
+        for (DocumentJobListener listener : job.listeners) {
+            try {
+                listener.onProgress(progress);
+            } catch (Exception e) {
+                log.debug("Removing listener of document job {}: {}", job.id, e.getMessage());
+                job.listeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Mutable job state, guarded by the job's monitor
+     */
+    private static class Job {
+        private final String id;
+        private final long createdAt = System.currentTimeMillis();
+        private final List<UploadedDocument> documents;
+        private final DocumentProgress[] progress;
+        private final MultiDocumentResponse.DocumentTestCaseResult[] results;
+        private final List<DocumentJobListener> listeners = new CopyOnWriteArrayList<>();
+        private int remaining;
+        private int failed;
+        private String status = DocumentJobStatus.STATUS_QUEUED;
+        private Long completedAt;
+        private MultiDocumentResponse result;
+
+        Job(String id, List<UploadedDocument> documents) {
+            this.id = id;
+            this.documents = new ArrayList<>(documents);
+            this.progress = new DocumentProgress[documents.size()];
+            this.results = new MultiDocumentResponse.DocumentTestCaseResult[documents.size()];
+            this.remaining = documents.size();
+            for (int i = 0; i < progress.length; i++) {
+                progress[i] = new DocumentProgress(i, documents.get(i).getFileName(), DocumentProgress.PENDING, 0, null);
+            }
+        }
+
+        synchronized DocumentProgress markProcessing(int index) {
+            status = DocumentJobStatus.STATUS_RUNNING;
+            progress[index] = new DocumentProgress(index, progress[index].getFileName(), DocumentProgress.PROCESSING, 0, null);
+            return progress[index];
+        }
+
+        synchronized DocumentProgress markDone(int index, MultiDocumentResponse.DocumentTestCaseResult documentResult) {
+            results[index] = documentResult;
+            remaining--;
+            if (!documentResult.isSuccess()) {
+                failed++;
+            }
+            int testCases = documentResult.getTestCaseResponse() != null ? documentResult.getTestCaseResponse().getTotalTestCases() : 0;
+            progress[index] = new DocumentProgress(index, progress[index].getFileName(),
+                    documentResult.isSuccess() ? DocumentProgress.COMPLETED : DocumentProgress.FAILED,
+                    testCases, documentResult.getErrorMessage());
+            return progress[index];
+        }
+
+        synchronized List<MultiDocumentResponse.DocumentTestCaseResult> resultsInOrder() {
+            return new ArrayList<>(Arrays.asList(results));
+        }
+
+        synchronized DocumentJobStatus complete(MultiDocumentResponse response) {
+            result = response;
+            status = DocumentJobStatus.STATUS_COMPLETED;
+            completedAt = System.currentTimeMillis();
+            // Uploaded bytes are no longer needed once every document has been processed
+            documents.clear();
+            return snapshot();
+        }
+
+        synchronized Long getCompletedAt() {
+            return completedAt;
+        }
+
+        synchronized DocumentJobStatus snapshot() {
+            DocumentJobStatus snapshot = new DocumentJobStatus();
+            snapshot.setJobId(id);
+            snapshot.setStatus(status);
+            snapshot.setTotalDocuments(progress.length);
+            snapshot.setCompletedDocuments(progress.length - remaining);
+            snapshot.setFailedDocuments(failed);
+            snapshot.setCreatedAt(createdAt);
+            snapshot.setCompletedAt(completedAt);
+            snapshot.setDocuments(new ArrayList<>(Arrays.asList(progress)));
+            snapshot.setResult(result);
+            return snapshot;
+        }
+    }
+}
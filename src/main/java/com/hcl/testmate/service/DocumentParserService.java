@@ -6,13 +6,23 @@ import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.extractor.WordExtractor;
 import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.annotation.PostConstruct;
+
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Service for parsing Word documents (.doc, .docx)
@@ -22,12 +32,72 @@ public class DocumentParserService {
 
     private static final Logger log = LoggerFactory.getLogger(DocumentParserService.class);
     
+    private static final String[] DEFAULT_USER_STORY_START = {"User Story", "Description:", "As I want to", "As a", "Story:"};
+    private static final String[] DEFAULT_USER_STORY_END = {"Acceptance Criteria", "Business Rules", "Pre-conditions", "Assumptions"};
+    private static final String[] DEFAULT_ACCEPTANCE_CRITERIA_START = {"Acceptance Criteria", "Given", "When", "Then"};
+    private static final String[] DEFAULT_ACCEPTANCE_CRITERIA_END = {"Business Rules", "Pre-conditions", "Assumptions", "Technical Notes"};
+    private static final String[] DEFAULT_BUSINESS_RULES_START = {"Business Rules", "BR001", "BR002", "Business Rule"};
+    private static final String[] DEFAULT_BUSINESS_RULES_END = {"Technical Notes", "Wireframe", "Pre-conditions", "Assumptions"};
+    
+    // Section headings; when a property is not set the defaults above are used
+    @Value("${testmate.document.sections.user-story.start:}")
+    private String[] userStoryStartMarkers;
+    
+    @Value("${testmate.document.sections.user-story.end:}")
+    private String[] userStoryEndMarkers;
+    
+    @Value("${testmate.document.sections.acceptance-criteria.start:}")
+    private String[] acceptanceCriteriaStartMarkers;
+    
+    @Value("${testmate.document.sections.acceptance-criteria.end:}")
+    private String[] acceptanceCriteriaEndMarkers;
+    
+    @Value("${testmate.document.sections.business-rules.start:}")
+    private String[] businessRulesStartMarkers;
+    
+    @Value("${testmate.document.sections.business-rules.end:}")
+    private String[] businessRulesEndMarkers;
+    
+    // Upper bound on the text taken from one document, so the heap used per parse does not depend on file size
+    @Value("${testmate.document.max-text-chars:2000000}")
+    private long maxTextChars = 2_000_000;
+    
+    private volatile SectionMarkers sectionMarkers = buildSectionMarkers(
+            new String[][]{DEFAULT_USER_STORY_START, DEFAULT_ACCEPTANCE_CRITERIA_START, DEFAULT_BUSINESS_RULES_START},
+            new String[][]{DEFAULT_USER_STORY_END, DEFAULT_ACCEPTANCE_CRITERIA_END, DEFAULT_BUSINESS_RULES_END});
+    
+    @PostConstruct
+    public void initSectionMarkers() {
+        sectionMarkers = buildSectionMarkers(
+                new String[][]{
+                        markersOrDefault(userStoryStartMarkers, DEFAULT_USER_STORY_START),
+                        markersOrDefault(acceptanceCriteriaStartMarkers, DEFAULT_ACCEPTANCE_CRITERIA_START),
+                        markersOrDefault(businessRulesStartMarkers, DEFAULT_BUSINESS_RULES_START)},
+                new String[][]{
+                        markersOrDefault(userStoryEndMarkers, DEFAULT_USER_STORY_END),
+                        markersOrDefault(acceptanceCriteriaEndMarkers, DEFAULT_ACCEPTANCE_CRITERIA_END),
+                        markersOrDefault(businessRulesEndMarkers, DEFAULT_BUSINESS_RULES_END)});
+        log.info("Document section matcher built with {} markers", sectionMarkers.matcher.getMarkerCount());
+    }
+    
     /**
      * Extract text content from uploaded Word document
      */
     public String extractTextFromDocument(MultipartFile file) {
         try {
-            String filename = file.getOriginalFilename();
+            return extractTextFromDocument(file.getOriginalFilename(), file.getBytes());
+        } catch (IOException e) {
+            log.error("Error reading uploaded document", e);
+            throw new RuntimeException("Failed to extract text from document: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Extract text content from a Word document that has already been read into memory
+     * (used when the document is processed after the upload request has finished)
+     */
+    public String extractTextFromDocument(String filename, byte[] content) {
+        try {
             if (filename == null) {
                 throw new RuntimeException("Filename is null");
             }
@@ -36,14 +106,14 @@ public class DocumentParserService {
             
             String text;
             if (filename.toLowerCase().endsWith(".docx")) {
-                text = extractFromDocx(file.getInputStream());
+                text = extractFromDocx(content);
             } else if (filename.toLowerCase().endsWith(".doc")) {
                 // Try regular .doc first, then fall back to HTML if it fails
                 try {
-                    text = extractFromDoc(file.getInputStream());
+                    text = extractFromDoc(new ByteArrayInputStream(content));
                 } catch (Exception e) {
                     log.warn("Failed to read as binary .doc, trying HTML extraction: {}", e.getMessage());
-                    text = extractFromHtmlDoc(file.getInputStream());
+                    text = extractFromHtmlDoc(new ByteArrayInputStream(content));
                 }
             } else {
                 throw new RuntimeException("Unsupported file format. Please upload .doc or .docx file");
@@ -63,10 +133,17 @@ public class DocumentParserService {
     }
     
     /**
-     * Extract text from .docx file
+     * Extract text from .docx file by streaming its main document part
      */
-    private String extractFromDocx(InputStream inputStream) throws Exception {
-        try (XWPFDocument document = new XWPFDocument(inputStream);
+    private String extractFromDocx(byte[] content) throws Exception {
+        StringBuilder text = new StringBuilder();
+        if (DocxTextExtractor.extract(new ByteArrayInputStream(content), text, maxTextChars)) {
+            return text.toString();
+        }
+        
+        // Packages that name their main part differently are read through the document model
+        log.debug("No {} part found, falling back to XWPFWordExtractor", DocxTextExtractor.MAIN_DOCUMENT_PART);
+        try (XWPFDocument document = new XWPFDocument(new ByteArrayInputStream(content));
              XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
             return extractor.getText();
         }
@@ -85,7 +162,7 @@ public class DocumentParserService {
     /**
      * Extract text from HTML-based .doc file (common in older Word versions)
      */
-    private String extractFromHtmlDoc(InputStream inputStream) throws Exception {
+    String extractFromHtmlDoc(InputStream inputStream) throws Exception {
         // Removed unused variable 'text'
         
         try (BufferedReader reader = new BufferedReader(
@@ -135,8 +212,14 @@ public class DocumentParserService {
             return false;
         }
         
-        String filename = file.getOriginalFilename();
-        if (filename == null) {
+        return isValidWordDocument(file.getOriginalFilename(), file.getSize());
+    }
+    
+    /**
+     * Validate if a file name and size describe a valid Word document
+     */
+    public boolean isValidWordDocument(String filename, long size) {
+        if (filename == null || size <= 0) {
             return false;
         }
         
@@ -151,23 +234,27 @@ public class DocumentParserService {
         DocumentSections sections = new DocumentSections();
         
         try {
-            // Extract User Story
-            sections.setUserStory(extractSection(fullText, 
-                new String[]{"User Story", "Description:", "As I want to", "As a", "Story:"},
-                new String[]{"Acceptance Criteria", "Business Rules", "Pre-conditions", "Assumptions"}
-            ));
-            
-            // Extract Acceptance Criteria
-            sections.setAcceptanceCriteria(extractSection(fullText,
-                new String[]{"Acceptance Criteria", "Given", "When", "Then"},
-                new String[]{"Business Rules", "Pre-conditions", "Assumptions", "Technical Notes"}
-            ));
+            // One pass over the text finds the first occurrence of every start marker and
+            // every occurrence of the end markers, for all sections at once
+            SectionMarkers markers = sectionMarkers;
+            int[] firstStart = new int[markers.sections.length];
+            Arrays.fill(firstStart, -1);
+            List<int[]> endMatches = new ArrayList<>();
+            markers.matcher.match(fullText, (markerIndex, start) -> {
+                for (int s = 0; s < markers.sections.length; s++) {
+                    SectionDefinition section = markers.sections[s];
+                    if (section.isStart[markerIndex] && (firstStart[s] == -1 || start < firstStart[s])) {
+                        firstStart[s] = start;
+                    }
+                }
+                if (markers.isEndMarker[markerIndex]) {
+                    endMatches.add(new int[]{markerIndex, start});
+                }
+            });
             
-            // Extract Business Rules
-            sections.setBusinessRules(extractSection(fullText,
-                new String[]{"Business Rules", "BR001", "BR002", "Business Rule"},
-                new String[]{"Technical Notes", "Wireframe", "Pre-conditions", "Assumptions"}
-            ));
+            sections.setUserStory(extractSection(fullText, markers.sections[0], firstStart[0], endMatches));
+            sections.setAcceptanceCriteria(extractSection(fullText, markers.sections[1], firstStart[1], endMatches));
+            sections.setBusinessRules(extractSection(fullText, markers.sections[2], firstStart[2], endMatches));
             
             log.info("Extracted sections - User Story: {} chars, AC: {} chars, BR: {} chars",
                     sections.getUserStory().length(),
@@ -183,38 +270,26 @@ public class DocumentParserService {
     }
     
     /**
-     * Extract a specific section from text based on start and end markers
+     * Cut a section from the text: from its earliest start marker up to the earliest end marker after it
      */
-    private String extractSection(String text, String[] startMarkers, String[] endMarkers) {
-        String lowerText = text.toLowerCase();
-        
-        // Find the earliest start position
-        int startPos = -1;
-        for (String marker : startMarkers) {
-            int pos = lowerText.indexOf(marker.toLowerCase());
-            if (pos != -1 && (startPos == -1 || pos < startPos)) {
-                startPos = pos;
-            }
-        }
-        
+    private String extractSection(String text, SectionDefinition definition, int startPos, List<int[]> endMatches) {
         if (startPos == -1) {
             return "";
         }
         
         // Find the earliest end position after start
         int endPos = text.length();
-        for (String marker : endMarkers) {
-            int pos = lowerText.indexOf(marker.toLowerCase(), startPos + 1);
-            if (pos != -1 && pos < endPos) {
-                endPos = pos;
+        for (int[] match : endMatches) {
+            if (definition.isEnd[match[0]] && match[1] > startPos && match[1] < endPos) {
+                endPos = match[1];
             }
         }
         
         String section = text.substring(startPos, endPos).trim();
         
         // Clean up section - remove the header line itself if it's just a label
-        for (String marker : startMarkers) {
-            if (section.toLowerCase().startsWith(marker.toLowerCase())) {
+        for (String marker : definition.startMarkers) {
+            if (section.regionMatches(true, 0, marker, 0, marker.length())) {
                 section = section.substring(marker.length()).trim();
                 if (section.startsWith(":")) {
                     section = section.substring(1).trim();
@@ -226,6 +301,79 @@ public class DocumentParserService {
         return section.trim();
     }
     
+    /**
+     * Build the marker matcher for the three sections, in the order user story, acceptance criteria, business rules
+     */
+    static SectionMarkers buildSectionMarkers(String[][] startMarkers, String[][] endMarkers) {
+        Map<String, Integer> markerIndexes = new LinkedHashMap<>();
+        for (String[][] markerSets : new String[][][]{startMarkers, endMarkers}) {
+            for (String[] markerSet : markerSets) {
+                for (String marker : markerSet) {
+                    markerIndexes.putIfAbsent(marker.strip().toLowerCase(), markerIndexes.size());
+                }
+            }
+        }
+        
+        SectionMarkerMatcher matcher = SectionMarkerMatcher.of(new ArrayList<>(markerIndexes.keySet()));
+        boolean[] isEndMarker = new boolean[markerIndexes.size()];
+        SectionDefinition[] sections = new SectionDefinition[startMarkers.length];
+        for (int s = 0; s < sections.length; s++) {
+            boolean[] isStart = new boolean[markerIndexes.size()];
+            boolean[] isEnd = new boolean[markerIndexes.size()];
+            List<String> starts = new ArrayList<>();
+            for (String marker : startMarkers[s]) {
+                isStart[markerIndexes.get(marker.strip().toLowerCase())] = true;
+                starts.add(marker.strip());
+            }
+            for (String marker : endMarkers[s]) {
+                int index = markerIndexes.get(marker.strip().toLowerCase());
+                isEnd[index] = true;
+                isEndMarker[index] = true;
+            }
+            sections[s] = new SectionDefinition(starts.toArray(new String[0]), isStart, isEnd);
+        }
+        return new SectionMarkers(matcher, sections, isEndMarker);
+    }
+    
+    private static String[] markersOrDefault(String[] configured, String[] defaults) {
+        List<String> markers = new ArrayList<>();
+        if (configured != null) {
+            for (String marker : configured) {
+                if (marker != null && !marker.isBlank()) {
+                    markers.add(marker);
+                }
+            }
+        }
+        return markers.isEmpty() ? defaults : markers.toArray(new String[0]);
+    }
+    
+    /**
+     * Start and end markers of one section, as flags indexed by marker
+     */
+    private static final class SectionDefinition {
+        private final String[] startMarkers;
+        private final boolean[] isStart;
+        private final boolean[] isEnd;
+        
+        SectionDefinition(String[] startMarkers, boolean[] isStart, boolean[] isEnd) {
+            this.startMarkers = startMarkers;
+            this.isStart = isStart;
+            this.isEnd = isEnd;
+        }
+    }
+    
+    static final class SectionMarkers {
+        private final SectionMarkerMatcher matcher;
+        private final SectionDefinition[] sections;
+        private final boolean[] isEndMarker;
+        
+        SectionMarkers(SectionMarkerMatcher matcher, SectionDefinition[] sections, boolean[] isEndMarker) {
+            this.matcher = matcher;
+            this.sections = sections;
+            this.isEndMarker = isEndMarker;
+        }
+    }
+    
     /**
      * Inner class to hold extracted document sections
      */
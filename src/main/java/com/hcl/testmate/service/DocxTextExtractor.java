@@ -0,0 +1,241 @@
+package com.hcl.testmate.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.util.XMLHelper;
+
+/**
+ * Event-based text extraction for .docx files.
+ * Reads word/document.xml straight out of the OOXML package with a StAX parser and writes
+ * paragraph and table text to the output as each paragraph or table cell completes, so no
+ * document model is built and the parse holds at most one paragraph or table cell in memory.
+ * Table cells are separated by tabs and rows by new lines, like XWPFWordExtractor.
+ * Headers, footers and embedded objects are not read.
+ */
+public final class DocxTextExtractor {
+
+    static final String MAIN_DOCUMENT_PART = "word/document.xml";
+
+    private static final String WORDPROCESSING_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String MARKUP_COMPATIBILITY_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+    private final Appendable out;
+    private final long maxChars;
+    private long charCount;
+    // Open paragraphs (text boxes nest paragraphs inside runs) and open table cells
+    private final Deque<StringBuilder> paragraphs = new ArrayDeque<>();
+    private final Deque<StringBuilder> cells = new ArrayDeque<>();
+    // Number of cells already written for each open table row
+    private final Deque<int[]> rowCellCounts = new ArrayDeque<>();
+    private int paragraphPropertiesDepth;
+    private boolean inText;
+
+    private DocxTextExtractor(Appendable out, long maxChars) {
+        this.out = out;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Stream the text of a .docx package to the output.
+     *
+     * @param maxChars maximum number of characters to extract, 0 for no limit
+     * @return false when the package has no word/document.xml part, in which case nothing was written
+     * @throws IOException when the package cannot be read or its text exceeds maxChars
+     */
+    public static boolean extract(InputStream docx, Appendable out, long maxChars) throws IOException {
+        ZipInputStream zip = new ZipInputStream(docx);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (MAIN_DOCUMENT_PART.equals(entry.getName())) {
+                new DocxTextExtractor(out, maxChars).parse(new EntryInputStream(zip));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parse(InputStream documentXml) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(documentXml);
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (MARKUP_COMPATIBILITY_NS.equals(reader.getNamespaceURI())
+                                && "Fallback".equals(reader.getLocalName())) {
+                            // The fallback repeats the content of its AlternateContent choice
+                            skipElement(reader);
+                        } else if (WORDPROCESSING_NS.equals(reader.getNamespaceURI())) {
+                            startElement(reader.getLocalName());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (WORDPROCESSING_NS.equals(reader.getNamespaceURI())) {
+                            endElement(reader.getLocalName());
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (inText) {
+                            appendToParagraph(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed " + MAIN_DOCUMENT_PART + ": " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing left to release
+                }
+            }
+        }
+    }
+
+    private void startElement(String name) throws IOException {
+        switch (name) {
+            case "p":
+                paragraphs.push(new StringBuilder());
+                break;
+            case "pPr":
+                paragraphPropertiesDepth++;
+                break;
+            case "t":
+                inText = true;
+                break;
+            case "tab":
+                // Tab stops in the paragraph properties are not text
+                if (paragraphPropertiesDepth == 0) {
+                    appendToParagraph('\t');
+                }
+                break;
+            case "br":
+            case "cr":
+                appendToParagraph('\n');
+                break;
+            case "tr":
+                rowCellCounts.push(new int[1]);
+                break;
+            case "tc":
+                cells.push(new StringBuilder());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void endElement(String name) throws IOException {
+        switch (name) {
+            case "p":
+                StringBuilder paragraph = paragraphs.pop();
+                write(paragraph);
+                write("\n");
+                break;
+            case "pPr":
+                paragraphPropertiesDepth--;
+                break;
+            case "t":
+                inText = false;
+                break;
+            case "tc":
+                StringBuilder cell = cells.pop();
+                int[] rowCells = rowCellCounts.peek();
+                if (rowCells != null && rowCells[0]++ > 0) {
+                    write("\t");
+                }
+                // The line break after the cell's last paragraph is replaced by the cell separator
+                int length = cell.length();
+                if (length > 0 && cell.charAt(length - 1) == '\n') {
+                    cell.setLength(length - 1);
+                }
+                write(cell);
+                break;
+            case "tr":
+                rowCellCounts.pop();
+                write("\n");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void appendToParagraph(char c) throws IOException {
+        StringBuilder paragraph = paragraphs.peek();
+        if (paragraph != null) {
+            count(1);
+            paragraph.append(c);
+        }
+    }
+
+    private void appendToParagraph(char[] chars, int start, int length) throws IOException {
+        StringBuilder paragraph = paragraphs.peek();
+        if (paragraph != null) {
+            count(length);
+            paragraph.append(chars, start, length);
+        }
+    }
+
+    private void count(int chars) throws IOException {
+        charCount += chars;
+        if (maxChars > 0 && charCount > maxChars) {
+            throw new IOException("Document text exceeds the limit of " + maxChars + " characters");
+        }
+    }
+
+    /**
+     * Write completed text to the enclosing table cell, or to the output when outside a table
+     */
+    private void write(CharSequence text) throws IOException {
+        StringBuilder cell = cells.peek();
+        if (cell != null) {
+            cell.append(text);
+        } else {
+            out.append(text);
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the current zip entry; the parser must not close the zip stream itself
+     */
+    private static final class EntryInputStream extends FilterInputStream {
+        EntryInputStream(ZipInputStream zip) {
+            super(zip);
+        }
+
+        @Override
+        public void close() {
+            // The caller owns the package stream
+        }
+    }
+}
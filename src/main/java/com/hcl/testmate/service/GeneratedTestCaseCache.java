@@ -0,0 +1,225 @@
+package com.hcl.testmate.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.TestCase;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * In-memory cache of generated test case responses.
+ * Entries are keyed by JIRA key plus a hash of the story, acceptance criteria and business rules,
+ * so an edited story never gets the old result. The cache is bounded by entry count and estimated
+ * heap weight (least recently used entries go first) and entries expire after a TTL.
+ * All access is serialised on the instance - lookups are cheap compared to a generation.
+ */
+@Component
+public class GeneratedTestCaseCache {
+    private static final Logger log = LoggerFactory.getLogger(GeneratedTestCaseCache.class);
+
+    // Rough per-object overhead used when estimating entry weight
+    private static final long OBJECT_OVERHEAD_BYTES = 64;
+
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final long ttlMillis;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalWeight = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    public GeneratedTestCaseCache(@Value("${testmate.cache.max-entries:500}") int maxEntries,
+                                  @Value("${testmate.cache.max-weight-mb:64}") long maxWeightMb,
+                                  @Value("${testmate.cache.ttl-minutes:720}") long ttlMinutes) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeightBytes = Math.max(1, maxWeightMb) * 1024 * 1024;
+        this.ttlMillis = ttlMinutes * 60_000L;
+    }
+
+    /**
+     * Build the cache key for a story - JIRA key plus SHA-256 of the story content
+     */
+    public String key(String jiraKey, JiraStoryRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{request.getUserStory(), request.getAcceptanceCriteria(), request.getBusinessRules()}) {
+                byte[] bytes = part != null ? part.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                // Length prefix keeps ("ab","c") and ("a","bc") apart
+                digest.update(ByteBuffer.allocate(4).putInt(part != null ? bytes.length : -1).array());
+                digest.update(bytes);
+            }
+            StringBuilder key = new StringBuilder(jiraKey != null ? jiraKey : "").append('#');
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public synchronized Optional<TestCaseResponse> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            removeEntry(key);
+            expirations++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.response);
+    }
+
+    public synchronized void put(String key, String jiraKey, TestCaseResponse response) {
+        Entry entry = new Entry(jiraKey, response, estimateWeight(response), System.currentTimeMillis());
+        if (entry.weight > maxWeightBytes) {
+            log.debug("Not caching test cases for {} - entry weight {} exceeds the cache limit", jiraKey, entry.weight);
+            return;
+        }
+        removeEntry(key);
+        entries.put(key, entry);
+        totalWeight += entry.weight;
+        evictIfNeeded();
+    }
+
+    /**
+     * Remove every entry cached for a JIRA key, whatever story content it was generated from
+     * @return number of entries removed
+     */
+    public synchronized int invalidate(String jiraKey) {
+        int removed = 0;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (jiraKey.equals(entry.jiraKey)) {
+                totalWeight -= entry.weight;
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Snapshot of cache size and hit/miss/eviction counters
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Set<String> jiraKeys = new LinkedHashSet<>();
+        entries.values().forEach(entry -> jiraKeys.add(entry.jiraKey));
+        long lookups = hits + misses;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedStories", jiraKeys.size());
+        stats.put("cachedKeys", new ArrayList<>(jiraKeys));
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("weightBytes", totalWeight);
+        stats.put("maxWeightBytes", maxWeightBytes);
+        stats.put("ttlMinutes", ttlMillis / 60_000L);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups > 0 ? (double) hits / lookups : 0.0);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        return stats;
+    }
+
+    private void evictIfNeeded() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || totalWeight > maxWeightBytes)) {
+            Entry entry = it.next();
+            totalWeight -= entry.weight;
+            it.remove();
+            if (isExpired(entry, now)) {
+                expirations++;
+            } else {
+                evictions++;
+            }
+        }
+    }
+
+    private void removeEntry(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMillis > 0 && now - entry.createdAt > ttlMillis;
+    }
+
+    /**
+     * Approximate retained heap of a response - two bytes per char plus object overhead
+     */
+    private long estimateWeight(TestCaseResponse response) {
+        long chars = length(response.getCsvContent()) + length(response.getMessage());
+        long objects = 1;
+        if (response.getTestCases() != null) {
+            for (TestCase testCase : response.getTestCases()) {
+                chars += length(testCase.getTestCaseId()) + length(testCase.getTestScenario())
+                        + length(testCase.getToValidate()) + length(testCase.getPreconditions())
+                        + length(testCase.getTestSteps()) + length(testCase.getExpectedResult())
+                        + length(testCase.getPriority()) + length(testCase.getTestType());
+                objects += 9;
+            }
+        }
+        if (response.getExtractedContent() != null) {
+            chars += length(response.getExtractedContent().getUserStory())
+                    + length(response.getExtractedContent().getAcceptanceCriteria())
+                    + length(response.getExtractedContent().getBusinessRules());
+            objects += 4;
+        }
+        return chars * 2 + objects * OBJECT_OVERHEAD_BYTES;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static class Entry {
+        private final String jiraKey;
+        private final TestCaseResponse response;
+        private final long weight;
+        private final long createdAt;
+
+        Entry(String jiraKey, TestCaseResponse response, long weight, long createdAt) {
+            this.jiraKey = jiraKey;
+            this.response = response;
+            this.weight = weight;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -2,18 +2,32 @@ package com.hcl.testmate.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hcl.testmate.config.HclCafeAiConfig;
+import com.hcl.testmate.model.AiChatResult;
+import com.hcl.testmate.model.AiRequestOptions;
 import com.hcl.testmate.model.HclCafeAiModels.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for interacting with HCL Cafe AI API
@@ -22,15 +36,25 @@ import java.util.List;
 
 public class HclCafeAiService {
     private static final Logger log = LoggerFactory.getLogger(HclCafeAiService.class);
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
     private final HclCafeAiConfig config;
     private final ObjectMapper objectMapper;
+    private final AiResponseCache responseCache;
+    private final TokenUsageService tokenUsageService;
+    // Single shared client so connections (HTTP/2 where the server negotiates it) are reused across requests
     private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
             .connectTimeout(Duration.ofSeconds(30))
             .build();
+    private final Map<String, AiRequestLimiter> limiters = new ConcurrentHashMap<>();
 
-    public HclCafeAiService(HclCafeAiConfig config, ObjectMapper objectMapper) {
+    public HclCafeAiService(HclCafeAiConfig config, ObjectMapper objectMapper, AiResponseCache responseCache,
+                            TokenUsageService tokenUsageService) {
         this.config = config;
         this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.tokenUsageService = tokenUsageService;
     }
     
     /**
@@ -44,6 +68,319 @@ public class HclCafeAiService {
      * Send a chat request with system message
      */
     public String sendChatRequest(String userMessage, String systemMessage) throws Exception {
+        return sendChatRequest(userMessage, systemMessage, AiRequestOptions.defaults());
+    }
+    
+    /**
+     * Send a chat request with system message and per-call options
+     */
+    public String sendChatRequest(String userMessage, String systemMessage, AiRequestOptions options) throws Exception {
+        return await(sendChatRequestAsync(userMessage, systemMessage, options));
+    }
+    
+    /**
+     * Send a chat request without blocking the calling thread
+     */
+    public CompletableFuture<String> sendChatRequestAsync(String userMessage, String systemMessage) {
+        return sendChatRequestAsync(userMessage, systemMessage, AiRequestOptions.defaults());
+    }
+    
+    /**
+     * Send a chat request without blocking the calling thread
+     */
+    public CompletableFuture<String> sendChatRequestAsync(String userMessage, String systemMessage, AiRequestOptions options) {
+        return sendChatCompletionAsync(userMessage, systemMessage, options).thenApply(AiChatResult::getContent);
+    }
+    
+    /**
+     * Send a chat request and return the completion together with its token usage
+     */
+    public AiChatResult sendChatCompletion(String userMessage, String systemMessage, AiRequestOptions options) throws Exception {
+        return await(sendChatCompletionAsync(userMessage, systemMessage, options));
+    }
+    
+    /**
+     * Send a chat request without blocking the calling thread, returning content and token usage.
+     * Identical requests are answered from the response cache; otherwise the request is checked
+     * against the token budgets and waits for a permit of the deployment's limiter before it is sent.
+     */
+    public CompletableFuture<AiChatResult> sendChatCompletionAsync(String userMessage, String systemMessage, AiRequestOptions options) {
+        byte[] cacheKey = cacheKeyFor(userMessage, systemMessage, options);
+        if (cacheKey != null && shouldServeFromCache(options)) {
+            Optional<String> cached = responseCache.get(cacheKey);
+            if (cached.isPresent()) {
+                log.debug("Serving {} request from AI response cache", options.getOperation());
+                AiChatResult result = AiChatResult.cached(cached.get());
+                tokenUsageService.record(options, result);
+                return CompletableFuture.completedFuture(result);
+            }
+        }
+        
+        int promptTokens = estimatePromptTokens(userMessage, systemMessage);
+        String requestBody;
+        Integer maxTokens;
+        try {
+            maxTokens = tokenUsageService.checkBudget(options, promptTokens, config.getMaxTokens());
+            requestBody = objectMapper.writeValueAsString(buildChatRequest(userMessage, systemMessage, null, maxTokens));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        log.debug("Sending request to HCL Cafe AI: {}", requestBody);
+        
+        // A completion cut short by a lowered max_tokens must not be cached under the full request's key
+        byte[] storeKey = Objects.equals(maxTokens, config.getMaxTokens()) ? cacheKey : null;
+        HttpRequest request = buildHttpRequest(requestBody, Duration.ofSeconds(config.getRequestTimeoutSeconds()));
+        AiRequestLimiter limiter = getLimiter();
+        
+        return limiter.acquire()
+                .thenCompose(permit -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, error) -> limiter.release()))
+                .thenApply(response -> parseChatResponse(response, promptTokens))
+                .thenApply(result -> {
+                    tokenUsageService.record(options, result);
+                    if (storeKey != null) {
+                        responseCache.put(storeKey, result.getContent(), options.getOperation());
+                    }
+                    return result;
+                });
+    }
+    
+    private AiChatResult parseChatResponse(HttpResponse<String> response, int estimatedPromptTokens) {
+        log.debug("Received response: {}", response.body());
+        
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("API request failed with status: " + 
+                    response.statusCode() + ", body: " + response.body());
+        }
+        
+        // Parse response
+        ChatResponse chatResponse;
+        try {
+            chatResponse = objectMapper.readValue(response.body(), ChatResponse.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse AI response: " + e.getMessage(), e);
+        }
+        
+        if (chatResponse.getChoices() == null || chatResponse.getChoices().isEmpty()) {
+            throw new RuntimeException("No response from AI");
+        }
+        
+        String content = chatResponse.getChoices().get(0).getMessage().getContent();
+        if (chatResponse.getUsage() != null) {
+            return new AiChatResult(content, chatResponse.getUsage(), false, false);
+        }
+        return new AiChatResult(content, estimateUsage(estimatedPromptTokens, content), false, true);
+    }
+    
+    /**
+     * Send a chat request with stream=true and hand each content delta to the consumer
+     * as soon as its server-sent event arrives.
+     * 
+     * @return the full completion text once the stream has finished
+     */
+    public String streamChatRequest(String userMessage, String systemMessage, Consumer<String> onToken) throws Exception {
+        return streamChatRequest(userMessage, systemMessage, AiRequestOptions.forOperation(AiRequestOptions.Operation.GENERATION), onToken);
+    }
+    
+    /**
+     * Streaming variant with per-call options. A cache hit is replayed to the consumer as a single token.
+     */
+    public String streamChatRequest(String userMessage, String systemMessage, AiRequestOptions options,
+                                    Consumer<String> onToken) throws Exception {
+        return streamChatCompletion(userMessage, systemMessage, options, onToken).getContent();
+    }
+    
+    /**
+     * Streaming variant that also returns token usage. Usage is taken from the final chunk when the
+     * API reports it and estimated from the text length otherwise.
+     */
+    public AiChatResult streamChatCompletion(String userMessage, String systemMessage, AiRequestOptions options,
+                                             Consumer<String> onToken) throws Exception {
+        byte[] cacheKey = cacheKeyFor(userMessage, systemMessage, options);
+        if (cacheKey != null && shouldServeFromCache(options)) {
+            Optional<String> cached = responseCache.get(cacheKey);
+            if (cached.isPresent()) {
+                log.debug("Serving streaming {} request from AI response cache", options.getOperation());
+                onToken.accept(cached.get());
+                AiChatResult result = AiChatResult.cached(cached.get());
+                tokenUsageService.record(options, result);
+                return result;
+            }
+        }
+        
+        int promptTokens = estimatePromptTokens(userMessage, systemMessage);
+        Integer maxTokens = tokenUsageService.checkBudget(options, promptTokens, config.getMaxTokens());
+        byte[] storeKey = Objects.equals(maxTokens, config.getMaxTokens()) ? cacheKey : null;
+        String requestBody = objectMapper.writeValueAsString(buildChatRequest(userMessage, systemMessage, Boolean.TRUE, maxTokens));
+        log.debug("Sending streaming request to HCL Cafe AI: {}", requestBody);
+        
+        // The whole stream may legitimately take longer than a single blocking call,
+        // the connect timeout still guards against an unreachable endpoint
+        AiRequestLimiter limiter = getLimiter();
+        await(limiter.acquire());
+        try {
+            HttpResponse<Stream<String>> response = httpClient.send(buildHttpRequest(requestBody, Duration.ofSeconds(180)),
+                    HttpResponse.BodyHandlers.ofLines());
+            
+            try (Stream<String> lines = response.body()) {
+                if (response.statusCode() != 200) {
+                    String body = lines.collect(Collectors.joining("\n"));
+                    throw new RuntimeException("API request failed with status: " + 
+                            response.statusCode() + ", body: " + body);
+                }
+                AiChatResult result = readChatStream(lines, onToken, promptTokens);
+                tokenUsageService.record(options, result);
+                if (storeKey != null) {
+                    responseCache.put(storeKey, result.getContent(), options.getOperation());
+                }
+                return result;
+            }
+        } finally {
+            limiter.release();
+        }
+    }
+    
+    /**
+     * Read an OpenAI-style server-sent event stream line by line.
+     * Kept separate from the HTTP call so recorded SSE chunks can be replayed through it,
+     * e.g. {@code readChatStream(Files.lines(recording), token -> ...)}.
+     * 
+     * @return the concatenated content of all deltas
+     * @throws IOException if the stream ends before [DONE] or a finish_reason, i.e. the completion was cut off
+     */
+    public String readChatStream(Stream<String> lines, Consumer<String> onToken) throws Exception {
+        return readChatStream(lines, onToken, 0).getContent();
+    }
+    
+    private AiChatResult readChatStream(Stream<String> lines, Consumer<String> onToken, int estimatedPromptTokens) throws Exception {
+        StringBuilder content = new StringBuilder();
+        Usage usage = null;
+        boolean finished = false;
+        Iterator<String> iterator = lines.iterator();
+        
+        while (iterator.hasNext()) {
+            String line = iterator.next();
+            // Blank lines separate events, lines starting with ':' are SSE comments / keep-alives
+            if (line.isEmpty() || line.startsWith(":") || !line.startsWith(SSE_DATA_PREFIX)) {
+                continue;
+            }
+            
+            String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+            if (SSE_DONE.equals(data)) {
+                finished = true;
+                break;
+            }
+            
+            ChatChunk chunk = objectMapper.readValue(data, ChatChunk.class);
+            if (chunk.getUsage() != null) {
+                usage = chunk.getUsage();
+            }
+            if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
+                // Azure sends an initial chunk carrying only prompt filter results
+                continue;
+            }
+            
+            Message delta = chunk.getChoices().get(0).getDelta();
+            if (delta != null && delta.getContent() != null && !delta.getContent().isEmpty()) {
+                content.append(delta.getContent());
+                onToken.accept(delta.getContent());
+            }
+            if (chunk.getChoices().get(0).getFinishReason() != null) {
+                // Usage may still follow in a final chunk, keep reading until [DONE] or the end of the stream
+                finished = true;
+            }
+        }
+        
+        if (!finished) {
+            throw new IOException("AI response stream ended before the completion finished (" + content.length() + " chars received)");
+        }
+        log.debug("Streaming response completed ({} chars)", content.length());
+        if (usage != null) {
+            return new AiChatResult(content.toString(), usage, false, false);
+        }
+        return new AiChatResult(content.toString(), estimateUsage(estimatedPromptTokens, content.toString()), false, true);
+    }
+    
+    /**
+     * Send a simple chat message for Q&A
+     */
+    public String sendChatMessage(String systemPrompt, String userMessage) throws Exception {
+        return sendChatRequest(userMessage, systemPrompt, AiRequestOptions.forOperation(AiRequestOptions.Operation.CHAT));
+    }
+    
+    /**
+     * Permit usage and queue depth per deployment
+     */
+    public List<Map<String, Object>> getClientStatistics() {
+        getLimiter();
+        return limiters.values().stream()
+                .map(AiRequestLimiter::getStatistics)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Token usage per operation, workflow type and user, and budget consumption
+     */
+    public Map<String, Object> getTokenStatistics() {
+        return tokenUsageService.getStatistics();
+    }
+    
+    /**
+     * Hit/miss counters of the persistent response cache
+     */
+    public Map<String, Object> getCacheStatistics() {
+        return responseCache.getStatistics();
+    }
+    
+    private byte[] cacheKeyFor(String userMessage, String systemMessage, AiRequestOptions options) {
+        if (!responseCache.isCacheable(options.getOperation())) {
+            return null;
+        }
+        return responseCache.key(config.getModel(), config.getDeploymentName(), systemMessage, userMessage,
+                config.getTemperature(), config.getMaxTokens());
+    }
+    
+    /**
+     * Fresh output is only meaningful when sampling is non-deterministic
+     */
+    private boolean shouldServeFromCache(AiRequestOptions options) {
+        boolean sampled = config.getTemperature() != null && config.getTemperature() > 0;
+        return !(options.isFreshOutput() && sampled);
+    }
+    
+    private int estimatePromptTokens(String userMessage, String systemMessage) {
+        return TokenUsageService.estimateTokens(systemMessage) + TokenUsageService.estimateTokens(userMessage);
+    }
+    
+    private Usage estimateUsage(int promptTokens, String content) {
+        int completionTokens = TokenUsageService.estimateTokens(content);
+        return new Usage(promptTokens, completionTokens, promptTokens + completionTokens);
+    }
+    
+    private AiRequestLimiter getLimiter() {
+        return limiters.computeIfAbsent(config.getDeploymentName(), deployment -> new AiRequestLimiter(
+                deployment, config.getMaxConcurrentRequests(), config.getMaxQueuedRequests(), config.getQueueTimeoutSeconds()));
+    }
+    
+    /**
+     * Block on an async result, unwrapping the original exception for synchronous callers
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new RuntimeException("Timed out waiting for an AI request permit", cause);
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    private ChatRequest buildChatRequest(String userMessage, String systemMessage, Boolean stream, Integer maxTokens) {
         List<Message> messages = new ArrayList<>();
         
         // Add system message if provided
@@ -60,51 +397,22 @@ public class HclCafeAiService {
                 .content(userMessage)
                 .build());
         
-        // Create request
-        ChatRequest chatRequest = ChatRequest.builder()
+        return ChatRequest.builder()
                 .model(config.getModel())
                 .messages(messages)
-                .maxTokens(config.getMaxTokens())
+                .maxTokens(maxTokens)
                 .temperature(config.getTemperature())
+                .stream(stream)
                 .build();
-        
-        String requestBody = objectMapper.writeValueAsString(chatRequest);
-        log.debug("Sending request to HCL Cafe AI: {}", requestBody);
-        
-        // Build HTTP request
-        HttpRequest request = HttpRequest.newBuilder()
+    }
+    
+    private HttpRequest buildHttpRequest(String requestBody, Duration timeout) {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(config.getEndpointUrl()))
                 .header("Content-Type", "application/json")
                 .header("api-key", config.getApiKey())
                 .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .timeout(Duration.ofSeconds(60))
+                .timeout(timeout)
                 .build();
-        
-        // Send request
-        HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
-        
-        log.debug("Received response: {}", response.body());
-        
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("API request failed with status: " + 
-                    response.statusCode() + ", body: " + response.body());
-        }
-        
-        // Parse response
-        ChatResponse chatResponse = objectMapper.readValue(response.body(), ChatResponse.class);
-        
-        if (chatResponse.getChoices() == null || chatResponse.getChoices().isEmpty()) {
-            throw new RuntimeException("No response from AI");
-        }
-        
-        return chatResponse.getChoices().get(0).getMessage().getContent();
-    }
-    
-    /**
-     * Send a simple chat message for Q&A
-     */
-    public String sendChatMessage(String systemPrompt, String userMessage) throws Exception {
-        return sendChatRequest(userMessage, systemPrompt);
     }
 }
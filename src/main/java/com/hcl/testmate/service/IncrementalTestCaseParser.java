@@ -0,0 +1,122 @@
+package com.hcl.testmate.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental scanner for a streamed AI response that contains a JSON array of test cases.
+ * Tokens are fed as they arrive and every array element is handed to the consumer
+ * as soon as its closing brace is seen, so callers do not have to wait for the full completion.
+ * Not thread-safe - create one parser per stream.
+ */
+public class IncrementalTestCaseParser {
+
+    private enum State { SEARCHING, ARRAY_OPENED, IN_ARRAY, IN_OBJECT, DONE }
+
+    private final Consumer<String> onObject;
+    private final StringBuilder currentObject = new StringBuilder();
+    private State state = State.SEARCHING;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private int emittedCount = 0;
+
+    /**
+     * @param onObject receives the raw JSON text of each completed array element
+     */
+    public IncrementalTestCaseParser(Consumer<String> onObject) {
+        this.onObject = onObject;
+    }
+
+    /**
+     * Feed the next fragment of the AI response
+     */
+    public void feed(CharSequence fragment) {
+        for (int i = 0; i < fragment.length() && state != State.DONE; i++) {
+            accept(fragment.charAt(i));
+        }
+    }
+
+    /**
+     * @return true once the closing bracket of the test case array has been seen
+     */
+    public boolean isComplete() {
+        return state == State.DONE;
+    }
+
+    public int getEmittedCount() {
+        return emittedCount;
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case SEARCHING:
+                // Skip any preamble or code fence until the array starts
+                if (c == '[') {
+                    state = State.ARRAY_OPENED;
+                }
+                break;
+            case ARRAY_OPENED:
+                // Only treat '[' as the start of the test case array if an object follows,
+                // so bracketed text like "[R2CX-123]" in a preamble is ignored
+                if (c == '{') {
+                    state = State.IN_ARRAY;
+                    startObject(c);
+                } else if (c == '[') {
+                    state = State.ARRAY_OPENED;
+                } else if (!Character.isWhitespace(c)) {
+                    state = State.SEARCHING;
+                }
+                break;
+            case IN_ARRAY:
+                if (c == '{') {
+                    startObject(c);
+                } else if (c == ']') {
+                    state = State.DONE;
+                }
+                break;
+            case IN_OBJECT:
+                appendToObject(c);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void startObject(char c) {
+        currentObject.setLength(0);
+        currentObject.append(c);
+        depth = 1;
+        inString = false;
+        escaped = false;
+        state = State.IN_OBJECT;
+    }
+
+    private void appendToObject(char c) {
+        currentObject.append(c);
+
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return;
+        }
+
+        if (c == '"') {
+            inString = true;
+        } else if (c == '{' || c == '[') {
+            depth++;
+        } else if (c == '}' || c == ']') {
+            depth--;
+            if (depth == 0) {
+                emittedCount++;
+                state = State.IN_ARRAY;
+                onObject.accept(currentObject.toString());
+                currentObject.setLength(0);
+            }
+        }
+    }
+}
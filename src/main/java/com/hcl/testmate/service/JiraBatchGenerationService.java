@@ -0,0 +1,244 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.model.JiraBatchResult;
+import com.hcl.testmate.model.JiraCredentials;
+import com.hcl.testmate.model.JiraStory;
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * Fetches JIRA stories and generates their test cases concurrently.
+ * JIRA fetches and AI generation have separate concurrency limits, a failure of one story
+ * never affects the others, and results are always returned in input order.
+ */
+@Service
+public class JiraBatchGenerationService {
+    private static final Logger log = LoggerFactory.getLogger(JiraBatchGenerationService.class);
+
+    private final JiraService jiraService;
+    private final TestCaseGeneratorService testCaseGeneratorService;
+    private final JiraStoryConverter storyConverter;
+    private final Executor batchExecutor;
+    private final Semaphore jiraPermits;
+    private final Semaphore aiPermits;
+
+    public JiraBatchGenerationService(JiraService jiraService, TestCaseGeneratorService testCaseGeneratorService,
+                                      JiraStoryConverter storyConverter,
+                                      @Qualifier("batchExecutor") Executor batchExecutor,
+                                      @Value("${testmate.batch.jira-concurrency:4}") int jiraConcurrency,
+                                      @Value("${testmate.batch.ai-concurrency:3}") int aiConcurrency) {
+        this.jiraService = jiraService;
+        this.testCaseGeneratorService = testCaseGeneratorService;
+        this.storyConverter = storyConverter;
+        this.batchExecutor = batchExecutor;
+        this.jiraPermits = new Semaphore(Math.max(1, jiraConcurrency), true);
+        this.aiPermits = new Semaphore(Math.max(1, aiConcurrency), true);
+    }
+
+    /**
+     * Generate test cases for every issue key and wait for all of them
+     */
+    public List<JiraBatchResult> generate(JiraCredentials credentials, List<String> issueKeys) {
+        return generate(credentials, issueKeys, result -> {});
+    }
+
+    /**
+     * Generate test cases for every issue key and wait for all of them.
+     * Each result is handed to the consumer as soon as it and every result before it are done,
+     * so the consumer always sees input order. The consumer is called from batch worker threads,
+     * one call at a time.
+     */
+    public List<JiraBatchResult> generate(JiraCredentials credentials, List<String> issueKeys,
+                                          Consumer<JiraBatchResult> onResult) {
+        OrderedEmitter emitter = new OrderedEmitter(issueKeys.size(), onResult, true);
+        submit(credentials, issueKeys, emitter).completion().join();
+        return emitter.getResults();
+    }
+
+    /**
+     * Generate test cases for every issue key without collecting the results, for exports that
+     * write each story out as it completes. Results reach the consumer in input order, as with generate;
+     * a result is only held until it has been consumed. The consumer is called outside any lock, so a
+     * consumer that blocks holds back only the worker handing results over, not the rest of the batch.
+     *
+     * @return handle to wait for the batch or cancel the stories that have not been generated yet
+     */
+    public BatchRun stream(JiraCredentials credentials, List<String> issueKeys,
+                           Consumer<JiraBatchResult> onResult) {
+        return submit(credentials, issueKeys, new OrderedEmitter(issueKeys.size(), onResult, false));
+    }
+
+    private BatchRun submit(JiraCredentials credentials, List<String> issueKeys, OrderedEmitter emitter) {
+        log.info("Batch generating test cases from {} JIRA stories for user: {}",
+                issueKeys.size(), credentials.getUsername());
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(issueKeys.size());
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        for (int i = 0; i < issueKeys.size(); i++) {
+            final int index = i;
+            final String issueKey = issueKeys.get(i);
+            CompletableFuture<Void> task;
+            try {
+                task = CompletableFuture.runAsync(
+                        () -> emitter.complete(index, processStory(credentials, issueKey, cancelled)), batchExecutor);
+            } catch (RejectedExecutionException e) {
+                log.warn("Batch executor is saturated, rejecting JIRA story: {}", issueKey);
+                emitter.complete(index, JiraBatchResult.failure(issueKey, "Server is busy, please retry this story"));
+                task = CompletableFuture.completedFuture(null);
+            }
+            tasks.add(task);
+        }
+
+        return new BatchRun(tasks, cancelled);
+    }
+
+    private JiraBatchResult processStory(JiraCredentials credentials, String issueKey, AtomicBoolean cancelled) {
+        try {
+            JiraStory jiraStory;
+            jiraPermits.acquire();
+            try {
+                log.info("Fetching JIRA story: {} for user: {}", issueKey, credentials.getUsername());
+                jiraStory = jiraService.fetchStory(
+                    credentials.getJiraUrl(),
+                    credentials.getUsername(),
+                    credentials.getApiToken(),
+                    issueKey
+                );
+            } finally {
+                jiraPermits.release();
+            }
+
+            if (cancelled.get()) {
+                return JiraBatchResult.failure(issueKey, "Batch was cancelled");
+            }
+            JiraStoryRequest storyRequest = storyConverter.toRequest(jiraStory, credentials.getUsername());
+
+            TestCaseResponse response;
+            aiPermits.acquire();
+            try {
+                response = testCaseGeneratorService.generateTestCases(storyRequest);
+            } finally {
+                aiPermits.release();
+            }
+
+            storyConverter.applyStoryDetails(response, issueKey, jiraStory, storyRequest);
+            return JiraBatchResult.success(issueKey, response);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return JiraBatchResult.failure(issueKey, "Batch processing was interrupted");
+        } catch (Exception e) {
+            log.error("Error processing JIRA story: {}", issueKey, e);
+            return JiraBatchResult.failure(issueKey, e.getMessage());
+        }
+    }
+
+    /**
+     * A running batch: wait for it, or cancel it when nobody needs its results any more
+     */
+    public static final class BatchRun {
+        private final List<CompletableFuture<Void>> tasks;
+        private final AtomicBoolean cancelled;
+        private final CompletableFuture<Void> completion;
+
+        private BatchRun(List<CompletableFuture<Void>> tasks, AtomicBoolean cancelled) {
+            this.tasks = tasks;
+            this.cancelled = cancelled;
+            this.completion = CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+        }
+
+        /**
+         * Completes once every story has been handed to the consumer (exceptionally after a cancel)
+         */
+        public CompletableFuture<Void> completion() {
+            return completion;
+        }
+
+        public boolean isDone() {
+            return completion.isDone();
+        }
+
+        /**
+         * Drop stories still waiting for a worker; stories being fetched skip their AI generation
+         */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                long dropped = tasks.stream().filter(task -> task.cancel(false)).count();
+                if (dropped > 0) {
+                    log.info("Cancelled batch, {} of {} stories were not started", dropped, tasks.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects results by position and releases them to the consumer in input order.
+     * Without retainResults, a slot is cleared once its result has been emitted.
+     * The consumer runs outside the lock: the thread that finds the next result ready emits it and
+     * every result that became ready behind it, while other workers just deposit their result and return.
+     */
+    private static class OrderedEmitter {
+        private final JiraBatchResult[] results;
+        private final Consumer<JiraBatchResult> onResult;
+        private final boolean retainResults;
+        private int nextToEmit = 0;
+        private boolean emitting = false;
+
+        OrderedEmitter(int size, Consumer<JiraBatchResult> onResult, boolean retainResults) {
+            this.results = new JiraBatchResult[size];
+            this.onResult = onResult;
+            this.retainResults = retainResults;
+        }
+
+        void complete(int index, JiraBatchResult result) {
+            synchronized (this) {
+                results[index] = result;
+                if (emitting) {
+                    // The emitting thread picks this result up when its turn comes
+                    return;
+                }
+                emitting = true;
+            }
+            while (true) {
+                JiraBatchResult next;
+                synchronized (this) {
+                    if (nextToEmit >= results.length || results[nextToEmit] == null) {
+                        emitting = false;
+                        return;
+                    }
+                    next = results[nextToEmit];
+                    if (!retainResults) {
+                        results[nextToEmit] = null;
+                    }
+                    nextToEmit++;
+                }
+                try {
+                    onResult.accept(next);
+                } catch (Exception e) {
+                    log.warn("Batch result consumer failed for {}: {}", next.getIssueKey(), e.getMessage());
+                }
+            }
+        }
+
+        synchronized List<JiraBatchResult> getResults() {
+            return new ArrayList<>(Arrays.asList(results));
+        }
+    }
+}
@@ -1,39 +1,191 @@
 package com.hcl.testmate.service;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+
 /**
- * Factory service to create JIRA REST clients with user-specific credentials.
- * Each user can provide their own JIRA URL, username, and API token.
+ * Owns the HTTP clients used for all JIRA traffic: one long-lived client per JIRA host, so
+ * connections (and TLS sessions) are kept alive and reused across requests and users instead of
+ * being set up for every call. Clients prefer HTTP/2 and fall back to HTTP/1.1, share one bounded
+ * executor, and every request gets a read timeout. Credentials are not part of the client - each
+ * request carries the caller's own Authorization header.
  */
 @Service
 public class JiraClientFactory {
 
     private static final Logger log = LoggerFactory.getLogger(JiraClientFactory.class);
-    
-    // Cache for HTTP-based connections (simplified approach)
-    private final Map<String, String> connectionCache = new ConcurrentHashMap<>();
 
-    public String createClient(String jiraUrl, String username, String password) {
-        String key = username + "@" + jiraUrl;
-        log.info("Creating JIRA client with URI: {} for user: {}", jiraUrl, username);
-        
-        // Simple validation approach - store credentials for HTTP client usage
-        connectionCache.put(key, jiraUrl);
-        return key;
+    private static final String USER_AGENT = "TestMate-JIRA-Client/1.0";
+
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+
+    public JiraClientFactory(@Value("${jira.http.connect-timeout-seconds:10}") long connectTimeoutSeconds,
+                             @Value("${jira.http.request-timeout-seconds:30}") long requestTimeoutSeconds,
+                             @Value("${jira.http.executor-threads:8}") int executorThreads) {
+        this.connectTimeout = Duration.ofSeconds(Math.max(1, connectTimeoutSeconds));
+        this.requestTimeout = Duration.ofSeconds(Math.max(1, requestTimeoutSeconds));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "jira-http-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(Math.max(1, executorThreads), threadFactory);
+    }
+
+    /**
+     * Start a GET request to a JIRA URL with the standard headers and the request timeout
+     */
+    public HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("User-Agent", USER_AGENT)
+                .GET();
+    }
+
+    /**
+     * Send a request on the pooled client of its host and record it in the host's metrics
+     */
+    public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        PooledClient pooled = clientFor(request.uri());
+        long started = System.nanoTime();
+        pooled.inFlight.incrementAndGet();
+        try {
+            HttpResponse<String> response = pooled.client.send(request, HttpResponse.BodyHandlers.ofString());
+            pooled.record(response, System.nanoTime() - started);
+            return response;
+        } catch (HttpTimeoutException e) {
+            pooled.timeouts.incrementAndGet();
+            throw e;
+        } catch (IOException e) {
+            pooled.failures.incrementAndGet();
+            throw e;
+        } finally {
+            pooled.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Send a request asynchronously on the pooled client of its host; the response is completed on the shared executor
+     */
+    public CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        PooledClient pooled = clientFor(request.uri());
+        long started = System.nanoTime();
+        pooled.inFlight.incrementAndGet();
+        return pooled.client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    pooled.inFlight.decrementAndGet();
+                    if (response != null) {
+                        pooled.record(response, System.nanoTime() - started);
+                    } else if (error instanceof HttpTimeoutException || error != null && error.getCause() instanceof HttpTimeoutException) {
+                        pooled.timeouts.incrementAndGet();
+                    } else {
+                        pooled.failures.incrementAndGet();
+                    }
+                });
+    }
+
+    /**
+     * Request counts, latency and negotiated protocol per JIRA host
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectTimeoutSeconds", connectTimeout.toSeconds());
+        stats.put("requestTimeoutSeconds", requestTimeout.toSeconds());
+        Map<String, Object> hosts = new LinkedHashMap<>();
+        clients.forEach((host, pooled) -> hosts.put(host, pooled.snapshot()));
+        stats.put("hosts", hosts);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.clear();
+        executor.shutdownNow();
     }
 
-    public boolean isValidConnection(String connectionKey) {
-        return connectionCache.containsKey(connectionKey);
+    private PooledClient clientFor(URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "https";
+        int port = uri.getPort() != -1 ? uri.getPort() : ("http".equals(scheme) ? 80 : 443);
+        String host = scheme + "://" + (uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "") + ":" + port;
+        return clients.computeIfAbsent(host, key -> {
+            log.info("Creating pooled JIRA HTTP client for {}", key);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .executor(executor)
+                    .build();
+            return new PooledClient(client, System.currentTimeMillis());
+        });
     }
 
-    public String getJiraUrl(String connectionKey) {
-        return connectionCache.get(connectionKey);
+    private static class PooledClient {
+        private final HttpClient client;
+        private final long createdAt;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong http2Responses = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+        private final Map<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+
+        PooledClient(HttpClient client, long createdAt) {
+            this.client = client;
+            this.createdAt = createdAt;
+        }
+
+        void record(HttpResponse<?> response, long latencyNanos) {
+            requests.incrementAndGet();
+            totalLatencyNanos.addAndGet(latencyNanos);
+            if (response.version() == HttpClient.Version.HTTP_2) {
+                http2Responses.incrementAndGet();
+            }
+            statusCounts.computeIfAbsent(response.statusCode(), status -> new AtomicLong()).incrementAndGet();
+        }
+
+        Map<String, Object> snapshot() {
+            long completed = requests.get();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("createdAt", createdAt);
+            snapshot.put("inFlight", inFlight.get());
+            snapshot.put("requests", completed);
+            snapshot.put("http2Responses", http2Responses.get());
+            snapshot.put("failures", failures.get());
+            snapshot.put("timeouts", timeouts.get());
+            snapshot.put("averageLatencyMs", completed > 0 ? totalLatencyNanos.get() / completed / 1_000_000.0 : 0.0);
+            Map<Integer, Long> statuses = new LinkedHashMap<>();
+            statusCounts.forEach((status, count) -> statuses.put(status, count.get()));
+            snapshot.put("statusCounts", statuses);
+            return snapshot;
+        }
     }
 }
@@ -0,0 +1,192 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers, per JIRA base URL, which REST API variant works for each kind of call.
+ * JIRA servers differ in which of /rest/api/2, /rest/api/3 and /rest/api/latest they serve (and
+ * whether issues can only be read through search), so instead of trying the variants in the same
+ * order on every call, the variant that last succeeded is tried first. The default order is tried
+ * again once the re-probe interval has passed, so a server upgrade is noticed.
+ */
+@Component
+public class JiraEndpointRegistry {
+    private static final Logger log = LoggerFactory.getLogger(JiraEndpointRegistry.class);
+
+    /**
+     * Kind of JIRA call, each with its own default order of variants
+     */
+    public enum Capability {
+        ISSUE(Variant.API_2, Variant.API_3, Variant.API_LATEST, Variant.KEY_SEARCH),
+        SEARCH(Variant.API_3, Variant.API_2, Variant.API_LATEST);
+
+        private final List<Variant> defaultOrder;
+
+        Capability(Variant... defaultOrder) {
+            this.defaultOrder = List.of(defaultOrder);
+        }
+
+        public List<Variant> getDefaultOrder() {
+            return defaultOrder;
+        }
+    }
+
+    /**
+     * A REST API version; KEY_SEARCH reads a single issue through a key = X search
+     */
+    public enum Variant {
+        API_2("/rest/api/2"),
+        API_3("/rest/api/3"),
+        API_LATEST("/rest/api/latest"),
+        KEY_SEARCH("/rest/api/2");
+
+        private final String basePath;
+
+        Variant(String basePath) {
+            this.basePath = basePath;
+        }
+
+        public String getBasePath() {
+            return basePath;
+        }
+    }
+
+    private final long reprobeIntervalMillis;
+    private final Map<String, ServerCapabilities> servers = new ConcurrentHashMap<>();
+
+    public JiraEndpointRegistry(@Value("${jira.endpoints.reprobe-minutes:60}") long reprobeMinutes) {
+        this.reprobeIntervalMillis = reprobeMinutes * 60_000L;
+    }
+
+    /**
+     * Variants to try for a call, the one that last worked on this server first.
+     * Returns the default order when nothing is known yet or a re-probe is due.
+     */
+    public List<Variant> order(String jiraUrl, Capability capability) {
+        ServerCapabilities server = servers.get(normalize(jiraUrl));
+        CapabilityState state = server != null ? server.get(capability) : null;
+        if (state == null || state.preferred == null) {
+            return capability.defaultOrder;
+        }
+        synchronized (state) {
+            if (reprobeIntervalMillis > 0 && System.currentTimeMillis() - state.probedAt > reprobeIntervalMillis) {
+                log.debug("Re-probing JIRA {} endpoints of {}", capability, jiraUrl);
+                return capability.defaultOrder;
+            }
+            List<Variant> order = new ArrayList<>(capability.defaultOrder.size());
+            order.add(state.preferred);
+            for (Variant variant : capability.defaultOrder) {
+                if (variant != state.preferred) {
+                    order.add(variant);
+                }
+            }
+            return order;
+        }
+    }
+
+    /**
+     * The variant to use first for a call, without the fallbacks
+     */
+    public Variant preferred(String jiraUrl, Capability capability) {
+        return order(jiraUrl, capability).get(0);
+    }
+
+    public void recordSuccess(String jiraUrl, Capability capability, Variant variant) {
+        CapabilityState state = state(jiraUrl, capability);
+        synchronized (state) {
+            long now = System.currentTimeMillis();
+            if (state.preferred != variant) {
+                log.info("JIRA {} calls to {} now go to {} first", capability, jiraUrl, variant);
+                state.preferred = variant;
+                state.probedAt = now;
+            } else if (state.probedAt == 0 || reprobeIntervalMillis > 0 && now - state.probedAt > reprobeIntervalMillis) {
+                state.probedAt = now;
+            }
+            state.lastSuccessAt = now;
+            state.successes.merge(variant, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Record a variant that did not serve the call (status 0 when the request itself failed)
+     */
+    public void recordFailure(String jiraUrl, Capability capability, Variant variant, int status) {
+        CapabilityState state = state(jiraUrl, capability);
+        synchronized (state) {
+            state.failures.merge(variant, 1L, Long::sum);
+            state.lastFailureStatus.put(variant, status);
+        }
+    }
+
+    /**
+     * Known capabilities per server, for the diagnostics endpoint
+     */
+    public Map<String, Object> getDiagnostics() {
+        Map<String, Object> diagnostics = new LinkedHashMap<>();
+        diagnostics.put("reprobeMinutes", reprobeIntervalMillis / 60_000L);
+        Map<String, Object> serverDiagnostics = new LinkedHashMap<>();
+        servers.forEach((url, server) -> {
+            Map<String, Object> capabilities = new LinkedHashMap<>();
+            server.states.forEach((capability, state) -> capabilities.put(capability.name(), state.snapshot()));
+            serverDiagnostics.put(url, capabilities);
+        });
+        diagnostics.put("servers", serverDiagnostics);
+        return diagnostics;
+    }
+
+    public void clear() {
+        servers.clear();
+    }
+
+    private CapabilityState state(String jiraUrl, Capability capability) {
+        return servers.computeIfAbsent(normalize(jiraUrl), url -> new ServerCapabilities())
+                .states.computeIfAbsent(capability, c -> new CapabilityState());
+    }
+
+    static String normalize(String jiraUrl) {
+        String base = jiraUrl != null ? jiraUrl.trim() : "";
+        while (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        return base.toLowerCase(Locale.ROOT);
+    }
+
+    private static class ServerCapabilities {
+        private final Map<Capability, CapabilityState> states = new ConcurrentHashMap<>();
+
+        CapabilityState get(Capability capability) {
+            return states.get(capability);
+        }
+    }
+
+    private static class CapabilityState {
+        private Variant preferred;
+        private long probedAt;
+        private long lastSuccessAt;
+        private final Map<Variant, Long> successes = new EnumMap<>(Variant.class);
+        private final Map<Variant, Long> failures = new EnumMap<>(Variant.class);
+        private final Map<Variant, Integer> lastFailureStatus = new EnumMap<>(Variant.class);
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("preferred", preferred);
+            snapshot.put("probedAt", probedAt > 0 ? probedAt : null);
+            snapshot.put("lastSuccessAt", lastSuccessAt > 0 ? lastSuccessAt : null);
+            snapshot.put("successes", new EnumMap<>(successes));
+            snapshot.put("failures", new EnumMap<>(failures));
+            snapshot.put("lastFailureStatus", new EnumMap<>(lastFailureStatus));
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hcl.testmate.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hcl.testmate.model.JiraStory;
+
+/**
+ * In-memory cache of parsed JIRA issues, keyed by JIRA base URL and issue key.
+ * Each entry keeps the issue's "updated" timestamp (and the ETag of its last revalidation, when the
+ * server sends one) so JiraService can check with a small fields=updated request whether the issue
+ * changed, and only download and parse the full issue when it did. Entries are never served without
+ * that check, so the caller's credentials are still verified on every fetch.
+ * Bounded by entry count (least recently used entries go first); all access is serialised on the instance.
+ */
+@Component
+public class JiraIssueCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+    private long changed = 0;
+    private long evictions = 0;
+
+    public JiraIssueCache(@Value("${jira.cache.max-entries:1000}") int maxEntries,
+                          @Value("${jira.cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlMillis = ttlMinutes * 60_000L;
+    }
+
+    /**
+     * Normalised cache key: base URL without trailing slashes, lower case, plus the issue key
+     */
+    public static String key(String jiraUrl, String issueKey) {
+        return JiraEndpointRegistry.normalize(jiraUrl) + "|" + issueKey.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The cached entry, or null when the issue is not cached or the entry has expired
+     */
+    public synchronized Entry get(String jiraUrl, String issueKey) {
+        String key = key(jiraUrl, issueKey);
+        Entry entry = entries.get(key);
+        if (entry != null && ttlMillis > 0 && System.currentTimeMillis() - entry.cachedAt > ttlMillis) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+        }
+        return entry;
+    }
+
+    public synchronized void put(String jiraUrl, JiraStory story, String etag) {
+        if (maxEntries == 0 || story.getIssueKey() == null || story.getUpdatedDate() == null) {
+            // Without the updated timestamp the entry could never be revalidated
+            return;
+        }
+        entries.put(key(jiraUrl, story.getIssueKey()), new Entry(story, story.getUpdatedDate(), etag, System.currentTimeMillis()));
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && entries.size() > maxEntries) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Record that a revalidation found the cached entry still current
+     */
+    public synchronized void recordHit(String jiraUrl, Entry entry, String etag) {
+        hits++;
+        if (etag != null && !etag.equals(entry.etag)) {
+            entries.put(key(jiraUrl, entry.story.getIssueKey()), new Entry(entry.story, entry.updated, etag, entry.cachedAt));
+        }
+    }
+
+    /**
+     * Record that a revalidation found the issue changed; the caller fetches and stores it again
+     */
+    public synchronized void recordChanged(String jiraUrl, String issueKey) {
+        changed++;
+        entries.remove(key(jiraUrl, issueKey));
+    }
+
+    /**
+     * Drop an issue from the cache, for every JIRA base URL it was cached under
+     * @return number of entries removed
+     */
+    public synchronized int invalidate(String issueKey) {
+        String suffix = "|" + issueKey.toUpperCase(Locale.ROOT);
+        int removed = 0;
+        Iterator<String> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().endsWith(suffix)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Snapshot of cache size and revalidation counters
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        long lookups = hits + changed + misses;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMinutes", ttlMillis / 60_000L);
+        stats.put("notModified", hits);
+        stats.put("changed", changed);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups > 0 ? (double) hits / lookups : 0.0);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    /**
+     * A cached issue with the timestamp and ETag used to revalidate it
+     */
+    public static final class Entry {
+        private final JiraStory story;
+        private final String updated;
+        private final String etag;
+        private final long cachedAt;
+
+        Entry(JiraStory story, String updated, String etag, long cachedAt) {
+            this.story = story;
+            this.updated = updated;
+            this.etag = etag;
+            this.cachedAt = cachedAt;
+        }
+
+        public JiraStory getStory() { return story; }
+        public String getUpdated() { return updated; }
+        public String getEtag() { return etag; }
+    }
+}
@@ -1,37 +1,76 @@
 package com.hcl.testmate.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hcl.testmate.model.JiraStory;
+import com.hcl.testmate.service.JiraEndpointRegistry.Capability;
+import com.hcl.testmate.service.JiraEndpointRegistry.Variant;
 
 @Service
 public class JiraService {
     private static final Logger log = LoggerFactory.getLogger(JiraService.class);
     private final JiraClientFactory jiraClientFactory;
+    private final JiraIssueCache issueCache;
+    private final JiraEndpointRegistry endpointRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public JiraService(JiraClientFactory jiraClientFactory) {
+    /**
+     * Issue fields read by parseJiraStoryFromJsonNode; searches ask for these instead of every field
+     */
+    static final String STORY_FIELDS = "summary,description,updated,issuetype,status,priority,reporter,assignee,project";
+
+    @Value("${jira.search.page-size:100}")
+    private int searchPageSize = 100;
+
+    @Value("${jira.search.parallel-pages:4}")
+    private int searchParallelPages = 4;
+
+    @Value("${jira.search.max-results:5000}")
+    private int searchMaxResults = 5000;
+
+    @Value("${jira.search.batch-size:50}")
+    private int searchBatchSize = 50;
+
+    public JiraService(JiraClientFactory jiraClientFactory, JiraIssueCache issueCache,
+                       JiraEndpointRegistry endpointRegistry) {
         this.jiraClientFactory = jiraClientFactory;
+        this.issueCache = issueCache;
+        this.endpointRegistry = endpointRegistry;
     }
 
     /**
-     * Fetch a JIRA story using user-provided credentials
+     * Fetch a JIRA story using user-provided credentials.
+     * A story fetched before is only downloaded and parsed again when its "updated" timestamp changed.
      */
     public JiraStory fetchStory(String jiraUrl, String username, String apiToken, String issueKey) {
         // Validate issue key format
@@ -49,33 +88,45 @@ public class JiraService {
             
             // Use HTTP client approach with multiple fallback strategies
             String auth = Base64.getEncoder().encodeToString((username + ":" + apiToken).getBytes(StandardCharsets.UTF_8));
-            HttpClient client = HttpClient.newHttpClient();
             
-            // Try multiple API endpoints in order of preference
-            String[] apiEndpoints = {
-                "/rest/api/2/issue/" + cleanIssueKey,     // Standard API v2
-                "/rest/api/3/issue/" + cleanIssueKey,     // API v3 (newer)
-                "/rest/api/latest/issue/" + cleanIssueKey // Latest available
-            };
+            JiraIssueCache.Entry cached = issueCache.get(jiraUrl, cleanIssueKey);
+            if (cached != null) {
+                JiraStory current = revalidate(jiraUrl, auth, cleanIssueKey, cached);
+                if (current != null) {
+                    return current;
+                }
+            }
+            
+            // Try the API variants, the one that last worked on this server first
+            List<Variant> variants = endpointRegistry.order(jiraUrl, Capability.ISSUE);
             
             JiraStory result = null;
             String lastError = null;
             
-            for (String endpoint : apiEndpoints) {
+            for (Variant variant : variants) {
+                if (variant == Variant.KEY_SEARCH) {
+                    log.info("Attempting search API for issue: {}", cleanIssueKey);
+                    result = fetchViaSearchApi(jiraUrl, auth, cleanIssueKey);
+                    if (result != null) {
+                        endpointRegistry.recordSuccess(jiraUrl, Capability.ISSUE, variant);
+                        break;
+                    }
+                    endpointRegistry.recordFailure(jiraUrl, Capability.ISSUE, variant, 0);
+                    continue;
+                }
+                
+                String endpoint = variant.getBasePath() + "/issue/" + cleanIssueKey;
                 String apiUrl = jiraUrl + endpoint;
                 log.info("Attempting JIRA API call to: {}", apiUrl);
                 
+                int status = 0;
                 try {
-                    HttpRequest request = HttpRequest.newBuilder()
-                            .uri(URI.create(apiUrl))
+                    HttpRequest request = jiraClientFactory.newRequest(apiUrl)
                             .header("Authorization", "Basic " + auth)
-                            .header("Content-Type", "application/json")
-                            .header("Accept", "application/json")
-                            .header("User-Agent", "TestMate-JIRA-Client/1.0")
-                            .GET()
                             .build();
                             
-                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    HttpResponse<String> response = jiraClientFactory.send(request);
+                    status = response.statusCode();
                     
                     log.info("JIRA API Response - Endpoint: {}, Status: {}, Content-Length: {}", 
                         endpoint, response.statusCode(), 
@@ -84,8 +135,11 @@ public class JiraService {
                     if (response.statusCode() == 200) {
                         log.info("Successfully fetched JIRA issue: {} using endpoint: {}", cleanIssueKey, endpoint);
                         result = parseJiraStoryFromJson(response.body());
+                        endpointRegistry.recordSuccess(jiraUrl, Capability.ISSUE, variant);
                         break; // Success, exit loop
-                    } else if (response.statusCode() == 404) {
+                    }
+                    endpointRegistry.recordFailure(jiraUrl, Capability.ISSUE, variant, response.statusCode());
+                    if (response.statusCode() == 404) {
                         log.warn("JIRA issue not found via endpoint: {} - trying next endpoint", endpoint);
                         lastError = "Issue not found via endpoint: " + endpoint;
                     } else if (response.statusCode() == 401) {
@@ -99,18 +153,16 @@ public class JiraService {
                         lastError = "API error " + response.statusCode() + " via endpoint: " + endpoint;
                     }
                 } catch (Exception e) {
+                    if (status == 0) {
+                        endpointRegistry.recordFailure(jiraUrl, Capability.ISSUE, variant, 0);
+                    }
                     log.warn("Failed to connect to endpoint: {} - {}", endpoint, e.getMessage());
                     lastError = "Connection failed to endpoint: " + endpoint + " - " + e.getMessage();
                 }
             }
             
-            // If direct API calls failed, try search API as last resort
-            if (result == null) {
-                log.info("Direct API calls failed, attempting search API for issue: {}", cleanIssueKey);
-                result = fetchViaSearchApi(jiraUrl, auth, cleanIssueKey, client);
-            }
-            
             if (result != null) {
+                issueCache.put(jiraUrl, result, null);
                 return result;
             }
             
@@ -124,7 +176,7 @@ public class JiraService {
                 "5. Contact your JIRA admin to enable API access for this project\n" +
                 "\nLast error: " + lastError +
                 "\nBrowser URL works: " + jiraUrl + "/browse/" + cleanIssueKey +
-                "\nAPI endpoints tested: " + String.join(", ", apiEndpoints));
+                "\nAPI endpoints tested: " + variants);
         } catch (Exception e) {
             log.error("Failed to fetch JIRA story: {}", cleanIssueKey, e);
             if (e instanceof InterruptedException) {
@@ -134,29 +186,223 @@ public class JiraService {
         }
     }
 
+    /**
+     * Check whether a cached issue is still current with a request for its "updated" field only.
+     * Sends the ETag of the previous check as If-None-Match, so servers that support it can answer 304.
+     *
+     * @return the cached story if it is unchanged, null if the issue has to be fetched again
+     */
+    private JiraStory revalidate(String jiraUrl, String auth, String issueKey,
+                                 JiraIssueCache.Entry cached) throws InterruptedException {
+        try {
+            HttpRequest.Builder builder = jiraClientFactory
+                    .newRequest(jiraUrl + revalidationBasePath(jiraUrl) + "/issue/" + issueKey + "?fields=updated")
+                    .header("Authorization", "Basic " + auth);
+            if (cached.getEtag() != null) {
+                builder.header("If-None-Match", cached.getEtag());
+            }
+            
+            HttpResponse<String> response = jiraClientFactory.send(builder.build());
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            
+            if (response.statusCode() == 304) {
+                log.info("JIRA issue {} not modified, using cached story", issueKey);
+                issueCache.recordHit(jiraUrl, cached, etag);
+                return cached.getStory();
+            }
+            if (response.statusCode() == 200) {
+                String updated = getTextValue(objectMapper.readTree(response.body()).path("fields"), "updated");
+                if (cached.getUpdated().equals(updated)) {
+                    log.info("JIRA issue {} unchanged since {}, using cached story", issueKey, updated);
+                    issueCache.recordHit(jiraUrl, cached, etag);
+                    return cached.getStory();
+                }
+                log.info("JIRA issue {} changed ({} -> {}), fetching it again", issueKey, cached.getUpdated(), updated);
+                issueCache.recordChanged(jiraUrl, issueKey);
+                return null;
+            }
+            log.debug("Revalidation of JIRA issue {} returned status {}, fetching it again", issueKey, response.statusCode());
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.debug("Revalidation of JIRA issue {} failed: {}", issueKey, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * API path for revalidation: the issue API that last worked on this server (v2 if issues are only readable by search)
+     */
+    private String revalidationBasePath(String jiraUrl) {
+        for (Variant variant : endpointRegistry.order(jiraUrl, Capability.ISSUE)) {
+            if (variant != Variant.KEY_SEARCH) {
+                return variant.getBasePath();
+            }
+        }
+        return Variant.API_2.getBasePath();
+    }
+
+    /**
+     * Which REST API variant works on each known JIRA server
+     */
+    public Map<String, Object> getEndpointDiagnostics() {
+        return endpointRegistry.getDiagnostics();
+    }
+
+    /**
+     * Request counts and latency of the pooled JIRA HTTP clients
+     */
+    public Map<String, Object> getHttpClientStatistics() {
+        return jiraClientFactory.getStatistics();
+    }
+
+    /**
+     * Statistics of the parsed issue cache
+     */
+    public Map<String, Object> getIssueCacheStatistics() {
+        return issueCache.getStatistics();
+    }
+
     /**
      * Fetch multiple JIRA stories using user-provided credentials
      */
     public List<JiraStory> fetchMultipleStories(String jiraUrl, String username, String apiToken, List<String> issueKeys) {
-        List<JiraStory> stories = new ArrayList<>();
-        
+        return new ArrayList<>(fetchStoriesByKeys(jiraUrl, username, apiToken, issueKeys).values());
+    }
+
+    /**
+     * Fetch several issues with as few requests as possible: keys are looked up in batches of
+     * jira.search.batch-size with one "key in (...)" search each, the batches running concurrently.
+     * Only keys a search did not return (moved issues, search not available) are fetched one by one.
+     * Searched stories go into the issue cache, so later single fetches only revalidate them.
+     *
+     * @return stories by issue key in request order; keys that could not be fetched are left out
+     */
+    private Map<String, JiraStory> fetchStoriesByKeys(String jiraUrl, String username, String apiToken,
+                                                      List<String> issueKeys) {
+        Set<String> keys = new LinkedHashSet<>();
         for (String issueKey : issueKeys) {
+            if (issueKey != null && !issueKey.trim().isEmpty()) {
+                keys.add(issueKey.trim().toUpperCase());
+            }
+        }
+        
+        Map<String, JiraStory> found = new ConcurrentHashMap<>();
+        List<String> searchable = keys.stream().filter(key -> key.matches("^[A-Z0-9]+-\\d+$")).toList();
+        if (!searchable.isEmpty()) {
+            String auth = Base64.getEncoder().encodeToString((username + ":" + apiToken).getBytes(StandardCharsets.UTF_8));
             try {
-                stories.add(fetchStory(jiraUrl, username, apiToken, issueKey));
+                searchByKeys(jiraUrl, auth, searchable, found);
             } catch (Exception e) {
-                log.error("Failed to fetch story: {}", issueKey, e);
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while fetching JIRA issues", e);
+                }
+                log.warn("Bulk search for {} issues failed, fetching them one by one: {}", searchable.size(), e.getMessage());
             }
         }
         
+        Map<String, JiraStory> stories = new LinkedHashMap<>();
+        int fallbacks = 0;
+        for (String key : keys) {
+            JiraStory story = found.get(key);
+            if (story == null) {
+                fallbacks++;
+                try {
+                    story = fetchStory(jiraUrl, username, apiToken, key);
+                } catch (Exception e) {
+                    log.error("Failed to fetch story: {}", key, e);
+                    continue;
+                }
+            }
+            stories.put(key, story);
+        }
+        log.info("Fetched {} of {} issues, {} of them one by one", stories.size(), keys.size(), fallbacks);
         return stories;
     }
 
+    /**
+     * Look issue keys up with "key in (...)" searches of at most jira.search.batch-size keys. The first batch
+     * finds the working search endpoint, the others are then sent concurrently (at most jira.search.parallel-pages
+     * in flight). A failed batch is only logged: its keys stay missing and are fetched one by one by the caller.
+     */
+    private void searchByKeys(String jiraUrl, String auth, List<String> keys, Map<String, JiraStory> found)
+            throws InterruptedException {
+        int batchSize = Math.max(1, searchBatchSize);
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += batchSize) {
+            batches.add(keys.subList(i, Math.min(i + batchSize, keys.size())));
+        }
+        
+        // validateQuery=warn: a key that does not exist (or is not visible) must not fail the whole batch
+        SearchPage first = searchFirstPage(jiraUrl, auth, keysJql(batches.get(0)), batches.get(0).size(), "&validateQuery=warn");
+        collectIssues(jiraUrl, parseSearchPage(first.result), found);
+        
+        Semaphore permits = new Semaphore(Math.max(1, searchParallelPages));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batches.size() - 1);
+        try {
+            for (List<String> batch : batches.subList(1, batches.size())) {
+                permits.acquire();
+                String encodedJql = java.net.URLEncoder.encode(keysJql(batch), StandardCharsets.UTF_8);
+                HttpRequest request = jiraClientFactory
+                        .newRequest(jiraUrl + searchEndpoint(first.variant, encodedJql, 0, batch.size()) + "&validateQuery=warn")
+                        .header("Authorization", "Basic " + auth)
+                        .build();
+                
+                futures.add(jiraClientFactory.sendAsync(request)
+                        .thenAccept(response -> {
+                            if (response.statusCode() == 200) {
+                                collectIssues(jiraUrl, parseSearchPage(response.body()), found);
+                            } else {
+                                log.warn("Bulk search for {} issues failed with status {}", batch.size(), response.statusCode());
+                            }
+                        })
+                        .exceptionally(error -> {
+                            log.warn("Bulk search for {} issues failed: {}", batch.size(), error.getMessage());
+                            return null;
+                        })
+                        .whenComplete((ignored, error) -> permits.release()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private static String keysJql(List<String> keys) {
+        return "key in (" + String.join(", ", keys) + ")";
+    }
+
+    private void collectIssues(String jiraUrl, List<JiraStory> stories, Map<String, JiraStory> found) {
+        for (JiraStory story : stories) {
+            if (story.getIssueKey() != null) {
+                found.put(story.getIssueKey().toUpperCase(), story);
+                issueCache.put(jiraUrl, story, null);
+            }
+        }
+    }
+
     /**
      * Fetch stories from JIRA projects or specific issue keys using JQL search
      */
     public List<JiraStory> fetchStoriesByProjects(String jiraUrl, String username, String apiToken, List<String> projectKeys) {
         List<JiraStory> stories = new ArrayList<>();
-        
+        streamStoriesByProjects(jiraUrl, username, apiToken, projectKeys, stories::add);
+        log.info("Total stories fetched: {}", stories.size());
+        return stories;
+    }
+
+    /**
+     * Fetch stories from JIRA projects or specific issue keys, handing each story to the callback as soon as
+     * its search page has arrived. Project searches are paginated: after the first page the remaining pages
+     * are fetched in parallel, and stories are still delivered in JQL order. The callback is always called on
+     * the calling thread; an exception thrown by it aborts the remaining pages.
+     *
+     * @return number of stories delivered
+     */
+    public int streamStoriesByProjects(String jiraUrl, String username, String apiToken, List<String> projectKeys,
+                                       Consumer<JiraStory> onStory) {
         try {
             log.info("Fetching stories from projects/issues: {} for user: {}", projectKeys, username);
             
@@ -176,122 +422,30 @@ public class JiraService {
             }
             
             log.info("Detected {} issue keys and {} project keys", issueKeys.size(), projects.size());
+            int delivered = 0;
             
             // Fetch specific issues if issue keys were provided
             if (!issueKeys.isEmpty()) {
-                for (String issueKey : issueKeys) {
-                    try {
-                        JiraStory story = fetchStory(jiraUrl, username, apiToken, issueKey);
-                        stories.add(story);
-                        log.info("Fetched specific issue: {}", issueKey);
-                    } catch (Exception e) {
-                        log.error("Failed to fetch issue: {}", issueKey, e);
-                    }
+                for (JiraStory story : fetchStoriesByKeys(jiraUrl, username, apiToken, issueKeys).values()) {
+                    onStory.accept(story);
+                    delivered++;
                 }
             }
             
             // Fetch stories from projects if project keys were provided
             if (!projects.isEmpty()) {
                 String auth = Base64.getEncoder().encodeToString((username + ":" + apiToken).getBytes(StandardCharsets.UTF_8));
-                HttpClient client = HttpClient.newHttpClient();
                 
-                // Build JQL query for projects - use issuetype instead of type
                 String projectsJql = projects.stream()
                     .map(key -> "project = " + key.trim())
                     .reduce((a, b) -> a + " OR " + b)
                     .orElse("");
                 
-                // Try without issue type filter first, then with it
-                String[] jqlVariants = {
-                    projectsJql + " ORDER BY created DESC",  // No issue type filter
-                    projectsJql + " AND issuetype = Story ORDER BY created DESC",  // With Story filter
-                    projectsJql + " AND type in (Story, Task, Bug) ORDER BY created DESC"  // Multiple types
-                };
-                
-                for (String jql : jqlVariants) {
-                    String encodedJql = java.net.URLEncoder.encode(jql, StandardCharsets.UTF_8);
-                
-                    // Try multiple API endpoints
-                    String[] apiEndpoints = {
-                        "/rest/api/3/search?jql=" + encodedJql + "&maxResults=50",     // API v3 (newer)
-                        "/rest/api/2/search?jql=" + encodedJql + "&maxResults=50",     // API v2
-                        "/rest/api/latest/search?jql=" + encodedJql + "&maxResults=50" // Latest
-                    };
-                    
-                    String lastError = null;
-                    
-                    for (String endpoint : apiEndpoints) {
-                        String searchUrl = jiraUrl + endpoint;
-                        log.info("Attempting JIRA search API: {}", searchUrl);
-                        log.info("JQL query: {}", jql);
-                        
-                        try {
-                            HttpRequest request = HttpRequest.newBuilder()
-                                    .uri(URI.create(searchUrl))
-                                    .header("Authorization", "Basic " + auth)
-                                    .header("Content-Type", "application/json")
-                                    .header("Accept", "application/json")
-                                    .header("User-Agent", "TestMate-JIRA-Client/1.0")
-                                    .GET()
-                                    .build();
-                                    
-                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                            
-                            log.info("JQL search response - Endpoint: {}, Status: {}", endpoint, response.statusCode());
-                            
-                            if (response.statusCode() == 200) {
-                                JsonNode searchResult = objectMapper.readTree(response.body());
-                                JsonNode issues = searchResult.path("issues");
-                                
-                                if (issues.isArray()) {
-                                    for (JsonNode issue : issues) {
-                                        try {
-                                            JiraStory story = parseJiraStoryFromJsonNode(issue);
-                                            stories.add(story);
-                                        } catch (Exception e) {
-                                            log.error("Failed to parse JIRA story: {}", e.getMessage());
-                                        }
-                                    }
-                                    log.info("Successfully fetched {} issues from projects: {} using endpoint: {} with JQL: {}", stories.size(), projects, endpoint, jql);
-                                    
-                                    // Success - return immediately
-                                    if (!stories.isEmpty()) {
-                                        log.info("Total stories fetched: {}", stories.size());
-                                        return stories;
-                                    }
-                                }
-                            } else if (response.statusCode() == 401) {
-                                throw new RuntimeException("Authentication failed. Please verify your credentials.");
-                            } else if (response.statusCode() == 400) {
-                                log.warn("Invalid JQL query via endpoint: {} - Response: {}", endpoint, response.body());
-                                lastError = "Invalid JQL: " + jql;
-                            } else if (response.statusCode() == 410) {
-                                log.warn("API endpoint deprecated: {} - trying next endpoint", endpoint);
-                                lastError = "API deprecated: " + endpoint;
-                            } else {
-                                log.warn("Failed via endpoint: {} - Status: {}, Response: {}", endpoint, response.statusCode(), response.body());
-                                lastError = "Status " + response.statusCode() + ": " + endpoint;
-                            }
-                        } catch (Exception e) {
-                            log.warn("Failed to connect to endpoint: {} - {}", endpoint, e.getMessage());
-                            lastError = "Connection failed: " + e.getMessage();
-                        }
-                    }
-                }
-                
-                // If we got here and have issue keys results, that's OK
-                if (!issueKeys.isEmpty() && !stories.isEmpty()) {
-                    log.info("Fetched {} stories from issue keys", stories.size());
-                    return stories;
-                }
-                
-                // No success with any variant
-                throw new RuntimeException("Unable to fetch stories from project(s) " + projects + 
-                    ". The JIRA search API may not be available or the project keys may be incorrect. " +
-                    "Try using specific issue keys (e.g., R2CX-1234) instead.");
+                delivered += searchStories(jiraUrl, auth, projectsJql + " ORDER BY created DESC", onStory);
+                log.info("Fetched {} stories from projects: {}", delivered, projects);
             }
             
-            log.info("Total stories fetched: {}", stories.size());
+            return delivered;
             
         } catch (Exception e) {
             log.error("Failed to fetch stories from projects: {}", projectKeys, e);
@@ -300,28 +454,275 @@ public class JiraService {
             }
             throw new RuntimeException("Failed to fetch stories: " + e.getMessage());
         }
+    }
+
+    /**
+     * Run a JQL search using user-provided credentials, handing every matching story to the callback in result order
+     *
+     * @return number of stories delivered
+     */
+    public int searchByJql(String jiraUrl, String username, String apiToken, String jql, Consumer<JiraStory> onStory)
+            throws InterruptedException {
+        String auth = Base64.getEncoder().encodeToString((username + ":" + apiToken).getBytes(StandardCharsets.UTF_8));
+        return searchStories(jiraUrl, auth, jql, onStory);
+    }
+
+    /**
+     * Run a JQL search and deliver every matching story, page by page in result order.
+     * The first page is fetched on the search endpoint that last worked on this server (falling back to the
+     * others); it tells the total, after which the remaining pages are requested from the same endpoint with
+     * at most jira.search.parallel-pages requests in flight.
+     */
+    private int searchStories(String jiraUrl, String auth, String jql, Consumer<JiraStory> onStory)
+            throws InterruptedException {
+        String encodedJql = java.net.URLEncoder.encode(jql, StandardCharsets.UTF_8);
+        SearchPage first = searchFirstPage(jiraUrl, auth, jql, searchPageSize, "");
+        Variant variant = first.variant;
+        JsonNode firstPage = first.result;
+        
+        // The server may cap maxResults below what was asked for, so page by what it actually returned
+        int pageSize = firstPage.path("maxResults").asInt(searchPageSize);
+        if (pageSize <= 0) {
+            pageSize = searchPageSize;
+        }
+        int total = firstPage.path("total").asInt(0);
+        int limit = Math.min(total, searchMaxResults);
+        if (total > searchMaxResults) {
+            log.warn("JQL search matched {} issues, only the first {} are fetched", total, searchMaxResults);
+        }
+        
+        PageSequencer sequencer = new PageSequencer(onStory);
+        sequencer.accept(0, parseSearchPage(firstPage));
+        
+        int pages = limit > pageSize ? (limit + pageSize - 1) / pageSize : 1;
+        if (pages > 1) {
+            log.info("JQL search matched {} issues, fetching {} more pages of {}", total, pages - 1, pageSize);
+            fetchRemainingPages(jiraUrl, auth, variant, encodedJql, pageSize, limit, pages, sequencer);
+        }
+        return sequencer.delivered();
+    }
+
+    /**
+     * Fetch the first page of a JQL search on the search endpoint that last worked on this server,
+     * falling back to the others in turn
+     *
+     * @param options extra query parameters appended to the search URL
+     */
+    private SearchPage searchFirstPage(String jiraUrl, String auth, String jql, int maxResults, String options)
+            throws InterruptedException {
+        String encodedJql = java.net.URLEncoder.encode(jql, StandardCharsets.UTF_8);
+        log.info("JQL query: {}", jql);
+        String lastError = null;
         
+        for (Variant candidate : endpointRegistry.order(jiraUrl, Capability.SEARCH)) {
+            String endpoint = searchEndpoint(candidate, encodedJql, 0, maxResults) + options;
+            log.info("Attempting JIRA search API: {}{}", jiraUrl, endpoint);
+            
+            try {
+                HttpResponse<String> response = jiraClientFactory.send(jiraClientFactory.newRequest(jiraUrl + endpoint)
+                        .header("Authorization", "Basic " + auth)
+                        .build());
+                
+                log.info("JQL search response - Endpoint: {}, Status: {}", endpoint, response.statusCode());
+                
+                if (response.statusCode() == 200) {
+                    endpointRegistry.recordSuccess(jiraUrl, Capability.SEARCH, candidate);
+                    return new SearchPage(candidate, objectMapper.readTree(response.body()));
+                }
+                endpointRegistry.recordFailure(jiraUrl, Capability.SEARCH, candidate, response.statusCode());
+                
+                if (response.statusCode() == 401) {
+                    throw new RuntimeException("Authentication failed. Please verify your credentials.");
+                } else if (response.statusCode() == 400) {
+                    log.warn("Invalid JQL query via endpoint: {} - Response: {}", endpoint, response.body());
+                    lastError = "Invalid JQL: " + jql;
+                } else if (response.statusCode() == 410) {
+                    log.warn("API endpoint deprecated: {} - trying next endpoint", endpoint);
+                    lastError = "API deprecated: " + endpoint;
+                } else {
+                    log.warn("Failed via endpoint: {} - Status: {}, Response: {}", endpoint, response.statusCode(), response.body());
+                    lastError = "Status " + response.statusCode() + ": " + endpoint;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to connect to endpoint: {} - {}", endpoint, e.getMessage());
+                endpointRegistry.recordFailure(jiraUrl, Capability.SEARCH, candidate, 0);
+                lastError = "Connection failed: " + e.getMessage();
+            }
+        }
+        
+        throw new RuntimeException("Unable to search JIRA (" + lastError + "). " +
+            "The JIRA search API may not be available or the project keys may be incorrect. " +
+            "Try using specific issue keys (e.g., R2CX-1234) instead.");
+    }
+
+    /**
+     * Request pages 1..pages-1 with at most jira.search.parallel-pages in flight. Pages are handed back to the
+     * calling thread through a queue, so the sequencer and the caller's callback never run on the HTTP client's
+     * threads; while all permits are taken the caller delivers arrived pages instead of just waiting.
+     */
+    private void fetchRemainingPages(String jiraUrl, String auth, Variant variant, String encodedJql,
+                                     int pageSize, int limit, int pages, PageSequencer sequencer) throws InterruptedException {
+        Semaphore permits = new Semaphore(Math.max(1, searchParallelPages));
+        BlockingQueue<FetchedPage> arrived = new LinkedBlockingQueue<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(pages - 1);
+        int outstanding = 0;
+        
+        try {
+            for (int page = 1; page < pages; page++) {
+                FetchedPage fetched;
+                while ((fetched = arrived.poll()) != null) {
+                    outstanding--;
+                    sequencer.accept(fetched);
+                }
+                // A permit is released just before its page is queued, so a failed tryAcquire always has a page coming
+                while (!permits.tryAcquire()) {
+                    outstanding--;
+                    sequencer.accept(arrived.take());
+                }
+                
+                int pageIndex = page;
+                int startAt = page * pageSize;
+                String endpoint = searchEndpoint(variant, encodedJql, startAt, Math.min(pageSize, limit - startAt));
+                HttpRequest request = jiraClientFactory.newRequest(jiraUrl + endpoint)
+                        .header("Authorization", "Basic " + auth)
+                        .build();
+                
+                futures.add(jiraClientFactory.sendAsync(request)
+                        .thenApply(response -> {
+                            if (response.statusCode() != 200) {
+                                throw new IllegalStateException("JIRA search page at " + startAt + " failed with status " + response.statusCode());
+                            }
+                            return parseSearchPage(response.body());
+                        })
+                        .handle((stories, error) -> {
+                            permits.release();
+                            arrived.add(new FetchedPage(pageIndex, stories, error));
+                            return null;
+                        }));
+                outstanding++;
+            }
+            while (outstanding > 0) {
+                outstanding--;
+                sequencer.accept(arrived.take());
+            }
+        } finally {
+            // A failed page, a failing callback or an interrupt abandons the pages still in flight
+            if (outstanding > 0) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Search path for one page, asking only for the fields parseJiraStoryFromJsonNode reads
+     */
+    private static String searchEndpoint(Variant variant, String encodedJql, int startAt, int maxResults) {
+        return variant.getBasePath() + "/search?jql=" + encodedJql + "&startAt=" + startAt
+                + "&maxResults=" + maxResults + "&fields=" + STORY_FIELDS;
+    }
+
+    private List<JiraStory> parseSearchPage(String body) {
+        try {
+            return parseSearchPage(objectMapper.readTree(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JIRA search response", e);
+        }
+    }
+
+    private List<JiraStory> parseSearchPage(JsonNode searchResult) {
+        JsonNode issues = searchResult.path("issues");
+        List<JiraStory> stories = new ArrayList<>(issues.size());
+        for (JsonNode issue : issues) {
+            try {
+                stories.add(parseJiraStoryFromJsonNode(issue));
+            } catch (Exception e) {
+                log.error("Failed to parse JIRA story: {}", e.getMessage());
+            }
+        }
         return stories;
     }
 
+    /**
+     * First page of a search together with the endpoint variant that served it
+     */
+    private static class SearchPage {
+        private final Variant variant;
+        private final JsonNode result;
+
+        SearchPage(Variant variant, JsonNode result) {
+            this.variant = variant;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Search page as it came back from JIRA, either its stories or the error that failed it
+     */
+    private static class FetchedPage {
+        private final int page;
+        private final List<JiraStory> stories;
+        private final Throwable error;
+
+        FetchedPage(int page, List<JiraStory> stories, Throwable error) {
+            this.page = page;
+            this.stories = stories;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Hands the stories of search pages to the caller in page order, holding back pages that
+     * arrive before the ones preceding them. Only used from the thread running the search.
+     */
+    private static class PageSequencer {
+        private final Consumer<JiraStory> onStory;
+        private final Map<Integer, List<JiraStory>> pending = new HashMap<>();
+        private int nextPage = 0;
+        private int delivered = 0;
+
+        PageSequencer(Consumer<JiraStory> onStory) {
+            this.onStory = onStory;
+        }
+
+        void accept(FetchedPage fetched) {
+            if (fetched.error != null) {
+                Throwable cause = fetched.error instanceof CompletionException && fetched.error.getCause() != null
+                        ? fetched.error.getCause() : fetched.error;
+                throw new RuntimeException("Failed to fetch JIRA search results: " + cause.getMessage(), cause);
+            }
+            accept(fetched.page, fetched.stories);
+        }
+
+        void accept(int page, List<JiraStory> stories) {
+            pending.put(page, stories);
+            List<JiraStory> next;
+            while ((next = pending.remove(nextPage)) != null) {
+                for (JiraStory story : next) {
+                    onStory.accept(story);
+                    delivered++;
+                }
+                nextPage++;
+            }
+        }
+
+        int delivered() {
+            return delivered;
+        }
+    }
+
     /**
      * Attempt to fetch JIRA issue via search API when direct access fails
      */
-    private JiraStory fetchViaSearchApi(String jiraUrl, String auth, String issueKey, HttpClient client) {
+    private JiraStory fetchViaSearchApi(String jiraUrl, String auth, String issueKey) {
         try {
-            String searchUrl = jiraUrl + "/rest/api/2/search?jql=key=" + issueKey;
+            String searchUrl = jiraUrl + "/rest/api/2/search?jql=key=" + issueKey + "&fields=" + STORY_FIELDS;
             log.info("Attempting search API: {}", searchUrl);
             
-            HttpRequest searchRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(searchUrl))
+            HttpRequest searchRequest = jiraClientFactory.newRequest(searchUrl)
                     .header("Authorization", "Basic " + auth)
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json")
-                    .header("User-Agent", "TestMate-JIRA-Client/1.0")
-                    .GET()
                     .build();
                     
-            HttpResponse<String> searchResponse = client.send(searchRequest, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> searchResponse = jiraClientFactory.send(searchRequest);
             
             log.info("Search API Response - Status: {}", searchResponse.statusCode());
             
@@ -361,9 +762,9 @@ public class JiraService {
     }
     
     /**
-     * Parse JIRA story from JsonNode (shared between direct API and search API)
+     * Parse JIRA story from JsonNode (shared between direct API, search API and webhook payloads)
      */
-    private JiraStory parseJiraStoryFromJsonNode(JsonNode root) {
+    JiraStory parseJiraStoryFromJsonNode(JsonNode root) {
         JsonNode fields = root.path("fields");
         
         JiraStory story = new JiraStory();
@@ -372,6 +773,7 @@ public class JiraService {
         story.setIssueKey(getTextValue(root, "key"));
         story.setSummary(getTextValue(fields, "summary"));
         story.setDescription(getTextValue(fields, "description"));
+        story.setUpdatedDate(getTextValue(fields, "updated"));
         
         // Nested object fields
         story.setIssueType(getTextValue(fields.path("issuetype"), "name"));
@@ -450,20 +852,12 @@ public class JiraService {
             
             String auth = Base64.getEncoder().encodeToString((username + ":" + apiToken).getBytes(StandardCharsets.UTF_8));
             
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build();
-            
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(jiraUrl + "/rest/api/2/serverInfo"))
+            HttpRequest request = jiraClientFactory.newRequest(jiraUrl + "/rest/api/2/serverInfo")
                     .header("Authorization", "Basic " + auth)
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json")
                     .timeout(Duration.ofSeconds(10))
-                    .GET()
                     .build();
                     
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = jiraClientFactory.send(request);
             
             log.debug("JIRA validation response status: {}, body: {}", response.statusCode(), response.body());
             
@@ -514,7 +908,7 @@ public class JiraService {
         }
     }
 
-    private String extractUserStory(String description) {
+    String extractUserStory(String description) {
         // Extract content between "User Story:" and next section
         Pattern pattern = Pattern.compile("(?i)user story:?\\s*(.+?)(?=acceptance criteria|business rules|assumptions|pre-?conditions|description:|$)", Pattern.DOTALL);
         Matcher matcher = pattern.matcher(description);
@@ -536,7 +930,7 @@ public class JiraService {
         return paragraphs.length > 0 ? paragraphs[0].trim() : description;
     }
 
-    private List<String> extractAcceptanceCriteria(String description) {
+    List<String> extractAcceptanceCriteria(String description) {
         List<String> criteria = new ArrayList<>();
         
         // Look for "Acceptance Criteria:" section
@@ -588,7 +982,7 @@ public class JiraService {
         return criteria;
     }
 
-    private List<String> extractBusinessRules(String description) {
+    List<String> extractBusinessRules(String description) {
         List<String> rules = new ArrayList<>();
         
         // Look for "Business Rules:" section
@@ -0,0 +1,118 @@
+package com.hcl.testmate.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.hcl.testmate.model.JiraStory;
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * Converts fetched JIRA stories into generation requests and decorates the resulting responses
+ */
+@Component
+public class JiraStoryConverter {
+    private static final Logger log = LoggerFactory.getLogger(JiraStoryConverter.class);
+
+    /**
+     * Convert JiraStory to JiraStoryRequest format
+     */
+    public JiraStoryRequest toRequest(JiraStory jiraStory) {
+        return toRequest(jiraStory, null);
+    }
+
+    /**
+     * Convert JiraStory to JiraStoryRequest format on behalf of a JIRA user
+     *
+     * @param requestedBy JIRA username the AI token usage is accounted to, null if unknown
+     */
+    public JiraStoryRequest toRequest(JiraStory jiraStory, String requestedBy) {
+        JiraStoryRequest request = new JiraStoryRequest();
+        
+        // Combine issue key and summary for user story
+        String userStory = String.format("[%s] %s\n\n%s", 
+            jiraStory.getIssueKey(),
+            jiraStory.getSummary(),
+            jiraStory.getUserStory() != null ? jiraStory.getUserStory() : "");
+        
+        request.setUserStory(userStory.trim());
+        request.setRequestedBy(requestedBy);
+        
+        // Join acceptance criteria
+        if (jiraStory.getAcceptanceCriteria() != null && !jiraStory.getAcceptanceCriteria().isEmpty()) {
+            String joinedAC = String.join("\n", jiraStory.getAcceptanceCriteria());
+            log.debug("Converting AC from JIRA: {} items, joined length: {}", 
+                jiraStory.getAcceptanceCriteria().size(), joinedAC.length());
+            request.setAcceptanceCriteria(joinedAC);
+        } else {
+            log.warn("No acceptance criteria found in JIRA story: {}", jiraStory.getIssueKey());
+        }
+        
+        // Join and format business rules with proper numbering
+        if (jiraStory.getBusinessRules() != null && !jiraStory.getBusinessRules().isEmpty()) {
+            String formattedBusinessRules = formatBusinessRulesWithNumbers(jiraStory.getBusinessRules());
+            request.setBusinessRules(formattedBusinessRules);
+        }
+        
+        return request;
+    }
+
+    /**
+     * Add JIRA metadata and the extracted content (for coverage analysis) to a generated response
+     */
+    public void applyStoryDetails(TestCaseResponse response, String issueKey, JiraStory jiraStory,
+                                  JiraStoryRequest storyRequest) {
+        response.setJiraIssueKey(issueKey);
+        response.setJiraProject(jiraStory.getProject());
+        response.setJiraSummary(jiraStory.getSummary());
+        
+        TestCaseResponse.ExtractedContent extractedContent = 
+                TestCaseResponse.ExtractedContent.builder()
+                        .userStory(storyRequest.getUserStory())
+                        .acceptanceCriteria(storyRequest.getAcceptanceCriteria())
+                        .businessRules(storyRequest.getBusinessRules())
+                        .build();
+        response.setExtractedContent(extractedContent);
+    }
+
+    /**
+     * Format business rules from JIRA with proper BR numbering
+     * This ensures consistent formatting while preserving the original content
+     */
+    private String formatBusinessRulesWithNumbers(List<String> businessRules) {
+        StringBuilder formattedRules = new StringBuilder();
+        int ruleNumber = 1;
+        
+        for (String rule : businessRules) {
+            if (rule == null || rule.trim().isEmpty()) {
+                continue;
+            }
+            
+            String cleanRule = rule.trim();
+            
+            // Skip obvious table headers, formatting artifacts, and very short content
+            if (cleanRule.startsWith("|") || cleanRule.toLowerCase().contains("business rule no") 
+                || cleanRule.toLowerCase().contains("description") || cleanRule.equals("---")
+                || cleanRule.matches("^[\\s\\|\\-\\*]+$")
+                || cleanRule.length() < 10) {
+                continue;
+            }
+            
+            // Check if rule already has BR numbering
+            if (!cleanRule.matches(".*\\bBR\\d{3}\\b.*")) {
+                // Add BR numbering if it doesn't exist
+                formattedRules.append("BR").append(String.format("%03d", ruleNumber))
+                             .append(" ").append(cleanRule).append("\n");
+                ruleNumber++;
+            } else {
+                // Rule already has BR numbering, keep as is
+                formattedRules.append(cleanRule).append("\n");
+            }
+        }
+        
+        return formattedRules.toString().trim();
+    }
+}
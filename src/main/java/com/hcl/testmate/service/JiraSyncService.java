@@ -0,0 +1,472 @@
+package com.hcl.testmate.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.model.JiraCredentials;
+import com.hcl.testmate.model.JiraStory;
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * Keeps the generated test cases of registered JIRA projects up to date.
+ * Every sync asks JIRA only for the issues updated since the project's high-water mark, compares the
+ * user story, acceptance criteria and business rules (as sent to the AI service) with the version
+ * seen last, and queues regeneration for the stories whose sections actually changed. The first sync
+ * of a project only records a baseline. Regenerated test cases land in the generated test case cache,
+ * so the next generate request for the story is answered from it.
+ * Registrations, marks and section fingerprints are held in memory only.
+ */
+@Service
+public class JiraSyncService {
+    private static final Logger log = LoggerFactory.getLogger(JiraSyncService.class);
+
+    private static final DateTimeFormatter JIRA_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final int RECENT_REGENERATIONS = 50;
+
+    private final JiraService jiraService;
+    private final JiraStoryConverter storyConverter;
+    private final TestCaseGeneratorService testCaseGeneratorService;
+    private final Executor syncExecutor;
+    private final Map<String, SyncedProject> projects = new ConcurrentHashMap<>();
+    // Stories waiting for regeneration by issue key; a newer version replaces the queued one
+    private final Map<String, QueuedStory> queued = new ConcurrentHashMap<>();
+
+    @Value("${jira.sync.overlap-minutes:2}")
+    private long overlapMinutes;
+
+    public JiraSyncService(JiraService jiraService, JiraStoryConverter storyConverter,
+                           TestCaseGeneratorService testCaseGeneratorService,
+                           @Qualifier("syncExecutor") Executor syncExecutor) {
+        this.jiraService = jiraService;
+        this.storyConverter = storyConverter;
+        this.testCaseGeneratorService = testCaseGeneratorService;
+        this.syncExecutor = syncExecutor;
+    }
+
+    /**
+     * Start syncing projects with the given credentials and record their baseline in the background.
+     * Registering a project again only replaces its credentials.
+     */
+    public List<Map<String, Object>> register(JiraCredentials credentials, List<String> projectKeys) {
+        List<Map<String, Object>> registered = new ArrayList<>();
+        for (String projectKey : projectKeys) {
+            String key = projectKey.trim().toUpperCase(Locale.ROOT);
+            if (!key.matches("^[A-Z][A-Z0-9_]*$")) {
+                throw new IllegalArgumentException("Invalid JIRA project key: '" + projectKey + "'");
+            }
+            SyncedProject project = projects.compute(id(credentials.getJiraUrl(), key), (id, existing) -> {
+                SyncedProject updated = existing != null ? existing : new SyncedProject(credentials.getJiraUrl(), key);
+                updated.credentials = credentials;
+                return updated;
+            });
+            log.info("Registered JIRA project {} of {} for sync", key, credentials.getJiraUrl());
+            if (project.highWaterMark == null) {
+                submitSync(project);
+            }
+            registered.add(project.snapshot());
+        }
+        return registered;
+    }
+
+    /**
+     * Stop syncing a project on every JIRA server it was registered for
+     * @return true if the project was registered
+     */
+    public boolean unregister(String projectKey) {
+        String key = projectKey.trim().toUpperCase(Locale.ROOT);
+        return projects.values().removeIf(project -> project.projectKey.equals(key));
+    }
+
+    /**
+     * Sync every registered project. The searches run on the sync executor, so a slow JIRA server
+     * does not hold up the scheduler thread (webhook flushes, job cleanup).
+     */
+    @Scheduled(initialDelayString = "${jira.sync.interval-ms:300000}", fixedDelayString = "${jira.sync.interval-ms:300000}")
+    public void syncAll() {
+        for (SyncedProject project : projects.values()) {
+            submitSync(project);
+        }
+    }
+
+    /**
+     * High-water mark, counters and the latest regenerations of every registered project
+     */
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (SyncedProject project : projects.values()) {
+            status.add(project.snapshot());
+        }
+        return status;
+    }
+
+    /**
+     * Run a sync of the project on the sync executor unless one is already queued or running
+     */
+    private void submitSync(SyncedProject project) {
+        if (!project.running.compareAndSet(false, true)) {
+            log.debug("Sync of project {} is already running", project.projectKey);
+            return;
+        }
+        try {
+            syncExecutor.execute(() -> {
+                try {
+                    sync(project);
+                } finally {
+                    project.running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            project.running.set(false);
+            log.warn("Sync queue is full, project {} waits for the next scheduled sync", project.projectKey);
+        }
+    }
+
+    private void sync(SyncedProject project) {
+        long started = System.currentTimeMillis();
+        try {
+            // Stories whose regeneration failed or did not fit the queue last time
+            Map<String, QueuedStory> retries;
+            synchronized (project) {
+                retries = new LinkedHashMap<>(project.pending);
+                project.pending.clear();
+            }
+            retries.values().forEach(this::enqueue);
+
+            Instant mark = project.highWaterMark;
+            boolean baseline = mark == null;
+            String jql = "project = " + project.projectKey;
+            if (!baseline) {
+                // Relative dates do not depend on the JIRA user's time zone; the overlap absorbs clock skew
+                // and JQL's minute precision, stories seen twice are unchanged and skipped by the diff
+                long minutes = Math.max(0, (started - mark.toEpochMilli()) / 60_000L) + Math.max(1, overlapMinutes);
+                jql += " AND updated >= -" + minutes + "m";
+            }
+            jql += " ORDER BY updated ASC";
+
+            JiraCredentials credentials = project.credentials;
+            SyncRun run = new SyncRun(mark);
+            int fetched = jiraService.searchByJql(credentials.getJiraUrl(), credentials.getUsername(),
+                    credentials.getApiToken(), jql, story -> compare(project, story, baseline, run));
+
+            synchronized (project) {
+                project.highWaterMark = run.newestUpdate != null ? run.newestUpdate
+                        : (baseline ? Instant.ofEpochMilli(started) : mark);
+                project.lastSyncAt = started;
+                project.lastSyncDurationMs = System.currentTimeMillis() - started;
+                project.lastFetched = fetched;
+                project.lastChanged = run.changed;
+                project.lastError = null;
+            }
+            log.info("Synced JIRA project {}: {} updated stories, {} with changed sections{}",
+                    project.projectKey, fetched, run.changed, baseline ? " (baseline)" : "");
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Sync of JIRA project {} failed: {}", project.projectKey, e.getMessage());
+            synchronized (project) {
+                project.lastSyncAt = started;
+                project.lastError = e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Compare a fetched story with the version seen last and queue it for regeneration if its sections changed
+     */
+    private void compare(SyncedProject project, JiraStory story, boolean baseline, SyncRun run) {
+        if (story.getIssueKey() == null) {
+            return;
+        }
+        run.recordUpdate(story.getUpdatedDate());
+
+        JiraStoryRequest request = storyConverter.toRequest(story, project.credentials.getUsername());
+        SectionFingerprint current = SectionFingerprint.of(request);
+        SectionFingerprint previous = project.fingerprints.get(story.getIssueKey());
+        if (baseline || previous == null) {
+            // Nothing to compare with yet: remember the story; new stories are generated on demand
+            project.fingerprints.put(story.getIssueKey(), current);
+            return;
+        }
+        List<String> changedSections = previous.changedSections(current);
+        if (changedSections.isEmpty()) {
+            return;
+        }
+        run.changed++;
+        log.info("Story {} changed in {}, queueing regeneration", story.getIssueKey(), changedSections);
+        enqueue(new QueuedStory(project, story, request, current, changedSections));
+    }
+
+    /**
+     * Queue background regeneration of a story reported changed from outside a sync, e.g. by a JIRA webhook.
+     * If the story's project is registered for sync its sections are compared with the version seen last
+     * and an unchanged story is skipped; stories of other projects are always regenerated.
+     *
+     * @param jiraUrl base URL of the JIRA server the story comes from, null if unknown
+     * @return true if the story was queued
+     */
+    public boolean submitChangedStory(String jiraUrl, JiraStory story) {
+        String issueKey = story.getIssueKey();
+        if (issueKey == null) {
+            return false;
+        }
+        JiraStoryRequest request = storyConverter.toRequest(story);
+        SectionFingerprint current = SectionFingerprint.of(request);
+        List<String> changedSections = List.of("userStory", "acceptanceCriteria", "businessRules");
+
+        int dash = issueKey.lastIndexOf('-');
+        SyncedProject project = jiraUrl != null && dash > 0 ? projects.get(id(jiraUrl, issueKey.substring(0, dash))) : null;
+        if (project != null) {
+            request.setRequestedBy(project.credentials.getUsername());
+            SectionFingerprint previous = project.fingerprints.get(issueKey);
+            if (previous != null) {
+                changedSections = previous.changedSections(current);
+                if (changedSections.isEmpty()) {
+                    log.debug("Story {} reported changed but its sections are unchanged", issueKey);
+                    return false;
+                }
+            }
+        }
+        return enqueue(new QueuedStory(project, story, request, current, changedSections));
+    }
+
+    private boolean enqueue(QueuedStory story) {
+        String issueKey = story.story.getIssueKey();
+        if (queued.put(issueKey, story) != null) {
+            // Already waiting; the task picks up this newer version
+            return true;
+        }
+        try {
+            syncExecutor.execute(() -> regenerate(issueKey));
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(issueKey, story);
+            if (story.project == null) {
+                log.warn("Regeneration queue is full, dropping regeneration of story {}", issueKey);
+                return false;
+            }
+            log.warn("Regeneration queue is full, story {} is retried on the next sync", issueKey);
+            synchronized (story.project) {
+                story.project.pending.put(issueKey, story);
+            }
+            return false;
+        }
+    }
+
+    private void regenerate(String issueKey) {
+        QueuedStory queuedStory = queued.remove(issueKey);
+        if (queuedStory == null) {
+            return;
+        }
+        SyncedProject project = queuedStory.project;
+        TestCaseResponse response;
+        try {
+            // Drop test cases generated from the previous version of the story
+            testCaseGeneratorService.clearCache(issueKey);
+            response = testCaseGeneratorService.generateTestCasesWithoutCsv(queuedStory.request);
+        } catch (Exception e) {
+            response = null;
+            log.warn("Regeneration of story {} failed: {}", issueKey, e.getMessage());
+        }
+        // Template test cases from an AI outage do not use up the change: the story is retried on the next sync
+        boolean regenerated = response != null && response.isSuccess() && !response.isFallback();
+        if (response != null && response.isFallback()) {
+            log.warn("Regeneration of story {} fell back to template test cases, retrying later", issueKey);
+        }
+        if (project == null) {
+            if (regenerated) {
+                log.info("Regenerated {} test cases for changed story {}", response.getTotalTestCases(), issueKey);
+            }
+            return;
+        }
+
+        synchronized (project) {
+            if (regenerated) {
+                project.fingerprints.put(issueKey, queuedStory.fingerprint);
+                project.regenerated++;
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("issueKey", issueKey);
+                entry.put("changedSections", queuedStory.changedSections);
+                entry.put("testCases", response.getTotalTestCases());
+                entry.put("regeneratedAt", System.currentTimeMillis());
+                project.recentRegenerations.addFirst(entry);
+                while (project.recentRegenerations.size() > RECENT_REGENERATIONS) {
+                    project.recentRegenerations.removeLast();
+                }
+            } else {
+                project.failed++;
+                if (!queued.containsKey(issueKey)) {
+                    // Retried on the next sync unless a newer version is already queued
+                    project.pending.putIfAbsent(issueKey, queuedStory);
+                }
+            }
+        }
+        if (regenerated) {
+            log.info("Regenerated {} test cases for changed story {}", response.getTotalTestCases(), issueKey);
+        }
+    }
+
+    private static String id(String jiraUrl, String projectKey) {
+        return JiraEndpointRegistry.normalize(jiraUrl) + "|" + projectKey;
+    }
+
+    /**
+     * State of one registered project; mutable fields are guarded by the project's monitor
+     */
+    private static class SyncedProject {
+        private final String jiraUrl;
+        private final String projectKey;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final Map<String, SectionFingerprint> fingerprints = new ConcurrentHashMap<>();
+        private final Map<String, QueuedStory> pending = new LinkedHashMap<>();
+        private final Deque<Map<String, Object>> recentRegenerations = new ArrayDeque<>();
+        private volatile JiraCredentials credentials;
+        private volatile Instant highWaterMark;
+        private long lastSyncAt;
+        private long lastSyncDurationMs;
+        private int lastFetched;
+        private int lastChanged;
+        private long regenerated;
+        private long failed;
+        private String lastError;
+
+        SyncedProject(String jiraUrl, String projectKey) {
+            this.jiraUrl = jiraUrl;
+            this.projectKey = projectKey;
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("projectKey", projectKey);
+            snapshot.put("jiraUrl", jiraUrl);
+            snapshot.put("username", credentials != null ? credentials.getUsername() : null);
+            snapshot.put("highWaterMark", highWaterMark != null ? highWaterMark.toString() : null);
+            snapshot.put("running", running.get());
+            snapshot.put("lastSyncAt", lastSyncAt > 0 ? lastSyncAt : null);
+            snapshot.put("lastSyncDurationMs", lastSyncDurationMs);
+            snapshot.put("lastFetched", lastFetched);
+            snapshot.put("lastChanged", lastChanged);
+            snapshot.put("trackedStories", fingerprints.size());
+            snapshot.put("pending", new ArrayList<>(pending.keySet()));
+            snapshot.put("regenerated", regenerated);
+            snapshot.put("failed", failed);
+            snapshot.put("lastError", lastError);
+            snapshot.put("recentRegenerations", new ArrayList<>(recentRegenerations));
+            return snapshot;
+        }
+    }
+
+    /**
+     * Newest "updated" timestamp and number of changed stories seen by one sync
+     */
+    private static class SyncRun {
+        private Instant newestUpdate;
+        private int changed;
+
+        SyncRun(Instant mark) {
+            this.newestUpdate = mark;
+        }
+
+        void recordUpdate(String updated) {
+            if (updated == null) {
+                return;
+            }
+            try {
+                Instant instant = OffsetDateTime.parse(updated, JIRA_TIMESTAMP).toInstant();
+                if (newestUpdate == null || instant.isAfter(newestUpdate)) {
+                    newestUpdate = instant;
+                }
+            } catch (DateTimeParseException e) {
+                log.debug("Ignoring unparseable JIRA timestamp {}", updated);
+            }
+        }
+    }
+
+    private static class QueuedStory {
+        private final SyncedProject project;
+        private final JiraStory story;
+        private final JiraStoryRequest request;
+        private final SectionFingerprint fingerprint;
+        private final List<String> changedSections;
+
+        QueuedStory(SyncedProject project, JiraStory story, JiraStoryRequest request,
+                    SectionFingerprint fingerprint, List<String> changedSections) {
+            this.project = project;
+            this.story = story;
+            this.request = request;
+            this.fingerprint = fingerprint;
+            this.changedSections = changedSections;
+        }
+    }
+
+    /**
+     * SHA-256 of each section of the generation request, so unchanged stories are recognised without keeping their text
+     */
+    private static final class SectionFingerprint {
+        private final String userStory;
+        private final String acceptanceCriteria;
+        private final String businessRules;
+
+        private SectionFingerprint(String userStory, String acceptanceCriteria, String businessRules) {
+            this.userStory = userStory;
+            this.acceptanceCriteria = acceptanceCriteria;
+            this.businessRules = businessRules;
+        }
+
+        static SectionFingerprint of(JiraStoryRequest request) {
+            return new SectionFingerprint(hash(request.getUserStory()), hash(request.getAcceptanceCriteria()),
+                    hash(request.getBusinessRules()));
+        }
+
+        List<String> changedSections(SectionFingerprint current) {
+            List<String> changed = new ArrayList<>(3);
+            if (!userStory.equals(current.userStory)) {
+                changed.add("userStory");
+            }
+            if (!acceptanceCriteria.equals(current.acceptanceCriteria)) {
+                changed.add("acceptanceCriteria");
+            }
+            if (!businessRules.equals(current.businessRules)) {
+                changed.add("businessRules");
+            }
+            return changed;
+        }
+
+        private static String hash(String section) {
+            String text = section != null ? section.trim() : "";
+            try {
+                StringBuilder builder = new StringBuilder(64);
+                for (byte b : MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8))) {
+                    builder.append(String.format("%02x", b));
+                }
+                return builder.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.hcl.testmate.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcl.testmate.model.JiraStory;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Handles JIRA "issue created" and "issue updated" webhooks.
+ * Events are coalesced per issue key: a burst of edits is handled once, after the issue has been quiet
+ * for the coalesce window (or the maximum delay has passed). Handling drops the issue's cached test
+ * cases and parsed issue and, when pre-generation is enabled, queues regeneration from the issue in the
+ * payload so the next interactive request is a cache hit. Updates that touch neither summary nor
+ * description (status, assignee, ...) are ignored, they do not change the generated test cases.
+ * Deliveries must be signed with the shared secret; unsigned deliveries are only accepted when
+ * explicitly allowed, and never trigger pre-generation.
+ */
+@Service
+public class JiraWebhookService {
+    private static final Logger log = LoggerFactory.getLogger(JiraWebhookService.class);
+
+    static final String ISSUE_CREATED = "jira:issue_created";
+    static final String ISSUE_UPDATED = "jira:issue_updated";
+
+    // Issue fields the user story, acceptance criteria and business rules are extracted from
+    private static final Set<String> STORY_SOURCE_FIELDS = Set.of("summary", "description");
+
+    private final JiraService jiraService;
+    private final JiraIssueCache issueCache;
+    private final TestCaseGeneratorService testCaseGeneratorService;
+    private final JiraSyncService syncService;
+    private final ObjectMapper objectMapper;
+    private final Map<String, PendingIssue> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong pregenerations = new AtomicLong();
+
+    @Value("${jira.webhook.secret:}")
+    private String secret;
+
+    @Value("${jira.webhook.allow-unsigned:false}")
+    private boolean allowUnsigned;
+
+    @Value("${jira.webhook.coalesce-ms:5000}")
+    private long coalesceMs;
+
+    @Value("${jira.webhook.max-delay-ms:30000}")
+    private long maxDelayMs;
+
+    @Value("${jira.webhook.pregenerate:false}")
+    private boolean pregenerate;
+
+    public JiraWebhookService(JiraService jiraService, JiraIssueCache issueCache,
+                              TestCaseGeneratorService testCaseGeneratorService, JiraSyncService syncService,
+                              ObjectMapper objectMapper) {
+        this.jiraService = jiraService;
+        this.issueCache = issueCache;
+        this.testCaseGeneratorService = testCaseGeneratorService;
+        this.syncService = syncService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void checkConfiguration() {
+        if (!hasSecret()) {
+            log.warn("jira.webhook.secret is not set: JIRA webhooks are {}{}",
+                    allowUnsigned ? "accepted unsigned (jira.webhook.allow-unsigned=true)" : "rejected",
+                    pregenerate ? ", pre-generation is disabled until a secret is configured" : "");
+        }
+    }
+
+    /**
+     * Accept a webhook delivery
+     *
+     * @param payload raw request body, as signed by JIRA
+     * @param signature X-Hub-Signature header ("sha256=&lt;hex&gt;")
+     * @return outcome of the delivery (status "queued" or "ignored")
+     * @throws SecurityException if the signature is missing or does not match, or no secret is configured
+     *                           and unsigned deliveries are not allowed
+     * @throws IllegalArgumentException if the payload is not a JIRA issue event
+     */
+    public Map<String, Object> accept(String payload, String signature) {
+        verifySignature(payload, signature);
+        received.incrementAndGet();
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Webhook payload is not valid JSON: " + e.getOriginalMessage());
+        }
+        String event = root.path("webhookEvent").asText("");
+        JsonNode issue = root.path("issue");
+        String issueKey = issue.path("key").asText(null);
+
+        if (!ISSUE_CREATED.equals(event) && !ISSUE_UPDATED.equals(event)) {
+            return ignore(event, issueKey, "event not handled");
+        }
+        if (issueKey == null || issueKey.isBlank()) {
+            throw new IllegalArgumentException("Webhook payload has no issue key");
+        }
+        if (ISSUE_UPDATED.equals(event) && !touchesStoryFields(root.path("changelog"))) {
+            return ignore(event, issueKey, "no story fields changed");
+        }
+
+        String key = issueKey.trim().toUpperCase();
+        long now = System.currentTimeMillis();
+        PendingIssue update = new PendingIssue(key, jiraUrlOf(issue), issue, now);
+        pending.merge(key, update, (existing, latest) -> {
+            coalesced.incrementAndGet();
+            return existing.merge(latest);
+        });
+        log.info("Accepted JIRA webhook {} for {}", event, key);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "queued");
+        result.put("event", event);
+        result.put("issueKey", key);
+        return result;
+    }
+
+    /**
+     * Handle the issues whose burst of events is over
+     */
+    @Scheduled(fixedDelayString = "${jira.webhook.flush-interval-ms:1000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (PendingIssue issue : pending.values()) {
+            if (now - issue.lastEventAt >= coalesceMs || now - issue.firstEventAt >= maxDelayMs) {
+                // Only remove the entry this pass looked at; a newer event starts a new burst
+                if (pending.remove(issue.issueKey, issue)) {
+                    handle(issue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counters of received, ignored, coalesced and handled deliveries
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("signatureRequired", hasSecret());
+        stats.put("acceptingUnsigned", !hasSecret() && allowUnsigned);
+        stats.put("pregenerate", pregenerate && hasSecret());
+        stats.put("coalesceMs", coalesceMs);
+        stats.put("received", received.get());
+        stats.put("ignored", ignored.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("handled", handled.get());
+        stats.put("pregenerations", pregenerations.get());
+        stats.put("pending", pending.size());
+        return stats;
+    }
+
+    private void handle(PendingIssue issue) {
+        handled.incrementAndGet();
+        testCaseGeneratorService.clearCache(issue.issueKey);
+        issueCache.invalidate(issue.issueKey);
+        log.info("Invalidated cached test cases of {} after {} webhook event(s)", issue.issueKey, issue.events);
+
+        // Regenerating from an unauthenticated payload would let anyone spend AI tokens
+        if (!pregenerate || !hasSecret()) {
+            return;
+        }
+        try {
+            JiraStory story = jiraService.parseJiraStoryFromJsonNode(issue.issue);
+            if (syncService.submitChangedStory(issue.jiraUrl, story)) {
+                pregenerations.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.warn("Could not queue pre-generation of {}: {}", issue.issueKey, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> ignore(String event, String issueKey, String reason) {
+        ignored.incrementAndGet();
+        log.debug("Ignoring JIRA webhook {} for {}: {}", event, issueKey, reason);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "ignored");
+        result.put("event", event);
+        result.put("issueKey", issueKey);
+        result.put("reason", reason);
+        return result;
+    }
+
+    /**
+     * Whether an update touched a field the story sections come from; without a changelog assume it did
+     */
+    private static boolean touchesStoryFields(JsonNode changelog) {
+        JsonNode items = changelog.path("items");
+        if (!items.isArray() || items.isEmpty()) {
+            return true;
+        }
+        for (JsonNode item : items) {
+            if (STORY_SOURCE_FIELDS.contains(item.path("field").asText("").toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Base URL of the JIRA server, from the issue's self link (https://host/rest/api/2/issue/10001)
+     */
+    private static String jiraUrlOf(JsonNode issue) {
+        String self = issue.path("self").asText("");
+        int rest = self.indexOf("/rest/api/");
+        return rest > 0 ? self.substring(0, rest) : null;
+    }
+
+    private boolean hasSecret() {
+        return secret != null && !secret.isBlank();
+    }
+
+    private void verifySignature(String payload, String signature) {
+        if (!hasSecret()) {
+            if (allowUnsigned) {
+                return;
+            }
+            throw new SecurityException("Webhook secret is not configured (set jira.webhook.secret)");
+        }
+        if (signature == null || !signature.startsWith("sha256=")) {
+            throw new SecurityException("Missing webhook signature");
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            StringBuilder expected = new StringBuilder("sha256=");
+            for (byte b : mac.doFinal(payload.getBytes(StandardCharsets.UTF_8))) {
+                expected.append(String.format("%02x", b));
+            }
+            if (!MessageDigest.isEqual(expected.toString().getBytes(StandardCharsets.US_ASCII),
+                    signature.toLowerCase().getBytes(StandardCharsets.US_ASCII))) {
+                throw new SecurityException("Webhook signature does not match");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Events of one issue waiting for its burst to end; the payload of the latest event wins
+     */
+    private static final class PendingIssue {
+        private final String issueKey;
+        private final String jiraUrl;
+        private final JsonNode issue;
+        private final long firstEventAt;
+        private final long lastEventAt;
+        private final int events;
+
+        PendingIssue(String issueKey, String jiraUrl, JsonNode issue, long eventAt) {
+            this(issueKey, jiraUrl, issue, eventAt, eventAt, 1);
+        }
+
+        private PendingIssue(String issueKey, String jiraUrl, JsonNode issue, long firstEventAt, long lastEventAt, int events) {
+            this.issueKey = issueKey;
+            this.jiraUrl = jiraUrl;
+            this.issue = issue;
+            this.firstEventAt = firstEventAt;
+            this.lastEventAt = lastEventAt;
+            this.events = events;
+        }
+
+        PendingIssue merge(PendingIssue latest) {
+            return new PendingIssue(issueKey, latest.jiraUrl != null ? latest.jiraUrl : jiraUrl, latest.issue,
+                    firstEventAt, latest.lastEventAt, events + 1);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Case-insensitive Aho-Corasick matcher over a fixed set of section markers.
+ * All occurrences of all markers are found in one pass over the text, so the cost of
+ * a scan does not grow with the number of markers. Immutable once built and thread-safe.
+ */
+public final class SectionMarkerMatcher {
+
+    /**
+     * Receives every marker occurrence, in order of where the occurrence ends
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        void onMatch(int markerIndex, int start);
+    }
+
+    private final String[] markers;
+    // Alphabet of the markers; characters outside it always lead back to the root
+    private final char[] alphabet;
+    private final int[] asciiSymbols;
+    private final int alphabetSize;
+    // Full DFA: transitions[state * alphabetSize + symbol], symbol 0 is "not in alphabet"
+    private final int[] transitions;
+    // Markers that end in each state, including those reached through failure links
+    private final int[][] outputs;
+
+    private SectionMarkerMatcher(String[] markers, char[] alphabet, int[] transitions, int[][] outputs) {
+        this.markers = markers;
+        this.alphabet = alphabet;
+        this.alphabetSize = alphabet.length + 1;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.asciiSymbols = new int[128];
+        for (int i = 0; i < alphabet.length; i++) {
+            if (alphabet[i] < 128) {
+                asciiSymbols[alphabet[i]] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Build a matcher for the given markers; blank markers are ignored but keep their index
+     */
+    public static SectionMarkerMatcher of(List<String> markers) {
+        String[] lowerMarkers = new String[markers.size()];
+        TreeSet<Character> chars = new TreeSet<>();
+        for (int i = 0; i < lowerMarkers.length; i++) {
+            String marker = markers.get(i) != null ? markers.get(i).strip() : "";
+            lowerMarkers[i] = lowerCase(marker);
+            for (char c : lowerMarkers[i].toCharArray()) {
+                chars.add(c);
+            }
+        }
+        char[] alphabet = new char[chars.size()];
+        int a = 0;
+        for (char c : chars) {
+            alphabet[a++] = c;
+        }
+        int alphabetSize = alphabet.length + 1;
+
+        // Trie, with -1 for missing edges
+        List<int[]> goTo = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        goTo.add(newState(alphabetSize));
+        ends.add(new ArrayList<>());
+        for (int i = 0; i < lowerMarkers.length; i++) {
+            if (lowerMarkers[i].isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (char c : lowerMarkers[i].toCharArray()) {
+                int symbol = Arrays.binarySearch(alphabet, c) + 1;
+                if (goTo.get(state)[symbol] < 0) {
+                    goTo.get(state)[symbol] = goTo.size();
+                    goTo.add(newState(alphabetSize));
+                    ends.add(new ArrayList<>());
+                }
+                state = goTo.get(state)[symbol];
+            }
+            ends.get(state).add(i);
+        }
+
+        // Breadth-first pass computes failure links and turns the trie into a complete DFA
+        int stateCount = goTo.size();
+        int[] transitions = new int[stateCount * alphabetSize];
+        int[] fail = new int[stateCount];
+        int[][] outputs = new int[stateCount][];
+        outputs[0] = toArray(ends.get(0));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = goTo.get(0)[symbol];
+            if (next > 0) {
+                fail[next] = 0;
+                transitions[symbol] = next;
+                queue.add(next);
+            } else {
+                transitions[symbol] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> stateOutputs = new ArrayList<>(ends.get(state));
+            for (int marker : outputs[fail[state]]) {
+                stateOutputs.add(marker);
+            }
+            outputs[state] = toArray(stateOutputs);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = goTo.get(state)[symbol];
+                if (next > 0) {
+                    fail[next] = transitions[fail[state] * alphabetSize + symbol];
+                    transitions[state * alphabetSize + symbol] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * alphabetSize + symbol] = transitions[fail[state] * alphabetSize + symbol];
+                }
+            }
+        }
+        return new SectionMarkerMatcher(lowerMarkers, alphabet, transitions, outputs);
+    }
+
+    /**
+     * Report every occurrence of every marker in the text
+     */
+    public void match(CharSequence text, MatchListener listener) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * alphabetSize + symbol(Character.toLowerCase(text.charAt(i)))];
+            for (int marker : outputs[state]) {
+                listener.onMatch(marker, i - markers[marker].length() + 1);
+            }
+        }
+    }
+
+    public int getMarkerCount() {
+        return markers.length;
+    }
+
+    private int symbol(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(alphabet, c);
+        return index >= 0 ? index + 1 : 0;
+    }
+
+    private static String lowerCase(String marker) {
+        StringBuilder lower = new StringBuilder(marker.length());
+        for (int i = 0; i < marker.length(); i++) {
+            lower.append(Character.toLowerCase(marker.charAt(i)));
+        }
+        return lower.toString();
+    }
+
+    private static int[] newState(int alphabetSize) {
+        int[] edges = new int[alphabetSize];
+        Arrays.fill(edges, -1);
+        return edges;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,114 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.StoryValidation;
+
+/**
+ * Local, rule-based check of story completeness.
+ * Looks for the presence and basic structure of the user story, acceptance criteria
+ * and business rules without calling the AI service.
+ */
+@Component
+public class StoryValidator {
+
+    private static final int MIN_USER_STORY_LENGTH = 20;
+    private static final int MIN_SECTION_LENGTH = 10;
+
+    // Clauses are checked as keywords in order, each searched from the end of the previous one. A single
+    // pattern with lazy ".*?" gaps rescans the rest of the text from every "as a" or "given" it tries,
+    // which is quadratic on long pasted stories; the ordered scan is linear and finds the same matches.
+    private static final Pattern ROLE_PATTERN = Pattern.compile(
+            "(?i)\\bas\\s+(?:a|an|the)\\b");
+    private static final Pattern GOAL_PATTERN = Pattern.compile(
+            "(?i)\\b(?:i\\s+want|i\\s+need|i\\s+would\\s+like|i\\s+can)\\b");
+    private static final Pattern BENEFIT_PATTERN = Pattern.compile(
+            "(?i)\\b(?:so\\s+that|in\\s+order\\s+to)\\b");
+    private static final Pattern GIVEN_PATTERN = Pattern.compile("(?i)\\bgiven\\b");
+    private static final Pattern WHEN_PATTERN = Pattern.compile("(?i)\\bwhen\\b");
+    private static final Pattern THEN_PATTERN = Pattern.compile("(?i)\\bthen\\b");
+    private static final Pattern LIST_ITEM_PATTERN = Pattern.compile(
+            "(?m)^\\s*(?:\\d+[.)]|[-*•]|AC\\s*\\d+)\\s*\\S");
+    private static final Pattern BUSINESS_RULE_ITEM_PATTERN = Pattern.compile(
+            "(?im)^\\s*(?:BR\\s*\\d+|\\d+[.)]|[-*•])\\s*\\S|\\bBR\\d{3}\\b");
+    private static final Pattern BUSINESS_RULE_MENTION_PATTERN = Pattern.compile(
+            "(?i)\\b(?:business\\s+rules?|BR\\d+)\\b");
+
+    /**
+     * Validate the story. Missing structure is reported as issues, generation still proceeds.
+     */
+    public StoryValidation validate(JiraStoryRequest request) {
+        List<String> issues = new ArrayList<>();
+
+        String userStory = trimToEmpty(request.getUserStory());
+        String acceptanceCriteria = trimToEmpty(request.getAcceptanceCriteria());
+        String businessRules = trimToEmpty(request.getBusinessRules());
+
+        // User story
+        if (userStory.isEmpty()) {
+            issues.add("User story is missing");
+        } else {
+            if (userStory.length() < MIN_USER_STORY_LENGTH) {
+                issues.add("User story is very short (" + userStory.length() + " chars) - add who needs what and why");
+            }
+            if (!inOrder(userStory, ROLE_PATTERN, GOAL_PATTERN)) {
+                issues.add("User story does not follow 'As a <role>, I want <goal>' structure");
+            } else if (!BENEFIT_PATTERN.matcher(userStory).find()) {
+                issues.add("User story does not state the benefit ('so that ...')");
+            }
+        }
+
+        // Acceptance criteria - may also be embedded in the user story text
+        if (acceptanceCriteria.length() < MIN_SECTION_LENGTH) {
+            if (!hasGivenWhenThen(userStory)) {
+                issues.add("Acceptance criteria are missing");
+            }
+        } else if (!hasGivenWhenThen(acceptanceCriteria)
+                && !LIST_ITEM_PATTERN.matcher(acceptanceCriteria).find()) {
+            issues.add("Acceptance criteria are not structured as Given/When/Then or a list of verifiable items");
+        }
+
+        // Business rules are optional, but if present they should be itemised
+        if (!businessRules.isEmpty()) {
+            if (businessRules.length() < MIN_SECTION_LENGTH) {
+                issues.add("Business rules are too short to be testable");
+            } else if (!BUSINESS_RULE_ITEM_PATTERN.matcher(businessRules).find()
+                    && businessRules.indexOf('\n') < 0) {
+                issues.add("Business rules are not itemised (e.g. BR001, numbered or bulleted rules)");
+            }
+        } else if (BUSINESS_RULE_MENTION_PATTERN.matcher(userStory).find()) {
+            issues.add("User story refers to business rules but none were provided");
+        }
+
+        return new StoryValidation(issues.isEmpty() ? StoryValidation.STATUS_VALID : StoryValidation.STATUS_INCOMPLETE, issues);
+    }
+
+    private static boolean hasGivenWhenThen(String text) {
+        return inOrder(text, GIVEN_PATTERN, WHEN_PATTERN, THEN_PATTERN);
+    }
+
+    /**
+     * Whether the keywords occur in this order; the earliest match of each is the best start for the next
+     */
+    private static boolean inOrder(String text, Pattern... keywords) {
+        int from = 0;
+        for (Pattern keyword : keywords) {
+            Matcher matcher = keyword.matcher(text);
+            if (!matcher.find(from)) {
+                return false;
+            }
+            from = matcher.end();
+        }
+        return true;
+    }
+
+    private String trimToEmpty(String value) {
+        return value != null ? value.trim() : "";
+    }
+}
@@ -0,0 +1,332 @@
+package com.hcl.testmate.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.model.JiraBatchResult;
+import com.hcl.testmate.model.JiraCredentials;
+import com.hcl.testmate.model.MultiDocumentResponse;
+import com.hcl.testmate.model.MultiDocumentResponse.DocumentTestCaseResult;
+import com.hcl.testmate.model.TestCase;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * Exports the test cases of many stories as one download: a ZIP with a CSV per story,
+ * or a single merged Octane CSV or XLSX sheet with a story key column.
+ * Stories are written one at a time as they become available, so an export never holds
+ * more than the story being written.
+ */
+@Service
+public class TestCaseExportService {
+    private static final Logger log = LoggerFactory.getLogger(TestCaseExportService.class);
+
+    // How long a finished story waits for the writer before re-checking that the export is still running
+    private static final long HAND_OVER_POLL_SECONDS = 1;
+
+    private final JiraBatchGenerationService batchGenerationService;
+    private final CsvGeneratorService csvGeneratorService;
+    private final XlsxGeneratorService xlsxGeneratorService;
+
+    public TestCaseExportService(JiraBatchGenerationService batchGenerationService,
+                                 CsvGeneratorService csvGeneratorService,
+                                 XlsxGeneratorService xlsxGeneratorService) {
+        this.batchGenerationService = batchGenerationService;
+        this.csvGeneratorService = csvGeneratorService;
+        this.xlsxGeneratorService = xlsxGeneratorService;
+    }
+
+    /**
+     * Supported export layouts
+     */
+    public enum ExportFormat {
+        ZIP(new MediaType("application", "zip"), ".zip"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), ".csv"),
+        XLSX(XlsxGeneratorService.XLSX_MEDIA_TYPE, ".xlsx");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        ExportFormat(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String fileName(String baseName) {
+            return baseName + extension;
+        }
+
+        /**
+         * Parse a request parameter such as "zip" or "csv"
+         *
+         * @throws IllegalArgumentException for unknown formats
+         */
+        public static ExportFormat fromParameter(String value) {
+            if (value == null || value.isBlank()) {
+                return ZIP;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (expected zip, csv or xlsx)");
+            }
+        }
+    }
+
+    /**
+     * Generate test cases for a JIRA batch and write every story to the stream as soon as it is done,
+     * in the order of the issue keys. The stream is flushed after each story but not closed.
+     */
+    public void exportBatch(JiraCredentials credentials, List<String> issueKeys, ExportFormat format,
+                            OutputStream out) throws IOException {
+        // Room for a single story: the batch waits for the writer instead of queueing results in memory
+        BlockingQueue<JiraBatchResult> ready = new ArrayBlockingQueue<>(1);
+        AtomicBoolean abandoned = new AtomicBoolean(false);
+        JiraBatchGenerationService.BatchRun batch = batchGenerationService.stream(credentials, issueKeys,
+                result -> handOver(ready, result, abandoned));
+
+        try (StoryWriter writer = open(format, out)) {
+            int written = 0;
+            while (written < issueKeys.size()) {
+                JiraBatchResult result = ready.poll(HAND_OVER_POLL_SECONDS, TimeUnit.SECONDS);
+                if (result == null) {
+                    if (batch.isDone() && ready.isEmpty()) {
+                        throw new IOException("Batch ended after " + written + " of " + issueKeys.size() + " stories");
+                    }
+                    continue;
+                }
+                if (result.isSuccess() && result.getResponse() != null) {
+                    writer.writeStory(result.getIssueKey(), testCasesOf(result.getResponse()));
+                } else {
+                    writer.writeFailure(result.getIssueKey(), result.getError());
+                }
+                written++;
+            }
+            writer.finish();
+            log.info("Exported {} JIRA stories as {}", written, format);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export was interrupted");
+        } finally {
+            // Client gone or export failed - stop generating stories nobody will receive and
+            // release the batch worker waiting to hand over a story
+            abandoned.set(true);
+            batch.cancel();
+            ready.clear();
+        }
+    }
+
+    /**
+     * Write the results of a multi-document generation, one story per document.
+     * The stream is flushed after each document but not closed.
+     */
+    public void exportDocuments(MultiDocumentResponse response, ExportFormat format, OutputStream out) throws IOException {
+        try (StoryWriter writer = open(format, out)) {
+            List<DocumentTestCaseResult> documentResults = response.getDocumentResults();
+            if (documentResults != null) {
+                for (DocumentTestCaseResult documentResult : documentResults) {
+                    String storyKey = documentKey(documentResult.getFileName());
+                    if (documentResult.isSuccess() && documentResult.getTestCaseResponse() != null) {
+                        writer.writeStory(storyKey, testCasesOf(documentResult.getTestCaseResponse()));
+                    } else {
+                        writer.writeFailure(storyKey, documentResult.getErrorMessage());
+                    }
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    private StoryWriter open(ExportFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case ZIP: return new ZipStoryWriter(out);
+            case XLSX: return new XlsxStoryWriter(out);
+            default: return new MergedCsvStoryWriter(out);
+        }
+    }
+
+    private static void handOver(BlockingQueue<JiraBatchResult> ready, JiraBatchResult result, AtomicBoolean abandoned) {
+        try {
+            while (!abandoned.get()) {
+                if (ready.offer(result, HAND_OVER_POLL_SECONDS, TimeUnit.SECONDS)) {
+                    return;
+                }
+            }
+            log.debug("Export abandoned, dropping result for {}", result.getIssueKey());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<TestCase> testCasesOf(TestCaseResponse response) {
+        return response.getTestCases() != null ? response.getTestCases() : List.of();
+    }
+
+    private static String documentKey(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "document";
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Writes stories to an export one at a time; close releases resources, not the target stream
+     */
+    private interface StoryWriter extends Closeable {
+        void writeStory(String storyKey, List<TestCase> testCases) throws IOException;
+
+        void writeFailure(String storyKey, String error) throws IOException;
+
+        void finish() throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * One "<key>.csv" entry per story; failed stories get a "<key>.error.txt" entry with the reason
+     */
+    private class ZipStoryWriter implements StoryWriter {
+        private final ZipOutputStream zip;
+        private final Writer entryWriter;
+        private final Set<String> entryNames = new HashSet<>();
+
+        ZipStoryWriter(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            this.entryWriter = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeStory(String storyKey, List<TestCase> testCases) throws IOException {
+            zip.putNextEntry(new ZipEntry(entryName(storyKey, ".csv")));
+            csvGeneratorService.writeCsv(testCases, entryWriter);
+            closeEntry();
+        }
+
+        @Override
+        public void writeFailure(String storyKey, String error) throws IOException {
+            zip.putNextEntry(new ZipEntry(entryName(storyKey, ".error.txt")));
+            entryWriter.write("Test case generation failed for " + storyKey + ": "
+                    + (error != null ? error : "unknown error") + "\n");
+            closeEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // Writes the central directory; the response stream itself is closed by the container
+            zip.finish();
+            zip.flush();
+        }
+
+        private void closeEntry() throws IOException {
+            entryWriter.flush();
+            zip.closeEntry();
+            zip.flush();
+        }
+
+        /**
+         * File-system safe entry name, made unique when the same key appears twice
+         */
+        private String entryName(String storyKey, String suffix) {
+            String base = storyKey != null ? storyKey.replaceAll("[^A-Za-z0-9._-]", "_") : "";
+            if (base.isEmpty()) {
+                base = "story";
+            }
+            String name = base + suffix;
+            for (int n = 2; !entryNames.add(name); n++) {
+                name = base + "-" + n + suffix;
+            }
+            return name;
+        }
+    }
+
+    /**
+     * A single Octane CSV with the story key in the first column; failed stories are left out
+     */
+    private class MergedCsvStoryWriter implements StoryWriter {
+        private final Writer writer;
+
+        MergedCsvStoryWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csvGeneratorService.writeMergedCsvHeader(writer);
+            writer.flush();
+        }
+
+        @Override
+        public void writeStory(String storyKey, List<TestCase> testCases) throws IOException {
+            csvGeneratorService.writeMergedCsvRecords(storyKey, testCases, writer);
+            writer.flush();
+        }
+
+        @Override
+        public void writeFailure(String storyKey, String error) {
+            log.warn("Leaving story {} out of the merged CSV export: {}", storyKey, error);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * A single XLSX sheet with the story key in the first column; failed stories are left out.
+     * Rows go through POI's streaming workbook, which keeps a bounded window in memory and spools the
+     * rest to a temporary file; the workbook itself can only be written once the last story is in.
+     */
+    private class XlsxStoryWriter implements StoryWriter {
+        private final OutputStream out;
+        private final XlsxGeneratorService.SheetWriter sheet;
+
+        XlsxStoryWriter(OutputStream out) {
+            this.out = out;
+            this.sheet = xlsxGeneratorService.open(true);
+        }
+
+        @Override
+        public void writeStory(String storyKey, List<TestCase> testCases) throws IOException {
+            sheet.writeRecords(storyKey, testCases);
+        }
+
+        @Override
+        public void writeFailure(String storyKey, String error) {
+            log.warn("Leaving story {} out of the XLSX export: {}", storyKey, error);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            sheet.writeTo(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            sheet.close();
+        }
+    }
+}
@@ -1,21 +1,27 @@
 package com.hcl.testmate.service;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcl.testmate.exception.TokenBudgetExceededException;
+import com.hcl.testmate.model.AiRequestOptions;
 import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.StoryValidation;
 import com.hcl.testmate.model.TestCase;
 import com.hcl.testmate.model.TestCaseResponse;
 
@@ -25,24 +31,33 @@ import com.hcl.testmate.model.TestCaseResponse;
 @Service
 public class TestCaseGeneratorService {
     private static final Logger log = LoggerFactory.getLogger(TestCaseGeneratorService.class);
+    // In real app, get from security context
+    private static final String USER_IDENTIFIER = "user@sarb.co.za";
     
-    // Cache to store test cases by JIRA story key for consistency across modules
-    private final Map<String, TestCaseResponse> testCaseCache = new HashMap<>();
-
     private final HclCafeAiService aiService;
     private final CsvGeneratorService csvGeneratorService;
     private final AnalyticsService analyticsService;
     private final WorkflowService workflowService;
     private final ObjectMapper objectMapper;
+    private final TestCaseJsonReader testCaseReader = new TestCaseJsonReader();
+    private final StoryValidator storyValidator;
+    // Caches test cases by JIRA story key and story content for consistency across modules
+    private final GeneratedTestCaseCache testCaseCache;
+    private final boolean aiValidationEnabled;
 
     public TestCaseGeneratorService(HclCafeAiService aiService, CsvGeneratorService csvGeneratorService, 
                                    AnalyticsService analyticsService, WorkflowService workflowService,
-                                   ObjectMapper objectMapper) {
+                                   ObjectMapper objectMapper, StoryValidator storyValidator,
+                                   GeneratedTestCaseCache testCaseCache,
+                                   @Value("${testmate.validation.ai.enabled:false}") boolean aiValidationEnabled) {
         this.aiService = aiService;
         this.csvGeneratorService = csvGeneratorService;
         this.analyticsService = analyticsService;
         this.workflowService = workflowService;
         this.objectMapper = objectMapper;
+        this.storyValidator = storyValidator;
+        this.testCaseCache = testCaseCache;
+        this.aiValidationEnabled = aiValidationEnabled;
     }
 
     public TestCaseResponse generateTestCases(JiraStoryRequest request) {
@@ -53,9 +68,21 @@ public class TestCaseGeneratorService {
      * Generate test cases with option to bypass cache
      * @param request The JIRA story request
      * @param bypassCache If true, ignores cached results and generates fresh test cases
-     * @return TestCaseResponse with generated test cases
+     * @return TestCaseResponse with generated test cases and their CSV content
      */
     public TestCaseResponse generateTestCases(JiraStoryRequest request, boolean bypassCache) {
+        return withCsv(generate(request, bypassCache));
+    }
+    
+    /**
+     * Generate test cases without building the CSV content, for callers that write the test cases out themselves
+     * (CSV and Excel downloads, background regeneration)
+     */
+    public TestCaseResponse generateTestCasesWithoutCsv(JiraStoryRequest request) {
+        return generate(request, false);
+    }
+    
+    private TestCaseResponse generate(JiraStoryRequest request, boolean bypassCache) {
         try {
             log.info("Starting test case generation process (bypass cache: {})", bypassCache);
             log.debug("Input data - User Story: {}, AC: {}, BR: {}", 
@@ -76,49 +103,35 @@ public class TestCaseGeneratorService {
                     : request.getUserStory());
             
             // Check cache if JIRA key is found and cache is not bypassed
-            if (!bypassCache && jiraKey != null && testCaseCache.containsKey(jiraKey)) {
-                log.info("Found cached test cases for JIRA story: {}", jiraKey);
-                TestCaseResponse cachedResponse = testCaseCache.get(jiraKey);
-                // Return a copy to prevent modification of cached data
-                TestCaseResponse response = TestCaseResponse.builder()
-                    .success(cachedResponse.isSuccess())
-                    .testCases(new ArrayList<>(cachedResponse.getTestCases()))
-                    .csvContent(cachedResponse.getCsvContent())
-                    .totalTestCases(cachedResponse.getTotalTestCases())
-                    .message(cachedResponse.getMessage() + " (from cache)")
-                    .jiraIssueKey(cachedResponse.getJiraIssueKey())
-                    .jiraProject(cachedResponse.getJiraProject())
-                    .jiraSummary(cachedResponse.getJiraSummary())
-                    .extractedContent(cachedResponse.getExtractedContent())
-                    .build();
-                return response;
-            }
-            
-            // If bypassing cache, clear it for this JIRA key
-            if (bypassCache && jiraKey != null && testCaseCache.containsKey(jiraKey)) {
-                log.info("Bypassing cache - clearing cached test cases for JIRA story: {}", jiraKey);
-                testCaseCache.remove(jiraKey);
+            String cacheKey = jiraKey != null ? testCaseCache.key(jiraKey, request) : null;
+            Optional<TestCaseResponse> cached = findCachedResponse(jiraKey, cacheKey, bypassCache);
+            if (cached.isPresent()) {
+                return copyCachedResponse(cached.get());
             }
 
-            // Step 1: Validate the story (relaxed: log warning but do not block)
+            // Step 1: Validate the story locally (relaxed: log warning but do not block)
             log.debug("Step 1: Validating story content...");
-            String validationResult = validateStory(request);
-            if (!validationResult.equals("VALID")) {
-                log.warn("Validation did not pass: {}. Proceeding to generate test cases anyway.", validationResult);
-            } else {
-                log.debug("Story validation passed");
-            }
+            StoryValidation validation = validateStory(request, workflowType);
 
             // Step 2: Generate test cases using AI
             log.debug("Step 2: Generating test cases with AI service...");
             List<TestCase> testCases = new ArrayList<>();
+            boolean fallback = false;
             
             try {
-                testCases = generateTestCasesWithAi(request, workflowType);
+                testCases = generateTestCasesWithAi(request, workflowType, bypassCache);
                 log.info("AI service returned {} test cases", testCases != null ? testCases.size() : 0);
+            } catch (TokenBudgetExceededException e) {
+                // Over budget is not an AI failure: surface it (429) instead of caching template test cases
+                throw e;
+            } catch (InterruptedException e) {
+                // Cancelled (timed-out upload, disconnected client): stop here instead of falling back
+                Thread.currentThread().interrupt();
+                return buildCancelledResponse();
             } catch (Exception e) {
                 log.warn("AI service failed, falling back to template-based generation: {}", e.getMessage());
                 testCases = generateFallbackTestCases(request, workflowType);
+                fallback = true;
                 log.info("Fallback generation returned {} test cases", testCases.size());
             }
             
@@ -126,84 +139,283 @@ public class TestCaseGeneratorService {
             if (testCases == null || testCases.isEmpty()) {
                 log.warn("No test cases generated, creating default test cases");
                 testCases = generateDefaultTestCases(request, workflowType);
+                fallback = true;
             }
 
             // Step 3: Remove duplicates
             log.debug("Step 3: Removing duplicate test cases...");
-            List<TestCase> uniqueTestCases = removeDuplicates(testCases);
-            log.debug("After deduplication: {} unique test cases", uniqueTestCases.size());
             testCases = removeDuplicates(testCases);
+            log.debug("After deduplication: {} unique test cases", testCases.size());
 
-            // Step 4: Generate CSV
-            log.debug("Step 4: Generating CSV content...");
-            String csvContent = csvGeneratorService.generateCsv(testCases);
-            log.debug("CSV content generated successfully (length: {} chars)", csvContent != null ? csvContent.length() : 0);
+            return completeGeneration(testCases, jiraKey, cacheKey, bypassCache, validation, request.getRequestedBy(), fallback);
 
-            log.info("Successfully generated {} test cases", testCases.size());
+        } catch (TokenBudgetExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error generating test cases", e);
+            return buildErrorResponse(e);
+        }
+    }
+    
+    /**
+     * Generate test cases while streaming the AI completion.
+     * Each test case is handed to the consumer as soon as its JSON object has been received,
+     * the returned response carries the final de-duplicated list and CSV content.
+     * 
+     * @param request The JIRA story request
+     * @param bypassCache If true, ignores cached results and generates fresh test cases
+     * @param onTestCase Receives each unique test case as it becomes available
+     * @return TestCaseResponse with all generated test cases
+     */
+    public TestCaseResponse generateTestCasesStreaming(JiraStoryRequest request, boolean bypassCache,
+                                                       Consumer<TestCase> onTestCase) {
+        try {
+            log.info("Starting streaming test case generation (bypass cache: {})", bypassCache);
+            
+            String jiraKey = extractJiraKey(request.getUserStory());
+            String workflowType = determineWorkflowType(jiraKey, request.getUserStory());
+            
+            String cacheKey = jiraKey != null ? testCaseCache.key(jiraKey, request) : null;
+            Optional<TestCaseResponse> cached = findCachedResponse(jiraKey, cacheKey, bypassCache);
+            if (cached.isPresent()) {
+                TestCaseResponse response = copyCachedResponse(cached.get());
+                response.getTestCases().forEach(onTestCase);
+                return withCsv(response);
+            }
+            
+            StoryValidation validation = validateStory(request, workflowType);
+            
+            // Duplicates are dropped as they arrive so the browser never shows a test case twice
+            List<TestCase> testCases = new ArrayList<>();
+            boolean fallback = false;
+            Set<String> seenScenarios = new HashSet<>();
+            Consumer<TestCase> emitUnique = testCase -> {
+                if (seenScenarios.add(testCase.getTestScenario().toLowerCase().trim())) {
+                    testCases.add(testCase);
+                    try {
+                        onTestCase.accept(testCase);
+                    } catch (RuntimeException e) {
+                        throw new ConsumerAbortedException(e);
+                    }
+                }
+            };
             
-            // Track analytics
             try {
-                String userIdentifier = "user@sarb.co.za"; // In real app, get from security context
-                String storyType = "manual";
-                analyticsService.trackTestCaseGeneration(testCases.size(), userIdentifier, storyType);
-                log.debug("Analytics tracked for {} test cases", testCases.size());
+                streamTestCasesWithAi(request, workflowType, bypassCache, emitUnique);
+                log.info("AI service streamed {} test cases", testCases.size());
+            } catch (TokenBudgetExceededException | ConsumerAbortedException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return buildCancelledResponse();
             } catch (Exception e) {
-                log.warn("Failed to track analytics: {}", e.getMessage());
+                if (!testCases.isEmpty()) {
+                    // The caller already has part of the list: report the truncated stream, do not cache it
+                    log.warn("Streaming AI generation failed after {} test cases: {}", testCases.size(), e.getMessage());
+                    TestCaseResponse response = buildErrorResponse(e);
+                    response.setTestCases(testCases);
+                    response.setTotalTestCases(testCases.size());
+                    response.setValidation(validation);
+                    return response;
+                }
+                log.warn("Streaming AI generation failed: {}", e.getMessage());
+                generateFallbackTestCases(request, workflowType).forEach(emitUnique);
+                fallback = true;
+                log.info("Fallback generation returned {} test cases", testCases.size());
             }
             
-            log.debug("Step 5: Creating response object...");
-            TestCaseResponse response = TestCaseResponse.builder()
-                    .success(true)
-                    .testCases(testCases)
-                    .csvContent(csvContent)
-                    .totalTestCases(testCases.size())
-                    .message("Successfully generated " + testCases.size() + " test cases")
-                    .build();
-            
-            // Cache the response if JIRA key is present and not bypassing cache
-            if (!bypassCache && jiraKey != null) {
-                log.info("Caching test cases for JIRA story: {}", jiraKey);
-                testCaseCache.put(jiraKey, response);
-            } else if (bypassCache && jiraKey != null) {
-                log.debug("Not caching test cases for JIRA story {} (cache bypassed)", jiraKey);
+            if (testCases.isEmpty()) {
+                log.warn("No test cases generated, creating default test cases");
+                generateDefaultTestCases(request, workflowType).forEach(emitUnique);
+                fallback = true;
             }
-                    
-            return response;
-
+            
+            return withCsv(completeGeneration(testCases, jiraKey, cacheKey, bypassCache, validation, request.getRequestedBy(), fallback));
+            
+        } catch (TokenBudgetExceededException e) {
+            throw e;
+        } catch (ConsumerAbortedException e) {
+            // The caller gave up on the stream (e.g. the client disconnected): abort without falling back or caching
+            throw (RuntimeException) e.getCause();
         } catch (Exception e) {
             log.error("Error generating test cases", e);
-            return TestCaseResponse.builder()
-                    .success(false)
-                    .message("Error generating test cases: " + e.getMessage())
-                    .testCases(new ArrayList<>())
-                    .totalTestCases(0)
-                    .build();
+            return buildErrorResponse(e);
         }
     }
-
-    private String validateStory(JiraStoryRequest request) {
+    
+    /**
+     * Track analytics and cache the final response. The CSV content is not cached, it is built
+     * by withCsv for the callers that return it.
+     *
+     * @param fallback whether the test cases come from templates instead of the AI service
+     * @return a copy of the cached response, so the caller may add to it
+     */
+    private TestCaseResponse completeGeneration(List<TestCase> testCases, String jiraKey, String cacheKey,
+                                                boolean bypassCache, StoryValidation validation, String requestedBy,
+                                                boolean fallback) {
+        log.info("Successfully generated {} test cases", testCases.size());
+        
+        // Track analytics
         try {
-            String systemMessage = buildValidationSystemMessage();
-            String userMessage = buildValidationUserMessage(request);
+            String userIdentifier = requestedBy != null ? requestedBy : USER_IDENTIFIER;
+            String storyType = "manual";
+            analyticsService.trackTestCaseGeneration(testCases.size(), userIdentifier, storyType);
+            log.debug("Analytics tracked for {} test cases", testCases.size());
+        } catch (Exception e) {
+            log.warn("Failed to track analytics: {}", e.getMessage());
+        }
+        
+        log.debug("Step 5: Creating response object...");
+        TestCaseResponse response = TestCaseResponse.builder()
+                .success(true)
+                .testCases(testCases)
+                .totalTestCases(testCases.size())
+                .message("Successfully generated " + testCases.size() + " test cases")
+                .validation(validation)
+                .fallback(fallback)
+                .build();
+        
+        // Cache the response if JIRA key is present and not bypassing cache; template test cases from an
+        // AI failure are never cached, the next request tries the AI service again
+        if (fallback && jiraKey != null) {
+            log.info("Not caching template test cases for JIRA story: {}", jiraKey);
+        } else if (!bypassCache && jiraKey != null) {
+            log.info("Caching test cases for JIRA story: {}", jiraKey);
+            testCaseCache.put(cacheKey, jiraKey, response);
+            return copyResponse(response, response.getMessage());
+        } else if (bypassCache && jiraKey != null) {
+            log.debug("Not caching test cases for JIRA story {} (cache bypassed)", jiraKey);
+        }
+                
+        return response;
+    }
+    
+    /**
+     * Add the Octane CSV of the test cases to a successful response that is not shared with the cache
+     */
+    private TestCaseResponse withCsv(TestCaseResponse response) {
+        if (response.isSuccess() && response.getTestCases() != null && response.getCsvContent() == null) {
+            String csvContent = csvGeneratorService.generateCsv(response.getTestCases());
+            log.debug("CSV content generated successfully (length: {} chars)", csvContent.length());
+            response.setCsvContent(csvContent);
+        }
+        return response;
+    }
+    
+    /**
+     * Look up a cached response for the story, or drop every cached entry of the JIRA key when bypassing the cache
+     */
+    private Optional<TestCaseResponse> findCachedResponse(String jiraKey, String cacheKey, boolean bypassCache) {
+        if (jiraKey == null) {
+            return Optional.empty();
+        }
+        if (bypassCache) {
+            int removed = testCaseCache.invalidate(jiraKey);
+            if (removed > 0) {
+                log.info("Bypassing cache - cleared {} cached result(s) for JIRA story: {}", removed, jiraKey);
+            }
+            return Optional.empty();
+        }
+        Optional<TestCaseResponse> cached = testCaseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("Found cached test cases for JIRA story: {}", jiraKey);
+        }
+        return cached;
+    }
+    
+    /**
+     * Return a copy of a cached response to prevent modification of cached data
+     */
+    private TestCaseResponse copyCachedResponse(TestCaseResponse cachedResponse) {
+        return copyResponse(cachedResponse, cachedResponse.getMessage() + " (from cache)");
+    }
+    
+    private static TestCaseResponse copyResponse(TestCaseResponse source, String message) {
+        return TestCaseResponse.builder()
+            .success(source.isSuccess())
+            .testCases(new ArrayList<>(source.getTestCases()))
+            .csvContent(source.getCsvContent())
+            .totalTestCases(source.getTotalTestCases())
+            .message(message)
+            .jiraIssueKey(source.getJiraIssueKey())
+            .jiraProject(source.getJiraProject())
+            .jiraSummary(source.getJiraSummary())
+            .extractedContent(source.getExtractedContent())
+            .validation(source.getValidation())
+            .fallback(source.isFallback())
+            .build();
+    }
+    
+    private TestCaseResponse buildCancelledResponse() {
+        log.info("Test case generation was cancelled");
+        return TestCaseResponse.builder()
+                .success(false)
+                .message("Test case generation was cancelled")
+                .testCases(new ArrayList<>())
+                .totalTestCases(0)
+                .build();
+    }
 
-            String response = aiService.sendChatRequest(userMessage, systemMessage);
+    private TestCaseResponse buildErrorResponse(Exception e) {
+        return TestCaseResponse.builder()
+                .success(false)
+                .message("Error generating test cases: " + e.getMessage())
+                .testCases(new ArrayList<>())
+                .totalTestCases(0)
+                .build();
+    }
 
-            // Check if validation passed
-            if (response.contains("VALID") || response.contains("valid")) {
-                return "VALID";
-            } else {
-                return response;
+    /**
+     * Validate the story with the local heuristics and, when enabled, start the AI review in the background.
+     * The AI result is written into the returned validation once it arrives, so a response built before then
+     * reports it as PENDING and the cached response picks it up later.
+     */
+    private StoryValidation validateStory(JiraStoryRequest request, String workflowType) {
+        StoryValidation validation = storyValidator.validate(request);
+        if (validation.isValid()) {
+            log.debug("Story validation passed");
+        } else {
+            log.warn("Validation did not pass: {}. Proceeding to generate test cases anyway.", validation.getIssues());
+        }
+        
+        if (aiValidationEnabled) {
+            validation.setAiStatus(StoryValidation.AI_PENDING);
+            try {
+                aiService.sendChatRequestAsync(buildValidationUserMessage(request), buildValidationSystemMessage(),
+                                AiRequestOptions.builder()
+                                        .operation(AiRequestOptions.Operation.VALIDATION)
+                                        .workflowType(workflowType)
+                                        .userId(request.getRequestedBy())
+                                        .build())
+                        .whenComplete((response, error) -> applyAiValidation(validation, response, error));
+            } catch (Exception e) {
+                applyAiValidation(validation, null, e);
             }
-        } catch (Exception e) {
-            log.error("Error validating story", e);
-            return "Error during validation: " + e.getMessage();
+        }
+        return validation;
+    }
+    
+    private void applyAiValidation(StoryValidation validation, String response, Throwable error) {
+        if (error != null) {
+            log.warn("AI story validation failed: {}", error.getMessage());
+            validation.setAiFeedback("Error during validation: " + error.getMessage());
+            validation.setAiStatus(StoryValidation.AI_FAILED);
+            return;
+        }
+        // Check if validation passed
+        if (response.contains("VALID") || response.contains("valid")) {
+            validation.setAiStatus(StoryValidation.AI_VALID);
+        } else {
+            log.warn("AI validation did not pass: {}", response);
+            validation.setAiFeedback(response);
+            validation.setAiStatus(StoryValidation.AI_NEEDS_CLARIFICATION);
         }
     }
 
-    private List<TestCase> generateTestCasesWithAi(JiraStoryRequest request, String workflowType) throws Exception {
+    private List<TestCase> generateTestCasesWithAi(JiraStoryRequest request, String workflowType, boolean freshOutput) throws Exception {
         log.info("Generating test cases using AI service with workflow type: {}", workflowType != null ? workflowType : "default");
         
-        String systemMessage = buildTestCaseGenerationSystemMessage(workflowType);
+        String systemMessage = buildTestCaseGenerationSystemMessage(workflowType, request);
         String userMessage = buildTestCaseGenerationUserMessage(request);
         
         log.debug("System message length: {} chars", systemMessage.length());
@@ -212,7 +424,7 @@ public class TestCaseGeneratorService {
         
         try {
             log.info("Sending request to AI service...");
-            String response = aiService.sendChatRequest(userMessage, systemMessage);
+            String response = aiService.sendChatRequest(userMessage, systemMessage, generationOptions(freshOutput, workflowType, request.getRequestedBy()));
             log.info("AI service response received (length: {} chars)", response != null ? response.length() : 0);
             log.debug("AI service response: {}", response);
             
@@ -224,12 +436,58 @@ public class TestCaseGeneratorService {
             log.info("Successfully parsed {} test cases from AI response", testCases.size());
             return testCases;
             
+        } catch (TokenBudgetExceededException | InterruptedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to generate test cases with AI service", e);
             throw new RuntimeException("AI service error: " + e.getMessage(), e);
         }
     }
 
+    private void streamTestCasesWithAi(JiraStoryRequest request, String workflowType, boolean freshOutput,
+                                       Consumer<TestCase> onTestCase) throws Exception {
+        log.info("Streaming test cases from AI service with workflow type: {}", workflowType != null ? workflowType : "default");
+        
+        String systemMessage = buildTestCaseGenerationSystemMessage(workflowType, request);
+        String userMessage = buildTestCaseGenerationUserMessage(request);
+        
+        int[] index = {0};
+        IncrementalTestCaseParser parser = new IncrementalTestCaseParser(objectJson -> {
+            int i = index[0]++;
+            TestCase testCase;
+            try {
+                testCase = testCaseReader.readTestCase(objectJson, i);
+            } catch (IOException e) {
+                log.warn("Failed to parse streamed test case node {}: {}", i, e.getMessage());
+                return;
+            }
+            // Consumer failures abort the stream
+            onTestCase.accept(testCase);
+        });
+        
+        String response = aiService.streamChatRequest(userMessage, systemMessage, generationOptions(freshOutput, workflowType, request.getRequestedBy()), parser::feed);
+        log.info("AI streaming response completed (length: {} chars, {} test case objects)", 
+                response.length(), parser.getEmittedCount());
+        
+        if (parser.getEmittedCount() == 0) {
+            // The model did not produce a well-formed array while streaming, fall back to the tolerant parser
+            List<TestCase> testCases = parseTestCasesFromResponse(response);
+            testCases.forEach(onTestCase);
+        }
+    }
+
+    /**
+     * Callers that bypass the test case cache also want a newly sampled completion
+     */
+    private AiRequestOptions generationOptions(boolean freshOutput, String workflowType, String requestedBy) {
+        return AiRequestOptions.builder()
+                .operation(AiRequestOptions.Operation.GENERATION)
+                .freshOutput(freshOutput)
+                .workflowType(workflowType)
+                .userId(requestedBy)
+                .build();
+    }
+
     private String buildValidationSystemMessage() {
         return """
             You are a Senior QA Engineer reviewing JIRA stories for completeness.
@@ -267,7 +525,7 @@ public class TestCaseGeneratorService {
         return message.toString();
     }
 
-    private String buildTestCaseGenerationSystemMessage(String workflowType) {
+    private String buildTestCaseGenerationSystemMessage(String workflowType, JiraStoryRequest request) {
         StringBuilder systemMessage = new StringBuilder();
         
         systemMessage.append("""
@@ -298,13 +556,23 @@ public class TestCaseGeneratorService {
         
         // Add workflow context based on detected workflow type
         String effectiveWorkflowType = workflowType;
+        // Only the workflow sections relevant to this story are included, not the whole document
+        String storyText = String.join("\n", 
+            request.getUserStory() != null ? request.getUserStory() : "",
+            request.getAcceptanceCriteria() != null ? request.getAcceptanceCriteria() : "",
+            request.getBusinessRules() != null ? request.getBusinessRules() : "");
         
         // If workflowType is provided and available, use it; otherwise use default
-        if (effectiveWorkflowType != null && workflowService.isWorkflowAvailable(effectiveWorkflowType)) {
+        String workflowContext = effectiveWorkflowType != null && workflowService.isWorkflowAvailable(effectiveWorkflowType)
+            ? workflowService.getRelevantWorkflowContext(effectiveWorkflowType, storyText) : null;
+        String defaultWorkflowContext = workflowContext == null && workflowService.isWorkflowAvailable()
+            ? workflowService.getRelevantWorkflowContext(null, storyText) : null;
+        
+        if (workflowContext != null && !workflowContext.isBlank()) {
             systemMessage.append("\n");
-            systemMessage.append(String.format("IMPORTANT: %s Application Workflow Documentation is provided below. Use this workflow to generate accurate and context-aware test steps that align with the actual application behavior.\n\n", effectiveWorkflowType));
+            systemMessage.append(String.format("IMPORTANT: The %s Application Workflow Documentation sections relevant to this story are provided below. Use this workflow to generate accurate and context-aware test steps that align with the actual application behavior.\n\n", effectiveWorkflowType));
             systemMessage.append(String.format("**APPLICATION WORKFLOW (%s):**\n", effectiveWorkflowType));
-            systemMessage.append(workflowService.getWorkflowContent(effectiveWorkflowType));
+            systemMessage.append(workflowContext);
             systemMessage.append("\n\n");
             
             // Add workflow-specific instructions
@@ -347,15 +615,15 @@ public class TestCaseGeneratorService {
             - Adapt the workflow pattern to the specific entities mentioned in the user story
             
             """);
-        } else if (workflowService.isWorkflowAvailable()) {
+        } else if (defaultWorkflowContext != null && !defaultWorkflowContext.isBlank()) {
             // Fall back to default workflow
             systemMessage.append("""
             
-            IMPORTANT: Application Workflow Documentation is provided below. Use this workflow to generate accurate and context-aware test steps that align with the actual application behavior.
+            IMPORTANT: The Application Workflow Documentation sections relevant to this story are provided below. Use this workflow to generate accurate and context-aware test steps that align with the actual application behavior.
             
             """);
             systemMessage.append("**APPLICATION WORKFLOW:**\n");
-            systemMessage.append(workflowService.getWorkflowContent());
+            systemMessage.append(defaultWorkflowContext);
             systemMessage.append("\n\n");
             systemMessage.append("""
             When generating test steps:
@@ -480,125 +748,23 @@ public class TestCaseGeneratorService {
         return message.toString();
     }
 
-    private List<TestCase> parseTestCasesFromResponse(String response) {
-        try {
-            log.info("Parsing test cases from AI response...");
-            List<TestCase> testCases = new ArrayList<>();
-
-            // Extract JSON array from response
-            String jsonArray = extractJsonArray(response);
-            log.debug("Extracted JSON array: {}", jsonArray);
-            
-            if (jsonArray == null || jsonArray.trim().isEmpty()) {
-                log.warn("No JSON array found in response");
-                return testCases; // Return empty list
-            }
-
-            // Parse JSON
-            JsonNode rootNode = objectMapper.readTree(jsonArray);
-            log.debug("Parsed JSON root node type: {}", rootNode.getNodeType());
-
-            if (rootNode.isArray()) {
-                log.info("Processing {} test case nodes from JSON array", rootNode.size());
-                for (int i = 0; i < rootNode.size(); i++) {
-                    JsonNode node = rootNode.get(i);
-                    log.debug("Processing test case node {}: {}", i, node.toString());
-                    
-                    try {
-                        // Safely extract values with null checks
-                        String testCaseId = getJsonValue(node, "testCaseId", "TC" + String.format("%03d", i + 1));
-                        String testScenario = getJsonValue(node, "testScenario", "Test scenario not provided");
-                        String toValidate = getJsonValue(node, "toValidate", "To validate the functionality");
-                        String preconditions = getJsonValue(node, "preconditions", "No preconditions specified");
-                        String testSteps = getJsonValue(node, "testSteps", "Test steps not provided");
-                        String expectedResult = getJsonValue(node, "expectedResult", "Expected result not provided");
-                        String priority = getJsonValue(node, "priority", "Medium");
-                        String testType = getJsonValue(node, "testType", "Functional");
-                        
-                        TestCase testCase = TestCase.builder()
-                                .testCaseId(testCaseId)
-                                .testScenario(testScenario)
-                                .toValidate(toValidate)
-                                .preconditions(preconditions)
-                                .testSteps(testSteps)
-                                .expectedResult(expectedResult)
-                                .priority(priority)
-                                .testType(testType)
-                                .build();
-                        testCases.add(testCase);
-                        log.debug("Successfully created test case: {}", testCaseId);
-                    } catch (Exception e) {
-                        log.warn("Failed to parse test case node {}: {}", i, e.getMessage());
-                        // Continue with other test cases
-                    }
-                }
-            } else {
-                log.warn("Root node is not an array, attempting to parse as single object");
-                // Try to parse as a single test case object
-                if (rootNode.isObject()) {
-                    // Handle single test case object
-                    log.warn("Response contains single object instead of array - this might indicate an AI service issue");
-                }
-            }
+    List<TestCase> parseTestCasesFromResponse(String response) {
+        log.info("Parsing test cases from AI response...");
+        List<TestCase> testCases = new ArrayList<>();
 
-            log.info("Successfully parsed {} test cases from response", testCases.size());
-            return testCases;
-        } catch (Exception e) {
-            log.error("Error parsing test cases from response: {}", response, e);
-            throw new RuntimeException("Failed to parse test cases: " + e.getMessage(), e);
-        }
-    }
-    
-    private String getJsonValue(JsonNode node, String fieldName, String defaultValue) {
-        if (node.hasNonNull(fieldName)) {
-            String value = node.get(fieldName).asText();
-            return (value != null && !value.trim().isEmpty()) ? value : defaultValue;
+        // Single pass over the response - test cases are mapped as the array is read
+        int count = testCaseReader.read(response, testCases::add);
+        if (count < 0) {
+            log.warn("No JSON array found in AI response. AI may not have followed JSON format instructions.");
+            log.debug("Full AI response: {}", response);
+            return testCases; // Return empty list
         }
-        return defaultValue;
-    }
 
-    private String extractJsonArray(String response) {
-        log.debug("Extracting JSON array from AI response...");
-        
-        // First, check if the response already starts with JSON array
-        String trimmedResponse = response.trim();
-        if (trimmedResponse.startsWith("[") && trimmedResponse.endsWith("]")) {
-            log.debug("Response already starts and ends with JSON array brackets");
-            return trimmedResponse;
-        }
-        
-        // Try to find JSON array in the response - multiple patterns
-        Pattern[] patterns = {
-            // Standard JSON array (no capturing group)
-            Pattern.compile("(\\[\\s*\\{.*?\\}\\s*\\])", Pattern.DOTALL),
-            // JSON array with complex content (greedy matching)
-            Pattern.compile("(\\[(?:[^\\[\\]]|\\{[^}]*\\})*\\])", Pattern.DOTALL),
-            // JSON array within code blocks
-            Pattern.compile("```(?:json)?\\s*\\n?(\\[.*?\\])\\s*\\n?```", Pattern.DOTALL),
-            // JSON array within triple backticks
-            Pattern.compile("`{3}[^`]*?\\n?(\\[.*?\\])[^`]*?`{3}", Pattern.DOTALL),
-            // JSON array with newlines and spaces - more flexible
-            Pattern.compile("(\\[[\\s\\S]*?\\])", Pattern.DOTALL)
-        };
-        
-        for (int i = 0; i < patterns.length; i++) {
-            Pattern pattern = patterns[i];
-            Matcher matcher = pattern.matcher(response);
-            if (matcher.find()) {
-                String jsonArray = matcher.group(1);  // All patterns now have group 1
-                log.debug("Found JSON array using pattern {}: {}", i, jsonArray.substring(0, Math.min(200, jsonArray.length())));
-                return jsonArray;
-            }
-        }
-        
-        // If no JSON array found, check if the AI didn't follow instructions
-        log.warn("No JSON array found in AI response. AI may not have followed JSON format instructions.");
-        log.debug("Full AI response: {}", response);
-        
-        return null;
+        log.info("Successfully parsed {} test cases from response", testCases.size());
+        return testCases;
     }
 
-    private List<TestCase> removeDuplicates(List<TestCase> testCases) {
+    List<TestCase> removeDuplicates(List<TestCase> testCases) {
         Set<String> seen = new HashSet<>();
         List<TestCase> unique = new ArrayList<>();
         for (TestCase testCase : testCases) {
@@ -1452,6 +1618,8 @@ public class TestCaseGeneratorService {
 
             return response;
 
+        } catch (TokenBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error handling chat query", e);
             return "I apologize, but I encountered an error processing your question. Please try asking in a different way.";
@@ -1526,7 +1694,10 @@ public class TestCaseGeneratorService {
         log.info("Generating locator suggestions for: {}", request.getElementName());
         
         String prompt = buildLocatorPrompt(request);
-        String aiResponse = aiService.sendChatRequest(prompt);
+        String aiResponse = aiService.sendChatRequest(prompt, null,
+                AiRequestOptions.builder()
+                        .operation(AiRequestOptions.Operation.LOCATORS)
+                        .build());
         
         log.debug("AI response for locators: {}", aiResponse);
         
@@ -1705,9 +1876,8 @@ public class TestCaseGeneratorService {
      * @param jiraKey The JIRA story key to clear from cache
      */
     public void clearCache(String jiraKey) {
-        if (jiraKey != null && testCaseCache.containsKey(jiraKey)) {
+        if (jiraKey != null && testCaseCache.invalidate(jiraKey) > 0) {
             log.info("Clearing cache for JIRA story: {}", jiraKey);
-            testCaseCache.remove(jiraKey);
         }
     }
     
@@ -1724,10 +1894,18 @@ public class TestCaseGeneratorService {
      * @return Map with cache statistics
      */
     public Map<String, Object> getCacheStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("cachedStories", testCaseCache.size());
-        stats.put("cachedKeys", new ArrayList<>(testCaseCache.keySet()));
-        return stats;
+        return testCaseCache.getStatistics();
+    }
+    
+    /**
+     * Carries an exception thrown by a streaming caller's consumer past the AI failure handling
+     */
+    private static final class ConsumerAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        ConsumerAbortedException(RuntimeException cause) {
+            super(cause.getMessage(), cause);
+        }
     }
 }
 // Removed duplicate method and extraneous code after class
@@ -0,0 +1,222 @@
+package com.hcl.testmate.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.hcl.testmate.model.TestCase;
+
+/**
+ * Single-pass reader for the JSON array of test cases in an AI response.
+ * The text is scanned for the first '[' that opens an array of objects (so preambles, code fences
+ * and bracketed text like "[R2CX-123]" are skipped), and from there Jackson's streaming parser
+ * maps each element straight to a TestCase as soon as it is complete - no regex and no JsonNode tree.
+ * Stateless and thread-safe.
+ */
+public class TestCaseJsonReader {
+    private static final Logger log = LoggerFactory.getLogger(TestCaseJsonReader.class);
+
+    // Models regularly put raw newlines inside strings and leave a trailing comma after the last element
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+
+    /**
+     * Read the test case array from an AI response, handing every element to the consumer as it completes.
+     * When the array is cut off (e.g. the completion hit max_tokens), the elements read so far are kept.
+     *
+     * @return the number of test cases read, or -1 if the response does not contain a test case array
+     */
+    public int read(String response, Consumer<TestCase> onTestCase) {
+        if (response == null) {
+            return -1;
+        }
+        char[] text = null;
+        int from = 0;
+        int start;
+        while ((start = findArrayStart(response, from)) >= 0) {
+            if (text == null) {
+                // Copied once, only when there is something to parse
+                text = response.toCharArray();
+            }
+            int[] count = {0};
+            try (JsonParser parser = jsonFactory.createParser(text, start, text.length - start)) {
+                readArray(parser, testCase -> {
+                    count[0]++;
+                    onTestCase.accept(testCase);
+                });
+                return count[0];
+            } catch (JsonProcessingException e) {
+                if (count[0] > 0) {
+                    log.warn("Test case array in AI response is incomplete, keeping {} complete test cases: {}",
+                            count[0], e.getOriginalMessage());
+                    return count[0];
+                }
+                // Not the test case array (e.g. a malformed example in prose) - resume the search where parsing failed
+                long errorOffset = e.getLocation() != null ? e.getLocation().getCharOffset() : -1;
+                from = (int) Math.max(start + 1, start + errorOffset);
+                log.debug("Skipping bracketed text at offset {} that is not a JSON array: {}", start, e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return isEmptyArray(response) ? 0 : -1;
+    }
+
+    /**
+     * Map a single test case JSON object (e.g. one element emitted while streaming) to a TestCase
+     *
+     * @param index position of the test case, used for the default ID
+     */
+    public TestCase readTestCase(String objectJson, int index) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(objectJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Test case is not a JSON object");
+            }
+            return readTestCase(parser, index);
+        }
+    }
+
+    private void readArray(JsonParser parser, Consumer<TestCase> onTestCase) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON array");
+        }
+        int index = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "Unexpected end of test case array");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                onTestCase.accept(readTestCase(parser, index++));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Read the fields of the object the parser is positioned on, filling defaults for missing ones
+     */
+    private TestCase readTestCase(JsonParser parser, int index) throws IOException {
+        String testCaseId = null;
+        String testScenario = null;
+        String toValidate = null;
+        String preconditions = null;
+        String testSteps = null;
+        String expectedResult = null;
+        String priority = null;
+        String testType = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            String value = readValue(parser);
+            switch (fieldName) {
+                case "testCaseId": testCaseId = value; break;
+                case "testScenario": testScenario = value; break;
+                case "toValidate": toValidate = value; break;
+                case "preconditions": preconditions = value; break;
+                case "testSteps": testSteps = value; break;
+                case "expectedResult": expectedResult = value; break;
+                case "priority": priority = value; break;
+                case "testType": testType = value; break;
+                default: break;
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected end of test case object");
+        }
+
+        return TestCase.builder()
+                .testCaseId(valueOrDefault(testCaseId, "TC" + String.format("%03d", index + 1)))
+                .testScenario(valueOrDefault(testScenario, "Test scenario not provided"))
+                .toValidate(valueOrDefault(toValidate, "To validate the functionality"))
+                .preconditions(valueOrDefault(preconditions, "No preconditions specified"))
+                .testSteps(valueOrDefault(testSteps, "Test steps not provided"))
+                .expectedResult(valueOrDefault(expectedResult, "Expected result not provided"))
+                .priority(valueOrDefault(priority, "Medium"))
+                .testType(valueOrDefault(testType, "Functional"))
+                .build();
+    }
+
+    /**
+     * Text of a scalar value; arrays of scalars (e.g. test steps as a list) are joined line by line
+     * and nested objects are skipped
+     */
+    private String readValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "Unexpected end of test case object");
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        if (token == JsonToken.START_ARRAY) {
+            StringBuilder joined = new StringBuilder();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of array value");
+                }
+                if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    if (joined.length() > 0) {
+                        joined.append('\n');
+                    }
+                    joined.append(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return joined.toString();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static String valueOrDefault(String value, String defaultValue) {
+        return value != null && !value.trim().isEmpty() ? value : defaultValue;
+    }
+
+    /**
+     * Position of the next '[' that opens an array of objects - followed by '{' and then '"' or '}'
+     * (whitespace allowed in between) - or -1
+     */
+    private static int findArrayStart(String text, int from) {
+        for (int i = text.indexOf('[', from); i >= 0; i = text.indexOf('[', i + 1)) {
+            int next = skipWhitespace(text, i + 1);
+            if (next < text.length() && text.charAt(next) == '{') {
+                next = skipWhitespace(text, next + 1);
+                if (next < text.length() && (text.charAt(next) == '"' || text.charAt(next) == '}')) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isEmptyArray(String response) {
+        String trimmed = response.trim();
+        return trimmed.startsWith("[") && trimmed.endsWith("]") && trimmed.substring(1, trimmed.length() - 1).isBlank();
+    }
+}
@@ -0,0 +1,238 @@
+package com.hcl.testmate.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.exception.TokenBudgetExceededException;
+import com.hcl.testmate.model.AiChatResult;
+import com.hcl.testmate.model.AiRequestOptions;
+import com.hcl.testmate.model.HclCafeAiModels.Usage;
+
+/**
+ * Accounts AI token usage per operation, workflow type and user, and enforces
+ * per-request and per-day token budgets before requests are sent. The user is the JIRA username a
+ * request was made with; the per-user budget does not apply to requests without one.
+ * Budgets are checked against usage recorded so far, so requests running concurrently
+ * can overshoot a daily budget by at most their own size.
+ */
+@Service
+public class TokenUsageService {
+    private static final Logger log = LoggerFactory.getLogger(TokenUsageService.class);
+
+    // Rough chars-per-token ratio used when the API does not report usage
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String UNKNOWN = "unknown";
+
+    /**
+     * What to do with a request that would exceed a budget
+     */
+    public enum OverBudgetAction {
+        // Lower max_tokens to what is left of the budget (rejects if that is below the minimum)
+        DOWNGRADE,
+        REJECT
+    }
+
+    @Value("${hcl.cafe.ai.budget.max-tokens-per-request:0}")
+    private long maxTokensPerRequest;
+
+    @Value("${hcl.cafe.ai.budget.daily-tokens:0}")
+    private long dailyTokenBudget;
+
+    @Value("${hcl.cafe.ai.budget.daily-tokens-per-user:0}")
+    private long dailyUserTokenBudget;
+
+    @Value("${hcl.cafe.ai.budget.over-budget-action:DOWNGRADE}")
+    private OverBudgetAction overBudgetAction;
+
+    @Value("${hcl.cafe.ai.budget.min-completion-tokens:512}")
+    private int minCompletionTokens;
+
+    private final UsageTotals overall = new UsageTotals();
+    private final Map<String, UsageTotals> byOperation = new ConcurrentHashMap<>();
+    private final Map<String, UsageTotals> byWorkflow = new ConcurrentHashMap<>();
+    private final Map<String, UsageTotals> byUser = new ConcurrentHashMap<>();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong downgradedRequests = new AtomicLong();
+
+    // Daily budget state, guarded by this
+    private LocalDate currentDay = LocalDate.now();
+    private long tokensToday = 0;
+    private final Map<String, Long> userTokensToday = new HashMap<>();
+
+    /**
+     * Rough token count of a text, used for prompts before they are sent
+     */
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Check a request against the configured budgets before it is sent.
+     *
+     * @param promptTokens estimated prompt tokens
+     * @param maxTokens    max_tokens the request would be sent with (null if not set)
+     * @return max_tokens to send - lowered when the request was downgraded to fit a budget
+     * @throws TokenBudgetExceededException if the request does not fit and cannot be downgraded
+     */
+    public Integer checkBudget(AiRequestOptions options, int promptTokens, Integer maxTokens) {
+        long allowed = maxTokens != null ? maxTokens : Integer.MAX_VALUE;
+        boolean downgraded = false;
+
+        if (maxTokensPerRequest > 0 && promptTokens + allowed > maxTokensPerRequest) {
+            allowed = fitBudget("per-request token budget of " + maxTokensPerRequest, maxTokensPerRequest - promptTokens);
+            downgraded = true;
+        }
+
+        synchronized (this) {
+            rollOverDay();
+            if (dailyTokenBudget > 0 && promptTokens + allowed > dailyTokenBudget - tokensToday) {
+                allowed = fitBudget("daily token budget of " + dailyTokenBudget, dailyTokenBudget - tokensToday - promptTokens);
+                downgraded = true;
+            }
+            // Requests without a user (manual entries, chat) are only held to the overall budgets
+            long userTokens = hasUser(options) ? userTokensToday.getOrDefault(options.getUserId(), 0L) : 0L;
+            if (dailyUserTokenBudget > 0 && hasUser(options) && promptTokens + allowed > dailyUserTokenBudget - userTokens) {
+                allowed = fitBudget("daily per-user token budget of " + dailyUserTokenBudget,
+                        dailyUserTokenBudget - userTokens - promptTokens);
+                downgraded = true;
+            }
+        }
+
+        if (downgraded) {
+            downgradedRequests.incrementAndGet();
+            log.info("Downgraded {} request max_tokens from {} to {} to stay within token budget",
+                    options.getOperation(), maxTokens, allowed);
+            return (int) Math.min(allowed, Integer.MAX_VALUE);
+        }
+        return maxTokens;
+    }
+
+    /**
+     * Record the usage of a completed request
+     */
+    public void record(AiRequestOptions options, AiChatResult result) {
+        Usage usage = result.getUsage();
+        long promptTokens = usage != null && usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+        long completionTokens = usage != null && usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
+        long totalTokens = usage != null && usage.getTotalTokens() != null ? usage.getTotalTokens() : promptTokens + completionTokens;
+
+        overall.add(promptTokens, completionTokens, totalTokens, result.isFromCache());
+        byOperation.computeIfAbsent(options.getOperation().name(), k -> new UsageTotals())
+                .add(promptTokens, completionTokens, totalTokens, result.isFromCache());
+        byWorkflow.computeIfAbsent(options.getWorkflowType() != null ? options.getWorkflowType() : UNKNOWN, k -> new UsageTotals())
+                .add(promptTokens, completionTokens, totalTokens, result.isFromCache());
+        byUser.computeIfAbsent(userKey(options), k -> new UsageTotals())
+                .add(promptTokens, completionTokens, totalTokens, result.isFromCache());
+
+        if (totalTokens > 0) {
+            synchronized (this) {
+                rollOverDay();
+                tokensToday += totalTokens;
+                if (hasUser(options)) {
+                    userTokensToday.merge(options.getUserId(), totalTokens, Long::sum);
+                }
+            }
+        }
+        log.debug("{} request used {} prompt + {} completion tokens{}", options.getOperation(),
+                promptTokens, completionTokens, result.isUsageEstimated() ? " (estimated)" : "");
+    }
+
+    /**
+     * Usage totals per operation, workflow type and user plus today's budget consumption
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("overall", overall.toMap());
+        stats.put("byOperation", toMap(byOperation));
+        stats.put("byWorkflow", toMap(byWorkflow));
+        stats.put("byUser", toMap(byUser));
+
+        Map<String, Object> budget = new LinkedHashMap<>();
+        synchronized (this) {
+            rollOverDay();
+            budget.put("day", currentDay.toString());
+            budget.put("tokensToday", tokensToday);
+            budget.put("userTokensToday", new TreeMap<>(userTokensToday));
+        }
+        budget.put("dailyTokenBudget", dailyTokenBudget);
+        budget.put("dailyUserTokenBudget", dailyUserTokenBudget);
+        budget.put("maxTokensPerRequest", maxTokensPerRequest);
+        budget.put("overBudgetAction", overBudgetAction);
+        budget.put("rejectedRequests", rejectedRequests.get());
+        budget.put("downgradedRequests", downgradedRequests.get());
+        stats.put("budget", budget);
+        return stats;
+    }
+
+    private long fitBudget(String budgetName, long availableCompletionTokens) {
+        if (overBudgetAction == OverBudgetAction.REJECT || availableCompletionTokens < minCompletionTokens) {
+            rejectedRequests.incrementAndGet();
+            throw new TokenBudgetExceededException("AI request rejected: it would exceed the " + budgetName + " tokens");
+        }
+        return availableCompletionTokens;
+    }
+
+    private void rollOverDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(currentDay)) {
+            currentDay = today;
+            tokensToday = 0;
+            userTokensToday.clear();
+        }
+    }
+
+    private static boolean hasUser(AiRequestOptions options) {
+        return options.getUserId() != null && !options.getUserId().isBlank();
+    }
+
+    private static String userKey(AiRequestOptions options) {
+        return hasUser(options) ? options.getUserId() : UNKNOWN;
+    }
+
+    private static Map<String, Object> toMap(Map<String, UsageTotals> totals) {
+        Map<String, Object> map = new TreeMap<>();
+        totals.forEach((key, value) -> map.put(key, value.toMap()));
+        return map;
+    }
+
+    private static class UsageTotals {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder cachedRequests = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalTokens = new LongAdder();
+
+        void add(long prompt, long completion, long total, boolean cached) {
+            requests.increment();
+            if (cached) {
+                cachedRequests.increment();
+            }
+            promptTokens.add(prompt);
+            completionTokens.add(completion);
+            totalTokens.add(total);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            long sent = requests.sum() - cachedRequests.sum();
+            map.put("requests", requests.sum());
+            map.put("cachedRequests", cachedRequests.sum());
+            map.put("promptTokens", promptTokens.sum());
+            map.put("completionTokens", completionTokens.sum());
+            map.put("totalTokens", totalTokens.sum());
+            map.put("averagePromptTokens", sent > 0 ? promptTokens.sum() / sent : 0);
+            return map;
+        }
+    }
+}
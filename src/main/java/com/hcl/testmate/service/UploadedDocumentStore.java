@@ -0,0 +1,116 @@
+package com.hcl.testmate.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * In-memory store of the test cases generated from uploaded documents, keyed by a hash of the
+ * document bytes (see UploadedDocument#getContentKey). The stored response carries the extracted
+ * sections as well, so an identical upload within the retention window is answered without parsing
+ * the document or calling the AI service. Only successful generations are stored.
+ * Bounded by entry count (least recently used entries go first); all access is serialised on the instance.
+ */
+@Component
+public class UploadedDocumentStore {
+    private static final Logger log = LoggerFactory.getLogger(UploadedDocumentStore.class);
+
+    private final int maxEntries;
+    private final long retentionMillis;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    public UploadedDocumentStore(@Value("${testmate.documents.store.max-entries:200}") int maxEntries,
+                                 @Value("${testmate.documents.store.retention-minutes:60}") long retentionMinutes) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.retentionMillis = retentionMinutes * 60_000L;
+    }
+
+    public synchronized Optional<TestCaseResponse> get(String contentKey) {
+        Entry entry = entries.get(contentKey);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            entries.remove(contentKey);
+            expirations++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.response);
+    }
+
+    public synchronized void put(String contentKey, TestCaseResponse response) {
+        if (maxEntries == 0 || retentionMillis <= 0) {
+            return;
+        }
+        entries.put(contentKey, new Entry(response, System.currentTimeMillis()));
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && entries.size() > maxEntries) {
+            Entry entry = it.next();
+            it.remove();
+            if (isExpired(entry, now)) {
+                expirations++;
+            } else {
+                evictions++;
+            }
+        }
+        log.debug("Stored generated test cases for uploaded document {}", contentKey);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Snapshot of store size and hit/miss/eviction counters
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        long lookups = hits + misses;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("retentionMinutes", retentionMillis / 60_000L);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups > 0 ? (double) hits / lookups : 0.0);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        return stats;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > retentionMillis;
+    }
+
+    private static class Entry {
+        private final TestCaseResponse response;
+        private final long createdAt;
+
+        Entry(TestCaseResponse response, long createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
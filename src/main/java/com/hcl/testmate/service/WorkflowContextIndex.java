@@ -0,0 +1,313 @@
+package com.hcl.testmate.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory BM25 index over the sections of one workflow document.
+ * The document is split into heading-aware chunks when it is loaded, and for each story
+ * only the chunks that share the most (rare) terms with it are returned, within a token budget.
+ * Immutable once built, so it can be shared between request threads.
+ */
+public final class WorkflowContextIndex {
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Rough chars-per-token ratio used for budgeting prompt size
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private static final int MAX_HEADING_WORDS = 12;
+
+    // Step instructions are not headings even when short and unpunctuated
+    private static final Set<String> STEP_VERBS = new LinkedHashSet<>(Arrays.asList(
+            "add", "choose", "click", "edit", "enter", "for", "if", "login", "navigate", "open", "preview",
+            "redirect", "save", "select", "submit", "tick", "under", "upload", "verify", "view"));
+
+    private static final Set<String> STOP_WORDS = new LinkedHashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "click", "do", "for", "from", "has", "have",
+            "i", "if", "in", "into", "is", "it", "its", "of", "on", "or", "so", "that", "the", "their", "then",
+            "there", "these", "this", "to", "user", "want", "was", "when", "where", "which", "will", "with", "would"));
+
+    private final List<String> chunks;
+    private final int[] chunkLengths;
+    private final double averageChunkLength;
+    private final Map<String, Posting> postings;
+
+    private WorkflowContextIndex(List<String> chunks, int[] chunkLengths, Map<String, Posting> postings) {
+        this.chunks = chunks;
+        this.chunkLengths = chunkLengths;
+        this.postings = postings;
+        long total = 0;
+        for (int length : chunkLengths) {
+            total += length;
+        }
+        this.averageChunkLength = chunkLengths.length > 0 ? (double) total / chunkLengths.length : 0;
+    }
+
+    /**
+     * Split the document into chunks of roughly {@code chunkTokens} tokens and index them.
+     * A new chunk is started at every heading line, and continuation chunks repeat their heading.
+     */
+    public static WorkflowContextIndex build(String content, int chunkTokens) {
+        List<String> chunks = chunk(content, Math.max(20, chunkTokens) * CHARS_PER_TOKEN);
+
+        int[] chunkLengths = new int[chunks.size()];
+        Map<String, Map<Integer, Integer>> termFrequencies = new HashMap<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<String> terms = tokenize(chunks.get(i));
+            chunkLengths[i] = terms.size();
+            for (String term : terms) {
+                termFrequencies.computeIfAbsent(term, t -> new HashMap<>()).merge(i, 1, Integer::sum);
+            }
+        }
+
+        Map<String, Posting> postings = new HashMap<>();
+        termFrequencies.forEach((term, byChunk) -> {
+            int[] chunkIds = byChunk.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int[] frequencies = new int[chunkIds.length];
+            for (int i = 0; i < chunkIds.length; i++) {
+                frequencies[i] = byChunk.get(chunkIds[i]);
+            }
+            postings.put(term, new Posting(chunkIds, frequencies));
+        });
+
+        return new WorkflowContextIndex(Collections.unmodifiableList(chunks), chunkLengths, postings);
+    }
+
+    /**
+     * Select the chunks most relevant to the query.
+     *
+     * @param query       story text (user story, acceptance criteria, business rules)
+     * @param topK        maximum number of chunks
+     * @param maxTokens   approximate token budget for the returned text
+     * @param includeFirst whether the first chunk (usually login/navigation) is always included
+     * @return the selected chunks in document order, joined by blank lines (empty if nothing fits)
+     */
+    public String select(String query, int topK, int maxTokens, boolean includeFirst) {
+        if (chunks.isEmpty()) {
+            return "";
+        }
+
+        double[] scores = score(query);
+        Integer[] ranked = new Integer[chunks.size()];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = i;
+        }
+        Arrays.sort(ranked, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        int budgetChars = Math.max(0, maxTokens) * CHARS_PER_TOKEN;
+        int usedChars = 0;
+        boolean[] selected = new boolean[chunks.size()];
+        int selectedCount = 0;
+
+        if (includeFirst && chunks.get(0).length() <= budgetChars) {
+            selected[0] = true;
+            selectedCount++;
+            usedChars += chunks.get(0).length();
+        }
+
+        for (int chunkId : ranked) {
+            if (selectedCount >= topK || scores[chunkId] <= 0) {
+                break;
+            }
+            if (selected[chunkId]) {
+                continue;
+            }
+            int length = chunks.get(chunkId).length();
+            if (usedChars + length > budgetChars) {
+                continue;
+            }
+            selected[chunkId] = true;
+            selectedCount++;
+            usedChars += length;
+        }
+
+        StringBuilder context = new StringBuilder(usedChars + selectedCount * 2);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (selected[i]) {
+                if (context.length() > 0) {
+                    context.append("\n\n");
+                }
+                context.append(chunks.get(i));
+            }
+        }
+        return context.toString();
+    }
+
+    /**
+     * The opening chunks of the document that fit the token budget, for stories no chunk was selected for.
+     * When the first chunk alone is over the budget it is cut to the budget.
+     *
+     * @return the leading chunks in document order, joined by blank lines (empty if the document is)
+     */
+    public String leading(int maxTokens) {
+        int budgetChars = Math.max(0, maxTokens) * CHARS_PER_TOKEN;
+        StringBuilder context = new StringBuilder();
+        for (String chunk : chunks) {
+            int separator = context.length() > 0 ? 2 : 0;
+            if (context.length() + separator + chunk.length() > budgetChars) {
+                if (context.length() == 0) {
+                    context.append(chunk, 0, Math.min(chunk.length(), budgetChars));
+                }
+                break;
+            }
+            if (separator > 0) {
+                context.append("\n\n");
+            }
+            context.append(chunk);
+        }
+        return context.toString();
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * BM25 score of every chunk for the distinct terms of the query
+     */
+    double[] score(String query) {
+        double[] scores = new double[chunks.size()];
+        int n = chunks.size();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            int df = posting.chunkIds.length;
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            for (int i = 0; i < posting.chunkIds.length; i++) {
+                int chunkId = posting.chunkIds[i];
+                int tf = posting.frequencies[i];
+                double norm = K1 * (1 - B + B * chunkLengths[chunkId] / averageChunkLength);
+                scores[chunkId] += idf * (tf * (K1 + 1)) / (tf + norm);
+            }
+        }
+        return scores;
+    }
+
+    private static List<String> chunk(String content, int maxChars) {
+        List<String> chunks = new ArrayList<>();
+        if (content == null) {
+            return chunks;
+        }
+
+        String heading = null;
+        StringBuilder current = new StringBuilder();
+        boolean hasBody = false;
+        for (String rawLine : content.split("\\r?\\n")) {
+            String line = rawLine.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (isHeading(line)) {
+                if (hasBody) {
+                    flush(chunks, current);
+                    heading = line;
+                } else {
+                    // Consecutive headings (title followed by section) stay together
+                    heading = heading != null ? heading + "\n" + line : line;
+                    current.setLength(0);
+                }
+                current.append(heading);
+                hasBody = false;
+                continue;
+            }
+            // Start a continuation chunk (repeating the heading) when the current one is full
+            if (current.length() > 0 && current.length() + line.length() + 1 > maxChars) {
+                flush(chunks, current);
+                if (heading != null) {
+                    current.append(heading);
+                }
+            }
+            if (current.length() > 0) {
+                current.append('\n');
+            }
+            current.append(line);
+            hasBody = true;
+        }
+        flush(chunks, current);
+        return chunks;
+    }
+
+    private static void flush(List<String> chunks, StringBuilder current) {
+        if (current.length() > 0) {
+            chunks.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * Short line that does not end in punctuation and does not start with a step instruction
+     */
+    private static boolean isHeading(String line) {
+        String[] words = line.split("\\s+");
+        if (words.length > MAX_HEADING_WORDS || line.indexOf(':') >= 0) {
+            return false;
+        }
+        char last = line.charAt(line.length() - 1);
+        return Character.isLetterOrDigit(last) && !STEP_VERBS.contains(words[0].toLowerCase());
+    }
+
+    /**
+     * Lower-cased alphanumeric terms without stop words, with plural/verb suffixes stripped
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (term.length() > 0) {
+                addTerm(terms, term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String term) {
+        if (term.length() < 2 || STOP_WORDS.contains(term)) {
+            return;
+        }
+        terms.add(stem(term));
+    }
+
+    private static String stem(String term) {
+        if (term.length() > 5 && term.endsWith("ing")) {
+            return term.substring(0, term.length() - 3);
+        }
+        if (term.length() > 4 && term.endsWith("ed")) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.length() > 4 && term.endsWith("ies")) {
+            return term.substring(0, term.length() - 3) + "y";
+        }
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+
+    private static class Posting {
+        private final int[] chunkIds;
+        private final int[] frequencies;
+
+        Posting(int[] chunkIds, int[] frequencies) {
+            this.chunkIds = chunkIds;
+            this.frequencies = frequencies;
+        }
+    }
+}
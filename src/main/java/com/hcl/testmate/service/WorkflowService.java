@@ -2,6 +2,7 @@ package com.hcl.testmate.service;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,12 +34,30 @@ public class WorkflowService {
     @Value("${workflow.vs6.document.path:VS6 Flow.docx}")
     private String vs6WorkflowDocumentPath;
     
+    @Value("${workflow.context.enabled:true}")
+    private boolean contextRetrievalEnabled;
+    
+    @Value("${workflow.context.chunk-tokens:120}")
+    private int chunkTokens;
+    
+    @Value("${workflow.context.top-k:5}")
+    private int contextTopK;
+    
+    @Value("${workflow.context.max-tokens:800}")
+    private int contextMaxTokens;
+    
+    @Value("${workflow.context.include-first-chunk:true}")
+    private boolean includeFirstChunk;
+    
     // Map to store workflow content by workflow type
     private Map<String, String> workflowContents = new HashMap<>();
     private Map<String, Boolean> workflowLoadedStatus = new HashMap<>();
+    // BM25 index over the chunks of each workflow document
+    private Map<String, WorkflowContextIndex> workflowIndexes = new HashMap<>();
     
     // Legacy support - default workflow
     private String workflowContent;
+    private String defaultWorkflowType;
     private boolean workflowLoaded = false;
 
     /**
@@ -60,14 +79,17 @@ public class WorkflowService {
         // Set default workflow to VS4 for backward compatibility
         if (workflowLoadedStatus.getOrDefault("VS4", false)) {
             workflowContent = workflowContents.get("VS4");
+            defaultWorkflowType = "VS4";
             workflowLoaded = true;
             log.info("Default workflow set to VS4");
         } else if (workflowLoadedStatus.getOrDefault("VS2", false)) {
             workflowContent = workflowContents.get("VS2");
+            defaultWorkflowType = "VS2";
             workflowLoaded = true;
             log.info("Default workflow set to VS2");
         } else if (workflowLoadedStatus.getOrDefault("VS6", false)) {
             workflowContent = workflowContents.get("VS6");
+            defaultWorkflowType = "VS6";
             workflowLoaded = true;
             log.info("Default workflow set to VS6");
         } else {
@@ -83,37 +105,22 @@ public class WorkflowService {
         try {
             log.info("Loading {} workflow document from: {}", workflowType, documentPath);
             
-            InputStream inputStream = null;
-            
-            // Try loading from classpath first (works in JAR)
-            try {
-                inputStream = getClass().getClassLoader().getResourceAsStream(documentPath);
-                if (inputStream != null) {
-                    log.info("Loaded {} workflow document from classpath", workflowType);
-                }
-            } catch (Exception e) {
-                log.debug("Could not load from classpath: {}", e.getMessage());
-            }
-            
-            // If not found in classpath, try loading from file system (works in development)
+            InputStream inputStream = openWorkflowDocument(workflowType, documentPath);
             if (inputStream == null) {
-                File workflowFile = new File(documentPath);
-                if (workflowFile.exists()) {
-                    inputStream = new FileInputStream(workflowFile);
-                    log.info("Loaded {} workflow document from file system: {}", workflowType, workflowFile.getAbsolutePath());
-                } else {
-                    log.warn("{} workflow document not found in classpath or file system: {}", workflowType, documentPath);
-                    workflowLoadedStatus.put(workflowType, false);
-                    return;
-                }
+                log.warn("{} workflow document not found in classpath or file system: {}", workflowType, documentPath);
+                workflowLoadedStatus.put(workflowType, false);
+                return;
             }
             
-            String content = extractTextFromDocx(inputStream);
+            String content = extractTextFromDocx(inputStream, workflowType, documentPath);
             
             if (content != null && !content.trim().isEmpty()) {
                 workflowContents.put(workflowType, content);
                 workflowLoadedStatus.put(workflowType, true);
-                log.info("Successfully loaded {} workflow document ({} characters)", workflowType, content.length());
+                WorkflowContextIndex index = WorkflowContextIndex.build(content, chunkTokens);
+                workflowIndexes.put(workflowType, index);
+                log.info("Successfully loaded {} workflow document ({} characters, {} chunks)", 
+                    workflowType, content.length(), index.getChunkCount());
             } else {
                 log.warn("{} workflow document is empty", workflowType);
                 workflowLoadedStatus.put(workflowType, false);
@@ -154,6 +161,43 @@ public class WorkflowService {
         return workflowContents.get(normalizedType);
     }
     
+    /**
+     * Get only the sections of a workflow document that are relevant to the story,
+     * limited to the configured number of chunks and token budget.
+     * Falls back to the whole document when retrieval is disabled, and to the opening sections of the
+     * document (within the token budget) when no section matches the story.
+     * @param workflowType workflow type (VS2, VS4, ...) or null for the default workflow
+     * @param storyText user story, acceptance criteria and business rules used as the query
+     * @return relevant workflow text, or null if the workflow is not loaded
+     */
+    public String getRelevantWorkflowContext(String workflowType, String storyText) {
+        String normalizedType = workflowType == null || workflowType.isEmpty() 
+            ? defaultWorkflowType : workflowType.toUpperCase().trim();
+        String content = getWorkflowContent(normalizedType);
+        if (content == null) {
+            return null;
+        }
+        
+        WorkflowContextIndex index = workflowIndexes.get(normalizedType);
+        if (!contextRetrievalEnabled || index == null) {
+            return content;
+        }
+        
+        String context = index.select(storyText, contextTopK, contextMaxTokens, includeFirstChunk);
+        if (context.isBlank()) {
+            // No chunk shares a term with the story (or none fits): the opening of the workflow beats no workflow
+            context = index.leading(contextMaxTokens);
+            if (context.isBlank()) {
+                context = content;
+            }
+            log.debug("No {} workflow section matched the story, using the first {} characters", normalizedType, context.length());
+            return context;
+        }
+        log.debug("Selected {} of {} characters of {} workflow context for the story", 
+            context.length(), content.length(), normalizedType);
+        return context;
+    }
+    
     /**
      * Determine workflow type from JIRA key
      * @param jiraKey - JIRA story key (e.g., R2CX-7237)
@@ -250,14 +294,55 @@ public class WorkflowService {
     public void reloadWorkflowDocument() {
         workflowContents.clear();
         workflowLoadedStatus.clear();
+        workflowIndexes.clear();
+        defaultWorkflowType = null;
         loadWorkflowDocument();
     }
 
     /**
-     * Extract text from .docx file
+     * Open a workflow document, from the classpath first (works in JAR), then from the file system
+     * (works in development)
+     *
+     * @return null when the document exists in neither
      */
-    private String extractTextFromDocx(InputStream inputStream) throws Exception {
-        try (XWPFDocument document = new XWPFDocument(inputStream);
+    private InputStream openWorkflowDocument(String workflowType, String documentPath) throws IOException {
+        try {
+            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(documentPath);
+            if (inputStream != null) {
+                log.info("Loaded {} workflow document from classpath", workflowType);
+                return inputStream;
+            }
+        } catch (Exception e) {
+            log.debug("Could not load from classpath: {}", e.getMessage());
+        }
+        
+        File workflowFile = new File(documentPath);
+        if (workflowFile.exists()) {
+            log.info("Loaded {} workflow document from file system: {}", workflowType, workflowFile.getAbsolutePath());
+            return new FileInputStream(workflowFile);
+        }
+        return null;
+    }
+
+    /**
+     * Extract text from .docx file by streaming its main document part
+     */
+    private String extractTextFromDocx(InputStream inputStream, String workflowType, String documentPath) throws Exception {
+        StringBuilder text = new StringBuilder();
+        try (InputStream in = inputStream) {
+            if (DocxTextExtractor.extract(in, text, 0)) {
+                return text.toString();
+            }
+        }
+        
+        // Packages that name their main part differently are read through the document model
+        log.debug("No {} part found in {} workflow document, falling back to XWPFWordExtractor",
+                DocxTextExtractor.MAIN_DOCUMENT_PART, workflowType);
+        InputStream reopened = openWorkflowDocument(workflowType, documentPath);
+        if (reopened == null) {
+            throw new IOException("Workflow document disappeared while loading: " + documentPath);
+        }
+        try (XWPFDocument document = new XWPFDocument(reopened);
              XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
             return extractor.getText();
         }
@@ -0,0 +1,179 @@
+package com.hcl.testmate.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.hcl.testmate.model.TestCase;
+
+/**
+ * Service for generating Excel (XLSX) files from test cases, with the same Octane columns as the CSV.
+ * Built on POI's streaming workbook: only a window of rows is kept in memory and older rows are
+ * flushed to a temporary file, so the heap stays flat however many test cases are exported.
+ */
+@Service
+public class XlsxGeneratorService {
+
+    private static final Logger log = LoggerFactory.getLogger(XlsxGeneratorService.class);
+
+    public static final MediaType XLSX_MEDIA_TYPE =
+            new MediaType("application", "vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private static final String SHEET_NAME = "Test Cases";
+
+    // Multi-line columns, shown with wrapped text so each step stays on its own line
+    private static final Set<String> WRAPPED_COLUMNS = Set.of(
+        "Name", "To Validate", "Preconditions", "Test Steps", "Expected Result"
+    );
+
+    // Column widths in characters
+    private static final int WRAPPED_COLUMN_WIDTH = 50;
+    private static final int DEFAULT_COLUMN_WIDTH = 16;
+
+    private static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final CsvGeneratorService csvGeneratorService;
+
+    @Value("${testmate.export.xlsx.row-window:100}")
+    private int rowWindow;
+
+    @Value("${testmate.export.xlsx.compress-temp-files:true}")
+    private boolean compressTempFiles;
+
+    public XlsxGeneratorService(CsvGeneratorService csvGeneratorService) {
+        this.csvGeneratorService = csvGeneratorService;
+    }
+
+    /**
+     * Write the test cases as an XLSX workbook to a stream (e.g. an HTTP response).
+     * The stream is flushed but not closed.
+     */
+    public void writeXlsx(List<TestCase> testCases, OutputStream out) throws IOException {
+        try (SheetWriter writer = open(false)) {
+            writer.writeRecords(null, testCases);
+            writer.writeTo(out);
+        }
+    }
+
+    /**
+     * Start a workbook that rows are appended to story by story.
+     * With storyKeyColumn the sheet gets a leading "Story Key" column, as in the merged CSV.
+     * The writer must be closed to remove its temporary file.
+     */
+    public SheetWriter open(boolean storyKeyColumn) {
+        return new SheetWriter(storyKeyColumn);
+    }
+
+    /**
+     * A single-sheet streaming workbook being filled with test case rows
+     */
+    public class SheetWriter implements Closeable {
+        private final SXSSFWorkbook workbook;
+        private final SXSSFSheet sheet;
+        private final boolean storyKeyColumn;
+        private final boolean[] wrapped;
+        private final CellStyle wrappedStyle;
+        private int nextRow = 0;
+        private int rowCount = 0;
+
+        SheetWriter(boolean storyKeyColumn) {
+            this.storyKeyColumn = storyKeyColumn;
+            this.workbook = new SXSSFWorkbook(Math.max(1, rowWindow));
+            workbook.setCompressTempFiles(compressTempFiles);
+            this.sheet = workbook.createSheet(SHEET_NAME);
+
+            List<String> headers = new ArrayList<>();
+            if (storyKeyColumn) {
+                headers.add(CsvGeneratorService.STORY_KEY_HEADER);
+            }
+            headers.addAll(csvGeneratorService.headers());
+
+            this.wrappedStyle = workbook.createCellStyle();
+            wrappedStyle.setWrapText(true);
+            wrappedStyle.setVerticalAlignment(VerticalAlignment.TOP);
+
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            CellStyle headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(headerFont);
+
+            this.wrapped = new boolean[headers.size()];
+            Row headerRow = sheet.createRow(nextRow++);
+            for (int i = 0; i < headers.size(); i++) {
+                wrapped[i] = WRAPPED_COLUMNS.contains(headers.get(i));
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers.get(i));
+                cell.setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, (wrapped[i] ? WRAPPED_COLUMN_WIDTH : DEFAULT_COLUMN_WIDTH) * 256);
+            }
+            sheet.createFreezePane(0, 1);
+        }
+
+        /**
+         * Append one row per test case
+         *
+         * @param storyKey value of the story key column; ignored when the sheet has none
+         */
+        public void writeRecords(String storyKey, List<TestCase> testCases) throws IOException {
+            for (TestCase testCase : testCases) {
+                List<Object> values = new ArrayList<>(wrapped.length);
+                if (storyKeyColumn) {
+                    values.add(storyKey);
+                }
+                values.addAll(csvGeneratorService.recordValues(testCase));
+
+                Row row = sheet.createRow(nextRow++);
+                for (int i = 0; i < values.size(); i++) {
+                    Cell cell = row.createCell(i);
+                    cell.setCellValue(cellText(values.get(i)));
+                    if (wrapped[i]) {
+                        cell.setCellStyle(wrappedStyle);
+                    }
+                }
+                rowCount++;
+            }
+        }
+
+        /**
+         * Write the finished workbook; rows already flushed to the temporary file are copied from there.
+         * The stream is flushed but not closed.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            workbook.write(out);
+            out.flush();
+            log.info("Wrote XLSX with {} test cases", rowCount);
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static String cellText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Excel rejects longer cell text
+        return text.length() > MAX_CELL_LENGTH ? text.substring(0, MAX_CELL_LENGTH) : text;
+    }
+}
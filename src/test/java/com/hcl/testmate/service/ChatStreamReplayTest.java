@@ -0,0 +1,105 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.hcl.testmate.model.TestCase;
+
+/**
+ * Replays recorded server-sent event streams of the AI service through readChatStream
+ * and the incremental test case parser
+ */
+class ChatStreamReplayTest {
+
+    // Configured like the application's mapper, which ignores fields the models do not declare
+    private final HclCafeAiService aiService = new HclCafeAiService(null,
+            Jackson2ObjectMapperBuilder.json().build(), null, null);
+    private final TestCaseJsonReader testCaseReader = new TestCaseJsonReader();
+
+    @Test
+    void completeStreamEmitsEveryTestCaseAsItArrives() throws Exception {
+        List<TestCase> testCases = new ArrayList<>();
+        IncrementalTestCaseParser parser = parserInto(testCases);
+
+        String content = aiService.readChatStream(recording("test-cases-complete.txt"), parser::feed);
+
+        assertTrue(parser.isComplete());
+        assertEquals(3, testCases.size());
+        assertEquals("Login with valid credentials", testCases.get(0).getTestScenario());
+        assertEquals("Login with {braces} in the password", testCases.get(1).getTestScenario());
+        assertEquals("1. Open login\n2. Submit", testCases.get(1).getTestSteps());
+        assertEquals("Negative", testCases.get(2).getTestType());
+        // The tolerant parser reads the same array from the full content
+        assertEquals(3, testCaseReader.read(content, testCase -> { }));
+    }
+
+    @Test
+    void streamWithFinishReasonButNoDoneIsComplete() throws Exception {
+        List<TestCase> testCases = new ArrayList<>();
+
+        aiService.readChatStream(recording("test-cases-no-done.txt"), parserInto(testCases)::feed);
+
+        assertEquals(3, testCases.size());
+    }
+
+    @Test
+    void truncatedStreamFailsAfterEmittingTheCompleteTestCases() {
+        List<TestCase> testCases = new ArrayList<>();
+        IncrementalTestCaseParser parser = parserInto(testCases);
+
+        assertThrows(IOException.class, () -> aiService.readChatStream(recording("test-cases-truncated.txt"), parser::feed));
+
+        assertFalse(parser.isComplete());
+        assertEquals(1, testCases.size());
+        assertEquals("TC001", testCases.get(0).getTestCaseId());
+    }
+
+    @Test
+    void consumerExceptionAbortsTheStream() {
+        IllegalStateException disconnected = new IllegalStateException("Client disconnected");
+        IncrementalTestCaseParser parser = new IncrementalTestCaseParser(objectJson -> {
+            throw disconnected;
+        });
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> aiService.readChatStream(recording("test-cases-complete.txt"), parser::feed));
+
+        assertEquals(disconnected, thrown);
+        assertFalse(parser.isComplete());
+    }
+
+    private IncrementalTestCaseParser parserInto(List<TestCase> testCases) {
+        return new IncrementalTestCaseParser(objectJson -> {
+            try {
+                testCases.add(testCaseReader.readTestCase(objectJson, testCases.size()));
+            } catch (IOException e) {
+                throw new AssertionError("Streamed test case is not valid JSON: " + objectJson, e);
+            }
+        });
+    }
+
+    private Stream<String> recording(String name) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/sse/" + name), StandardCharsets.UTF_8));
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcl.testmate.model.AiRequestOptions;
+import com.hcl.testmate.model.MultiDocumentResponse;
+import com.hcl.testmate.model.UploadedDocument;
+
+/**
+ * Upload processing with a real generator over a mocked AI service
+ */
+class DocumentGenerationServiceTest {
+
+    private static final String AI_TEST_CASES = "[{\"testCaseId\":\"TC001\",\"testScenario\":\"Pay a saved payee\","
+            + "\"testSteps\":\"1. Confirm the payment\",\"expectedResult\":\"The balance is reduced\"}]";
+
+    private final HclCafeAiService aiService = mock(HclCafeAiService.class);
+    private final DocumentParserService parserService = mock(DocumentParserService.class);
+    private final UploadedDocumentStore documentStore = new UploadedDocumentStore(10, 60);
+    private final ThreadPoolTaskExecutor uploadExecutor = new ThreadPoolTaskExecutor();
+    private DocumentGenerationService documentService;
+
+    @BeforeEach
+    void setUp() {
+        uploadExecutor.setCorePoolSize(2);
+        uploadExecutor.initialize();
+        TestCaseGeneratorService generatorService = new TestCaseGeneratorService(aiService, new CsvGeneratorService(),
+                mock(AnalyticsService.class), mock(WorkflowService.class), new ObjectMapper(), new StoryValidator(),
+                mock(GeneratedTestCaseCache.class), false);
+        documentService = new DocumentGenerationService(parserService, generatorService, uploadExecutor, documentStore);
+
+        DocumentParserService.DocumentSections sections = new DocumentParserService.DocumentSections();
+        sections.setUserStory("As a customer I want to pay a bill so that my account stays in good standing");
+        sections.setAcceptanceCriteria("Given a saved payee when I confirm the payment then the balance is reduced");
+        when(parserService.isValidWordDocument(anyString(), anyLong())).thenReturn(true);
+        when(parserService.extractTextFromDocument(anyString(), any())).thenReturn("story text");
+        when(parserService.extractSections(anyString())).thenReturn(sections);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadExecutor.shutdown();
+    }
+
+    @Test
+    void timedOutDocumentStoresNoResult() throws Exception {
+        ReflectionTestUtils.setField(documentService, "documentTimeoutMs", 200L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(aiService.sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+                return "[]";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+
+        MultiDocumentResponse response = documentService.processDocuments(List.of(document("story.docx")))
+                .response().get(5, TimeUnit.SECONDS);
+
+        assertFalse(response.getDocumentResults().get(0).isSuccess());
+        assertTrue(response.getDocumentResults().get(0).getErrorMessage().startsWith("Processing timed out"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the AI call was not interrupted");
+        uploadExecutor.getThreadPoolExecutor().shutdown();
+        assertTrue(uploadExecutor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, documentStore.size());
+    }
+
+    @Test
+    void aiResultIsStoredAndReusedForTheSameContent() throws Exception {
+        when(aiService.sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class))).thenReturn(AI_TEST_CASES);
+
+        MultiDocumentResponse.DocumentTestCaseResult first = documentService.processDocument(document("story.docx"));
+        MultiDocumentResponse.DocumentTestCaseResult second = documentService.processDocument(document("copy.docx"));
+
+        assertTrue(first.isSuccess());
+        assertEquals(1, documentStore.size());
+        assertEquals("Pay a saved payee", second.getTestCaseResponse().getTestCases().get(0).getTestScenario());
+        verify(aiService, times(1)).sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class));
+    }
+
+    @Test
+    void templateFallbackIsReturnedButNotStored() throws Exception {
+        when(aiService.sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class)))
+                .thenThrow(new IllegalStateException("AI service unavailable"));
+
+        MultiDocumentResponse.DocumentTestCaseResult result = documentService.processDocument(document("story.docx"));
+
+        assertTrue(result.isSuccess());
+        assertTrue(result.getTestCaseResponse().isFallback());
+        assertEquals(0, documentStore.size());
+
+        // Once the AI service is back, the same content is generated again
+        when(aiService.sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class))).thenReturn(AI_TEST_CASES);
+        MultiDocumentResponse.DocumentTestCaseResult retried = documentService.processDocument(document("story.docx"));
+
+        assertFalse(retried.getTestCaseResponse().isFallback());
+        assertEquals(1, documentStore.size());
+    }
+
+    private static UploadedDocument document(String fileName) {
+        return new UploadedDocument(fileName, "same content".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,119 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Paginated JQL searches: pages fetched in parallel are delivered in order on the searching thread
+ */
+class JiraServiceSearchTest {
+
+    private static final Pattern START_AT = Pattern.compile("startAt=(\\d+)&maxResults=(\\d+)");
+
+    private final JiraClientFactory clientFactory = mock(JiraClientFactory.class);
+    private final ExecutorService httpThreads = Executors.newFixedThreadPool(4);
+    private JiraService jiraService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jiraService = new JiraService(clientFactory, mock(JiraIssueCache.class), new JiraEndpointRegistry(60));
+        ReflectionTestUtils.setField(jiraService, "searchPageSize", 2);
+        ReflectionTestUtils.setField(jiraService, "searchParallelPages", 2);
+        when(clientFactory.newRequest(anyString()))
+                .thenAnswer(invocation -> HttpRequest.newBuilder(URI.create(invocation.getArgument(0, String.class))));
+        HttpResponse<String> firstPage = response(200, page(0, 2, 7));
+        when(clientFactory.send(any())).thenReturn(firstPage);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpThreads.shutdownNow();
+    }
+
+    @Test
+    void pagesArrivingOutOfOrderAreDeliveredInOrderOnTheCallingThread() throws Exception {
+        when(clientFactory.sendAsync(any())).thenAnswer(invocation -> {
+            Matcher matcher = START_AT.matcher(invocation.getArgument(0, HttpRequest.class).uri().getRawQuery());
+            assertTrue(matcher.find());
+            int startAt = Integer.parseInt(matcher.group(1));
+            int maxResults = Integer.parseInt(matcher.group(2));
+            return CompletableFuture.supplyAsync(() -> {
+                // Earlier pages come back last
+                sleep(100 - startAt * 10L);
+                return response(200, page(startAt, maxResults, 7));
+            }, httpThreads);
+        });
+        Thread caller = Thread.currentThread();
+        List<String> keys = new ArrayList<>();
+
+        int delivered = jiraService.searchByJql("https://jira.example.com", "user", "token", "project = PAY", story -> {
+            assertEquals(caller, Thread.currentThread());
+            keys.add(story.getIssueKey());
+        });
+
+        assertEquals(7, delivered);
+        assertEquals(List.of("PAY-0", "PAY-1", "PAY-2", "PAY-3", "PAY-4", "PAY-5", "PAY-6"), keys);
+    }
+
+    @Test
+    void failedPageFailsTheSearch() {
+        when(clientFactory.sendAsync(any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(response(500, "{}")));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> jiraService.searchByJql("https://jira.example.com", "user", "token", "project = PAY", story -> { }));
+
+        assertTrue(error.getMessage().startsWith("Failed to fetch JIRA search results"), error.getMessage());
+    }
+
+    private static String page(int startAt, int maxResults, int total) {
+        StringBuilder issues = new StringBuilder();
+        for (int i = startAt; i < Math.min(startAt + maxResults, total); i++) {
+            if (issues.length() > 0) {
+                issues.append(',');
+            }
+            issues.append("{\"key\":\"PAY-").append(i).append("\",\"fields\":{\"summary\":\"Story ").append(i)
+                    .append("\",\"description\":\"As a user\"}}");
+        }
+        return "{\"startAt\":" + startAt + ",\"maxResults\":" + maxResults + ",\"total\":" + total
+                + ",\"issues\":[" + issues + "]}";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> response(int status, String body) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body);
+        return response;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(Math.max(0, millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hcl.testmate.model.JiraCredentials;
+import com.hcl.testmate.model.JiraStory;
+import com.hcl.testmate.model.TestCase;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * Change-driven regeneration of registered projects, with the sync executor run by the test
+ */
+class JiraSyncServiceTest {
+
+    private static final String JIRA_URL = "https://example.atlassian.net";
+
+    private final JiraService jiraService = mock(JiraService.class);
+    private final TestCaseGeneratorService generatorService = mock(TestCaseGeneratorService.class);
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final AtomicInteger searches = new AtomicInteger();
+    private JiraSyncService syncService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        syncService = new JiraSyncService(jiraService, new JiraStoryConverter(), generatorService, tasks::add);
+        // The first search is the baseline and sees the original story, later ones see no updates
+        when(jiraService.searchByJql(anyString(), anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            if (searches.getAndIncrement() == 0) {
+                invocation.getArgument(4, Consumer.class).accept(story("As a customer I want to pay a bill"));
+                return 1;
+            }
+            return 0;
+        });
+    }
+
+    @Test
+    void syncsRunOnTheSyncExecutorOneAtATimePerProject() throws Exception {
+        syncService.register(new JiraCredentials(JIRA_URL, "qa.lead", "token"), List.of("PAY"));
+        runTasks();
+
+        syncService.syncAll();
+        syncService.syncAll();
+
+        verify(jiraService, times(1)).searchByJql(anyString(), anyString(), anyString(), anyString(), any());
+        assertEquals(1, tasks.size());
+        assertEquals(true, status().get("running"));
+        runTasks();
+        assertEquals(false, status().get("running"));
+        verify(jiraService, times(2)).searchByJql(anyString(), anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void templateFallbackKeepsTheChangePendingUntilTheAiSucceeds() throws Exception {
+        syncService.register(new JiraCredentials(JIRA_URL, "qa.lead", "token"), List.of("PAY"));
+        runTasks();
+        when(generatorService.generateTestCasesWithoutCsv(any())).thenReturn(response(true));
+
+        syncService.submitChangedStory(JIRA_URL, story("As a customer I want to pay a bill and a fee"));
+        runTasks();
+
+        assertEquals(List.of("PAY-1"), status().get("pending"));
+        assertEquals(0L, status().get("regenerated"));
+        assertEquals(1L, status().get("failed"));
+
+        when(generatorService.generateTestCasesWithoutCsv(any())).thenReturn(response(false));
+        syncService.syncAll();
+        runTasks();
+
+        assertEquals(List.of(), status().get("pending"));
+        assertEquals(1L, status().get("regenerated"));
+        verify(generatorService, times(2)).generateTestCasesWithoutCsv(any());
+        verify(generatorService, never()).generateTestCases(any());
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private Map<String, Object> status() {
+        return syncService.getStatus().get(0);
+    }
+
+    private static JiraStory story(String userStory) {
+        JiraStory story = new JiraStory();
+        story.setIssueKey("PAY-1");
+        story.setSummary("Pay a bill");
+        story.setUserStory(userStory);
+        story.setUpdatedDate("2026-10-16T09:00:00.000+0000");
+        return story;
+    }
+
+    private static TestCaseResponse response(boolean fallback) {
+        return TestCaseResponse.builder()
+                .success(true)
+                .fallback(fallback)
+                .testCases(List.of(new TestCase()))
+                .totalTestCases(1)
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcl.testmate.model.JiraStory;
+
+/**
+ * Replays recorded JIRA webhook deliveries through JiraWebhookService
+ */
+class JiraWebhookServiceTest {
+
+    private static final String SECRET = "webhook-secret";
+
+    private final JiraIssueCache issueCache = mock(JiraIssueCache.class);
+    private final TestCaseGeneratorService testCaseGeneratorService = mock(TestCaseGeneratorService.class);
+    private final JiraSyncService syncService = mock(JiraSyncService.class);
+    private JiraWebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        webhookService = new JiraWebhookService(new JiraService(null, null, null), issueCache,
+                testCaseGeneratorService, syncService, new ObjectMapper());
+        ReflectionTestUtils.setField(webhookService, "secret", SECRET);
+        ReflectionTestUtils.setField(webhookService, "coalesceMs", 60_000L);
+        ReflectionTestUtils.setField(webhookService, "maxDelayMs", 600_000L);
+        when(syncService.submitChangedStory(any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void burstOfEventsForOneIssueIsHandledOnce() throws Exception {
+        String payload = payload("issue-updated-description.json");
+        webhookService.accept(payload, sign(payload));
+        webhookService.accept(payload, sign(payload));
+        webhookService.accept(payload, sign(payload));
+
+        // Still inside the coalesce window
+        webhookService.flush();
+        verify(testCaseGeneratorService, never()).clearCache(any());
+
+        ReflectionTestUtils.setField(webhookService, "coalesceMs", 0L);
+        webhookService.flush();
+        webhookService.flush();
+
+        verify(testCaseGeneratorService, times(1)).clearCache("PAY-42");
+        verify(issueCache, times(1)).invalidate("PAY-42");
+        Map<String, Object> stats = webhookService.getStatistics();
+        assertEquals(3L, stats.get("received"));
+        assertEquals(2L, stats.get("coalesced"));
+        assertEquals(1L, stats.get("handled"));
+        assertEquals(0, stats.get("pending"));
+    }
+
+    @Test
+    void burstIsHandledAfterMaxDelayEvenWhileEventsKeepArriving() throws Exception {
+        ReflectionTestUtils.setField(webhookService, "maxDelayMs", 0L);
+        String payload = payload("issue-updated-description.json");
+        webhookService.accept(payload, sign(payload));
+
+        webhookService.flush();
+
+        verify(testCaseGeneratorService).clearCache("PAY-42");
+    }
+
+    @Test
+    void updateWithoutStoryFieldChangesIsIgnored() throws Exception {
+        String payload = payload("issue-updated-status.json");
+
+        Map<String, Object> result = webhookService.accept(payload, sign(payload));
+
+        assertEquals("ignored", result.get("status"));
+        assertEquals("no story fields changed", result.get("reason"));
+        ReflectionTestUtils.setField(webhookService, "coalesceMs", 0L);
+        webhookService.flush();
+        verify(testCaseGeneratorService, never()).clearCache(any());
+    }
+
+    @Test
+    void createdIssueWithoutChangelogIsQueuedUnderItsNormalizedKey() throws Exception {
+        String payload = payload("issue-created.json");
+
+        Map<String, Object> result = webhookService.accept(payload, sign(payload));
+
+        assertEquals("queued", result.get("status"));
+        assertEquals("PAY-43", result.get("issueKey"));
+    }
+
+    @Test
+    void otherEventsAreIgnored() throws Exception {
+        String payload = payload("comment-created.json");
+
+        assertEquals("ignored", webhookService.accept(payload, sign(payload)).get("status"));
+    }
+
+    @Test
+    void pregenerationQueuesTheStoryFromThePayload() throws Exception {
+        ReflectionTestUtils.setField(webhookService, "pregenerate", true);
+        ReflectionTestUtils.setField(webhookService, "coalesceMs", 0L);
+        String payload = payload("issue-updated-description.json");
+        webhookService.accept(payload, sign(payload));
+
+        webhookService.flush();
+
+        verify(syncService).submitChangedStory(eq("https://example.atlassian.net"), any(JiraStory.class));
+        assertEquals(1L, webhookService.getStatistics().get("pregenerations"));
+    }
+
+    @Test
+    void deliveriesWithoutAValidSignatureAreRejected() throws Exception {
+        String payload = payload("issue-updated-description.json");
+
+        assertThrows(SecurityException.class, () -> webhookService.accept(payload, null));
+        assertThrows(SecurityException.class, () -> webhookService.accept(payload, sign(payload + " ")));
+    }
+
+    @Test
+    void deliveriesAreRejectedWhenNoSecretIsConfigured() throws Exception {
+        ReflectionTestUtils.setField(webhookService, "secret", "");
+        String payload = payload("issue-updated-description.json");
+
+        assertThrows(SecurityException.class, () -> webhookService.accept(payload, null));
+    }
+
+    @Test
+    void unsignedDeliveriesNeverTriggerPregeneration() throws Exception {
+        ReflectionTestUtils.setField(webhookService, "secret", "");
+        ReflectionTestUtils.setField(webhookService, "allowUnsigned", true);
+        ReflectionTestUtils.setField(webhookService, "pregenerate", true);
+        ReflectionTestUtils.setField(webhookService, "coalesceMs", 0L);
+
+        webhookService.accept(payload("issue-updated-description.json"), null);
+        webhookService.flush();
+
+        verify(testCaseGeneratorService).clearCache("PAY-42");
+        verify(syncService, never()).submitChangedStory(any(), any());
+    }
+
+    private String payload(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/jira-webhook/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String sign(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        StringBuilder signature = new StringBuilder("sha256=");
+        for (byte b : mac.doFinal(payload.getBytes(StandardCharsets.UTF_8))) {
+            signature.append(String.format("%02x", b));
+        }
+        return signature.toString();
+    }
+}
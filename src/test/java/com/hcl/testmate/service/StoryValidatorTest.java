@@ -0,0 +1,64 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.StoryValidation;
+
+/**
+ * Rule-based story checks, including long stories that never complete a clause
+ */
+class StoryValidatorTest {
+
+    private final StoryValidator validator = new StoryValidator();
+
+    @Test
+    void wellFormedStoryIsValid() {
+        StoryValidation validation = validator.validate(JiraStoryRequest.builder()
+                .userStory("As a customer, I want to pay a bill so that my account stays in good standing")
+                .acceptanceCriteria("Given a saved payee, when I confirm the payment, then the balance is reduced")
+                .build());
+
+        assertEquals(StoryValidation.STATUS_VALID, validation.getStatus(), String.valueOf(validation.getIssues()));
+    }
+
+    @Test
+    void acceptanceCriteriaInsideTheUserStoryAreFound() {
+        StoryValidation validation = validator.validate(JiraStoryRequest.builder()
+                .userStory("As an admin I want to lock accounts so that fraud stops.\n"
+                        + "Given a flagged account when I lock it then the user cannot log in")
+                .build());
+
+        assertEquals(StoryValidation.STATUS_VALID, validation.getStatus(), String.valueOf(validation.getIssues()));
+    }
+
+    @Test
+    void clauseKeywordsOutOfOrderDoNotMatch() {
+        StoryValidation validation = validator.validate(JiraStoryRequest.builder()
+                .userStory("I want to pay a bill as a customer so that I save time")
+                .acceptanceCriteria("Then the bill is paid when I confirm, given a saved payee")
+                .build());
+
+        assertTrue(validation.getIssues().contains("User story does not follow 'As a <role>, I want <goal>' structure"),
+                String.valueOf(validation.getIssues()));
+        assertTrue(validation.getIssues().contains(
+                "Acceptance criteria are not structured as Given/When/Then or a list of verifiable items"),
+                String.valueOf(validation.getIssues()));
+    }
+
+    @Test
+    void longStoryWithoutCompleteClausesIsValidatedQuickly() {
+        String story = "as a given when ".repeat(20_000);
+
+        StoryValidation validation = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> validator.validate(JiraStoryRequest.builder().userStory(story).build()));
+
+        assertEquals(StoryValidation.STATUS_INCOMPLETE, validation.getStatus());
+    }
+}
@@ -0,0 +1,56 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcl.testmate.model.AiRequestOptions;
+import com.hcl.testmate.model.JiraStoryRequest;
+import com.hcl.testmate.model.TestCaseResponse;
+
+/**
+ * Caching of generated test cases by JIRA key: only AI output is cached
+ */
+class TestCaseGeneratorServiceCacheTest {
+
+    private static final String AI_TEST_CASES = "[{\"testCaseId\":\"TC001\",\"testScenario\":\"Pay a saved payee\","
+            + "\"testSteps\":\"1. Confirm the payment\",\"expectedResult\":\"The balance is reduced\"}]";
+
+    private final HclCafeAiService aiService = mock(HclCafeAiService.class);
+    private final GeneratedTestCaseCache testCaseCache = new GeneratedTestCaseCache(10, 1, 60);
+    private final TestCaseGeneratorService generatorService = new TestCaseGeneratorService(aiService,
+            new CsvGeneratorService(), mock(AnalyticsService.class), mock(WorkflowService.class), new ObjectMapper(),
+            new StoryValidator(), testCaseCache, false);
+
+    @Test
+    void templateFallbackIsNotCached() throws Exception {
+        when(aiService.sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class)))
+                .thenThrow(new IllegalStateException("AI service unavailable"));
+
+        TestCaseResponse response = generatorService.generateTestCasesWithoutCsv(story());
+
+        assertTrue(response.isFallback());
+        assertEquals(0, testCaseCache.size());
+
+        // Once the AI service is back, the same story is generated again and cached
+        when(aiService.sendChatRequest(anyString(), anyString(), any(AiRequestOptions.class))).thenReturn(AI_TEST_CASES);
+        TestCaseResponse retried = generatorService.generateTestCasesWithoutCsv(story());
+
+        assertFalse(retried.isFallback());
+        assertEquals(1, testCaseCache.size());
+    }
+
+    private static JiraStoryRequest story() {
+        return JiraStoryRequest.builder()
+                .userStory("[PAY-1] As a customer I want to pay a bill so that my account stays in good standing")
+                .acceptanceCriteria("Given a saved payee when I confirm the payment then the balance is reduced")
+                .build();
+    }
+}
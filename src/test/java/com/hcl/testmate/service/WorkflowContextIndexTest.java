@@ -0,0 +1,48 @@
+package com.hcl.testmate.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Chunk selection of the workflow context index, including the fallback for stories that match no chunk
+ */
+class WorkflowContextIndexTest {
+
+    private static final String WORKFLOW = String.join("\n",
+            "Login",
+            "Open the SSC portal and sign in with your network account.",
+            "Payments",
+            "Enter the payee, the amount and the reference, then confirm the transfer.",
+            "Statements",
+            "Download monthly statements as PDF from the archive.");
+
+    private final WorkflowContextIndex index = WorkflowContextIndex.build(WORKFLOW, 20);
+
+    @Test
+    void selectsTheChunksSharingTermsWithTheStory() {
+        String context = index.select("As a customer I want to confirm a transfer to a payee", 1, 800, false);
+
+        assertTrue(context.startsWith("Payments"), context);
+    }
+
+    @Test
+    void selectsNothingForAStoryWithoutSharedTerms() {
+        assertEquals("", index.select("Quarterly tax forecast", 5, 800, false));
+    }
+
+    @Test
+    void leadingReturnsTheOpeningChunksWithinTheBudget() {
+        String context = index.leading(30);
+
+        assertTrue(context.startsWith("Login\nOpen the SSC portal"), context);
+        assertTrue(context.length() <= 30 * 4, context);
+    }
+
+    @Test
+    void leadingCutsAFirstChunkThatIsOverTheBudget() {
+        assertEquals("Login\nOpen", index.leading(3).substring(0, 10));
+        assertEquals(12, index.leading(3).length());
+    }
+}